@@ -0,0 +1,62 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntToLongFunction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * BoardBenchmark.java
+ *
+ * The BoardBenchmark class times each Board operation on 3x3 and 4x4
+ * boards under JMH, e.g.
+ *
+ * 		java -jar benchmarks/target/benchmarks.jar BoardBenchmark -p operation=neighbours,visitNeighbours -prof gc
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark
+{
+
+	@Param({ "3", "4" })
+	private int size; // rows and columns of the boards
+
+	@Param({ "newBoard", "manhattanCached", "manhattanEstimate", "hamming", "isGoal", "isSolvable", "equals",
+			"hashCode", "move", "neighbours", "visitNeighbours", "twin" })
+	private String operation; // name of the operation, see PuzzleWorkloads.boardOperations()
+
+	private IntToLongFunction timed; // the operation
+	private int index; // the board the next call uses
+
+	@Setup
+	public void setUp() throws Throwable
+	{
+		timed = Workloads.board(size, operation);
+	}
+
+	@Benchmark
+	public long run()
+	{
+		return timed.applyAsLong(index++);
+	}
+}
@@ -0,0 +1,62 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntToLongFunction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * SolveBenchmark.java
+ *
+ * The SolveBenchmark class times whole solves of the built in instance sets
+ * under JMH, one board of the set per call. The solver options are given as
+ * on the command line, e.g.
+ *
+ * 		java -jar benchmarks/target/benchmarks.jar SolveBenchmark -p options=,-compact,-ida
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolveBenchmark
+{
+
+	@Param({ "3x3-random", "4x4-walk60", "4x4-walk100" })
+	private String set; // name of the instance set, see PuzzleWorkloads.INSTANCE_SETS
+
+	@Param({ "" })
+	private String options; // solver options, see SolverOptions.fromArgs()
+
+	private IntToLongFunction solve; // solves the next board of the set
+	private int index; // the board the next call solves
+
+	@Setup
+	public void setUp() throws Throwable
+	{
+		solve = Workloads.solve(set, options);
+	}
+
+	@Benchmark
+	public long run()
+	{
+		return solve.applyAsLong(index++);
+	}
+}
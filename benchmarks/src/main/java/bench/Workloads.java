@@ -0,0 +1,71 @@
+package bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Map;
+import java.util.function.IntToLongFunction;
+
+/*
+ * Workloads.java
+ *
+ * The Workloads class gets the operations timed by the JMH benchmarks from
+ * the solver's PuzzleWorkloads class, which the tests share. The solver is
+ * in the default package, which a JMH benchmark cannot be in or import
+ * from, so the operations are looked up by name once when a benchmark is
+ * set up and are then called through IntToLongFunction with no reflection
+ * in the measured code.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+final class Workloads
+{
+
+	private Workloads()
+	{
+	}
+
+	/*
+	 * A Board operation, see PuzzleWorkloads.boardOperations().
+	 *
+	 * @param int size rows and columns of the boards
+	 * @param String name the name of the operation
+	 *
+	 * @return IntToLongFunction the operation
+	 */
+	@SuppressWarnings("unchecked")
+	static IntToLongFunction board(int size, String name) throws Throwable
+	{
+		MethodHandle operations = workloadMethod("boardOperations", MethodType.methodType(Map.class, int.class));
+		IntToLongFunction operation = ((Map<String, IntToLongFunction>) operations.invoke(size)).get(name);
+		if (operation == null)
+		{
+			throw new IllegalArgumentException("Unknown board operation " + name);
+		}
+		return operation;
+	}
+
+	/*
+	 * Solve the boards of an instance set in turn, see PuzzleWorkloads.solveOperation().
+	 *
+	 * @param String set the name of the instance set
+	 * @param String solverArgs solver options as on the command line, or ""
+	 *
+	 * @return IntToLongFunction the operation
+	 */
+	static IntToLongFunction solve(String set, String solverArgs) throws Throwable
+	{
+		MethodHandle solve = workloadMethod("solveOperation",
+				MethodType.methodType(IntToLongFunction.class, String.class, String.class));
+		return (IntToLongFunction) solve.invoke(set, solverArgs);
+	}
+
+	private static MethodHandle workloadMethod(String name, MethodType type) throws ReflectiveOperationException
+	{
+		return MethodHandles.publicLookup().findStatic(Class.forName("PuzzleWorkloads"), name, type);
+	}
+}
@@ -0,0 +1,338 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * AnytimeSearch.java
+ *
+ * The AnytimeSearch class finds a solution quickly and then improves it for
+ * as long as it is allowed to run. It is weighted A*, which orders nodes by
+ * moves + w * heuristic, and with more than one weight it is anytime
+ * repairing A* (ARA*, Likhachev, Gordon and Thrun).
+ *
+ * Each iteration runs weighted A* until no open node has a smaller weighted
+ * priority than the best solution, which is then at most w times the
+ * shortest. The next iteration lowers w and carries on from the open list of
+ * the last one instead of starting again. A board whose moves improve after
+ * it has been expanded in the current iteration is kept aside as
+ * inconsistent and only queued again in the next iteration, so no board is
+ * expanded twice in one iteration. The last iteration has w = 1 and ends with
+ * the shortest solution. With a single weight the search stops after the
+ * first iteration.
+ *
+ * Every solution found and every tighter bound is passed to the
+ * SolutionListener of the options. Nodes that cannot lead to a solution
+ * shorter than the best are dropped, which keeps the open list small once a
+ * solution is known. The search stops at the node or time limit of the
+ * options with the best solution found so far. The clock is only read every
+ * CHECK_INTERVAL expansions, so a deadline is overrun by at most that many
+ * expansions. The heuristic must be admissible for the bounds to hold.
+ *
+ * The closed set of the workspace holds the fewest moves found to each board
+ * in its low 16 bits and the iteration that last expanded the board above
+ * them, so one lookup gives both.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class AnytimeSearch
+{
+
+	// Weights are held in hundredths so that node priorities stay integers
+	static final int WEIGHT_SCALE = 100;
+
+	// The most the weight is lowered by between iterations, in hundredths
+	private static final int WEIGHT_STEP = 50;
+
+	// Expansions between reads of the clock, a power of 2
+	private static final int CHECK_INTERVAL = 64;
+
+	// Bits of a table value that hold the moves
+	private static final int MOVES_BITS = 16;
+	private static final int MOVES_MASK = (1 << MOVES_BITS) - 1;
+
+	private final Board initial; // the starting state of the board
+	private final Heuristic heuristic; // estimates the moves left to the goal
+	private final OpenList open; // nodes to expand in the current iteration
+	private final StateTable table; // moves and last expanding iteration of every board
+	private final List<Solver.Node> inconsistent = new ArrayList<Solver.Node>(); // improved after expansion
+	private final int finalWeight; // weight of the last iteration, in hundredths
+	private final long nodeLimit; // most boards expanded, 0 for no limit
+	private final long deadline; // System.nanoTime() to stop at
+	private final SolutionListener listener; // told about each solution, or null
+	private final SearchMonitor monitor; // checked for cancellation, or null
+
+	private int weight; // weight of the current iteration, in hundredths
+	private Solver.Node goalStateNode; // goal node of the best solution found
+	private double bound = Double.POSITIVE_INFINITY; // proven bound on the best solution
+	private long expanded; // number of boards expanded over all iterations
+	private int openSize; // nodes left that could still improve the solution
+
+	/*
+	 * Create a search from the initial board.
+	 *
+	 * @param Board initial the starting state of the board, solvable and not the goal
+	 * @param Heuristic heuristic estimates the moves left to the goal
+	 * @param SolverOptions options the algorithm, weight, limits and listener
+	 * @param SearchWorkspace workspace provides the open list and closed set
+	 * @param SearchMonitor monitor checked every SearchMonitor.CHECK_INTERVAL expansions, or null
+	 */
+	public AnytimeSearch(Board initial, Heuristic heuristic, SolverOptions options, SearchWorkspace workspace,
+			SearchMonitor monitor)
+	{
+		this.initial = initial;
+		this.heuristic = heuristic;
+		this.open = workspace.openList(options.openList());
+		this.table = workspace.closed();
+		this.weight = (int) Math.round(options.weight() * WEIGHT_SCALE);
+		this.finalWeight = (options.algorithm() == SolverOptions.Algorithm.ANYTIME) ? WEIGHT_SCALE : weight;
+		this.nodeLimit = options.nodeLimit();
+		this.deadline = (options.timeLimitMillis() > 0)
+				? System.nanoTime() + options.timeLimitMillis() * 1000000L
+				: Long.MAX_VALUE;
+		this.listener = options.listener();
+		this.monitor = monitor;
+	}
+
+	/*
+	 * Search until the solution is within the final weight of the shortest
+	 * or a limit is reached.
+	 *
+	 * @return Solver.Node the goal node of the best solution, or null if
+	 * 			none was found within the limits
+	 */
+	public Solver.Node solve()
+	{
+		open.insert(new Solver.Node(initial, null, heuristic, WEIGHT_SCALE, weight));
+		table.put(initial, 0);
+
+		try
+		{
+			int iteration = 1;
+			while (improvePath(iteration))
+			{
+				if (goalStateNode == null)
+				{
+					throw new IllegalStateException("No solution found for a solvable board\n" + initial);
+				}
+
+				// Everything left is queued again, the smallest priority bounds the shortest solution
+				List<Solver.Node> pending = new ArrayList<Solver.Node>(open.size() + inconsistent.size());
+				int lowest = drain(pending);
+				double proven = Math.min((double) weight / WEIGHT_SCALE, (double) goalStateNode.moves / lowest);
+				if (proven < bound)
+				{
+					bound = proven;
+					publish();
+				}
+				if (weight <= finalWeight || bound <= 1.0)
+				{
+					openSize = pending.size();
+					break;
+				}
+
+				// Lower the weight, at once to the proven bound if that is already closer
+				weight = Math.max(finalWeight, Math.min(weight - WEIGHT_STEP, (int) (bound * WEIGHT_SCALE)));
+				for (Solver.Node node : pending)
+				{
+					open.insert(new Solver.Node(node, WEIGHT_SCALE, weight));
+				}
+				iteration++;
+			}
+
+			openSize = Math.max(openSize, open.size() + inconsistent.size());
+		}
+		finally
+		{
+			// Let the unexpanded nodes be collected while the workspace waits for reuse
+			open.clear();
+			inconsistent.clear();
+		}
+		return goalStateNode;
+	}
+
+	/*
+	 * The proven bound on the best solution found, see SolutionListener.
+	 *
+	 * @return double the solution is at most this many times the shortest
+	 */
+	public double bound()
+	{
+		return bound;
+	}
+
+	/*
+	 * The number of boards expanded over all iterations.
+	 *
+	 * @return long expanded boards
+	 */
+	public long expanded()
+	{
+		return expanded;
+	}
+
+	/*
+	 * The number of nodes left in the open list when the search stopped,
+	 * not counting those that could not improve the solution.
+	 *
+	 * @return int open nodes
+	 */
+	public int openSize()
+	{
+		return openSize;
+	}
+
+	/*
+	 * Run one iteration of weighted A*, until no open node has a smaller
+	 * weighted priority than the best solution.
+	 *
+	 * @param int iteration the number of the iteration, from 1
+	 *
+	 * @return boolean false if a limit was reached first
+	 */
+	private boolean improvePath(int iteration)
+	{
+		while (!open.isEmpty())
+		{
+			if ((nodeLimit > 0 && expanded >= nodeLimit)
+					|| ((expanded & (CHECK_INTERVAL - 1)) == 0 && System.nanoTime() >= deadline))
+			{
+				return false;
+			}
+
+			Solver.Node node = open.delMin();
+			if (goalStateNode != null && node.priority >= WEIGHT_SCALE * goalStateNode.moves)
+			{
+				open.insert(node);
+				return true;
+			}
+
+			// Skip nodes queued before a shorter path was found or already expanded in this iteration
+			int value = table.get(node.board);
+			if (node.moves > (value & MOVES_MASK) || (value >>> MOVES_BITS) == iteration)
+			{
+				continue;
+			}
+			table.put(node.board, (iteration << MOVES_BITS) | node.moves);
+			expanded++;
+			if (monitor != null && (expanded & (SearchMonitor.CHECK_INTERVAL - 1)) == 0)
+			{
+				monitor.checkpoint(node.priority / WEIGHT_SCALE, expanded);
+			}
+			expand(node, iteration);
+		}
+		return true;
+	}
+
+	/*
+	 * Generate the neighbours of a node.
+	 *
+	 * @param Solver.Node node the node being expanded
+	 * @param int iteration the current iteration
+	 */
+	private void expand(Solver.Node node, int iteration)
+	{
+		int moves = node.moves + 1;
+		if (moves >= bestMoves())
+		{
+			return;
+		}
+
+		// The initial board may have been made by a move that is not part of this search
+		int lastMove = (node.previousNode == null) ? Board.NONE : node.board.lastMove();
+		for (int direction = Board.UP; direction <= Board.RIGHT; direction++)
+		{
+			if (lastMove != Board.NONE && direction == Board.opposite(lastMove))
+			{
+				continue;
+			}
+			Board neighbour = node.board.move(direction);
+			if (neighbour == null)
+			{
+				continue;
+			}
+
+			int value = table.get(neighbour);
+			if (value != StateTable.NOT_FOUND && (value & MOVES_MASK) <= moves)
+			{
+				continue;
+			}
+			int closedIn = (value == StateTable.NOT_FOUND) ? 0 : value >>> MOVES_BITS;
+			table.put(neighbour, (closedIn << MOVES_BITS) | moves);
+
+			Solver.Node child = new Solver.Node(neighbour, node, heuristic, WEIGHT_SCALE, weight);
+			if (neighbour.isGoal())
+			{
+				goalStateNode = child;
+				publish();
+			}
+			else if (moves + child.heuristic < bestMoves())
+			{
+				if (closedIn == iteration)
+				{
+					inconsistent.add(child);
+				}
+				else
+				{
+					open.insert(child);
+				}
+			}
+		}
+	}
+
+	/*
+	 * Move every node that can still improve the best solution out of the
+	 * open list and the inconsistent nodes.
+	 *
+	 * @param List<Solver.Node> pending receives the nodes
+	 *
+	 * @return int the smallest moves + heuristic of those nodes, or the
+	 * 			moves of the best solution if there are none
+	 */
+	private int drain(List<Solver.Node> pending)
+	{
+		int lowest = goalStateNode.moves;
+		while (!open.isEmpty())
+		{
+			lowest = keep(open.delMin(), pending, lowest);
+		}
+		for (Solver.Node node : inconsistent)
+		{
+			lowest = keep(node, pending, lowest);
+		}
+		inconsistent.clear();
+		return lowest;
+	}
+
+	private int keep(Solver.Node node, List<Solver.Node> pending, int lowest)
+	{
+		int f = node.moves + node.heuristic;
+		if (node.moves > (table.get(node.board) & MOVES_MASK) || f >= goalStateNode.moves)
+		{
+			return lowest;
+		}
+		pending.add(node);
+		return Math.min(lowest, f);
+	}
+
+	/*
+	 * The moves of the best solution, or no limit if there is none yet.
+	 */
+	private int bestMoves()
+	{
+		return (goalStateNode == null) ? Integer.MAX_VALUE : goalStateNode.moves;
+	}
+
+	/*
+	 * Tell the listener about the best solution and its bound.
+	 */
+	private void publish()
+	{
+		if (listener != null)
+		{
+			listener.solutionFound(Solver.movesTo(goalStateNode), bound);
+		}
+	}
+}
@@ -0,0 +1,246 @@
+import java.lang.reflect.Method;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * AsyncSolver.java
+ *
+ * The AsyncSolver class solves boards without blocking the caller. solve()
+ * hands the search to an executor and returns a CompletableFuture of the
+ * Solver at once. Cancelling the future, or completing it any other way
+ * first, e.g. with orTimeout(), stops the search at its next checkpoint (see
+ * SearchMonitor) so the executor thread is freed within a few thousand
+ * expansions. The progress listener of the options is called on the
+ * searching thread while the search runs.
+ *
+ * A limit on the solves in flight sheds load instead of queueing it: once
+ * that many solves are queued or running, solve() returns a future that has
+ * already failed with a RejectedExecutionException. Each thread of the
+ * executor keeps its own SearchWorkspace that is reused for every board it
+ * solves.
+ *
+ * withVirtualThreads() runs each solve on its own virtual thread where the
+ * JVM has them (Java 21 and later) and on a new daemon platform thread
+ * otherwise. Virtual threads are not worth having for long searches on a few
+ * cores, but they let a service start a solve per request without sizing a
+ * pool.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class AsyncSolver implements AutoCloseable
+{
+
+	private final Executor executor; // runs the searches
+	private final boolean ownsExecutor; // shut the executor down on close()
+	private final Semaphore inFlight; // permits for solves queued or running, or null for no limit
+
+	// The open list and closed set of each executor thread
+	private final ThreadLocal<SearchWorkspace> workspaces = ThreadLocal.withInitial(SearchWorkspace::new);
+
+	/*
+	 * Create an async solver that runs every solve on an executor, with no
+	 * limit on the solves in flight.
+	 *
+	 * @param Executor executor runs the searches, it is not shut down by close()
+	 */
+	public AsyncSolver(Executor executor)
+	{
+		this(executor, 0);
+	}
+
+	/*
+	 * Create an async solver that runs every solve on an executor.
+	 *
+	 * @param Executor executor runs the searches, it is not shut down by close()
+	 * @param int maxInFlight most solves queued or running, 0 for no limit
+	 */
+	public AsyncSolver(Executor executor, int maxInFlight)
+	{
+		this(executor, maxInFlight, false);
+	}
+
+	private AsyncSolver(Executor executor, int maxInFlight, boolean ownsExecutor)
+	{
+		if (executor == null)
+		{
+			throw new IllegalArgumentException("Executor must not be null");
+		}
+		if (maxInFlight < 0)
+		{
+			throw new IllegalArgumentException("Solves in flight must not be negative, not " + maxInFlight);
+		}
+		this.executor = executor;
+		this.ownsExecutor = ownsExecutor;
+		this.inFlight = (maxInFlight > 0) ? new Semaphore(maxInFlight) : null;
+	}
+
+	/*
+	 * Create an async solver that runs each solve on a new virtual thread,
+	 * or a new daemon thread where the JVM has no virtual threads.
+	 *
+	 * @param int maxInFlight most solves queued or running, 0 for no limit
+	 *
+	 * @return AsyncSolver an async solver that shuts its threads down on close()
+	 */
+	public static AsyncSolver withVirtualThreads(int maxInFlight)
+	{
+		return new AsyncSolver(threadPerTaskExecutor(), maxInFlight, true);
+	}
+
+	/*
+	 * Create an async solver with its own fixed pool of daemon threads.
+	 *
+	 * @param int threads number of threads
+	 * @param int maxInFlight most solves queued or running, 0 for no limit
+	 *
+	 * @return AsyncSolver an async solver that shuts its pool down on close()
+	 */
+	public static AsyncSolver withThreads(int threads, int maxInFlight)
+	{
+		return new AsyncSolver(Executors.newFixedThreadPool(threads, AsyncSolver::daemon), maxInFlight, true);
+	}
+
+	/*
+	 * Solve a board with the default options.
+	 *
+	 * @param Board initial the starting state of the board
+	 *
+	 * @return CompletableFuture<Solver> completes with the solved Solver
+	 */
+	public CompletableFuture<Solver> solve(Board initial)
+	{
+		return solve(initial, new SolverOptions());
+	}
+
+	/*
+	 * Start solving a board. The future completes with the Solver once the
+	 * search ends, or exceptionally with whatever the search threw.
+	 * Completing the future first stops the search.
+	 *
+	 * @param Board initial the starting state of the board
+	 * @param SolverOptions options search settings
+	 *
+	 * @return CompletableFuture<Solver> completes with the solved Solver
+	 */
+	public CompletableFuture<Solver> solve(Board initial, SolverOptions options)
+	{
+		CompletableFuture<Solver> future = new CompletableFuture<Solver>();
+		if (inFlight != null && !inFlight.tryAcquire())
+		{
+			future.completeExceptionally(new RejectedExecutionException("Too many solves in flight"));
+			return future;
+		}
+
+		SearchMonitor monitor = new SearchMonitor();
+		future.whenComplete((solver, error) ->
+		{
+			if (error != null)
+			{
+				monitor.cancel();
+			}
+		});
+		try
+		{
+			executor.execute(() -> run(initial, options, monitor, future));
+		}
+		catch (RejectedExecutionException e)
+		{
+			release();
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+
+	/*
+	 * Run one solve on an executor thread.
+	 */
+	private void run(Board initial, SolverOptions options, SearchMonitor monitor, CompletableFuture<Solver> future)
+	{
+		try
+		{
+			// Skip solves cancelled while they were queued
+			if (!future.isDone())
+			{
+				future.complete(new Solver(initial, options, workspaces.get(), monitor));
+			}
+		}
+		catch (CancellationException e)
+		{
+			future.cancel(false);
+		}
+		catch (Throwable e)
+		{
+			future.completeExceptionally(e);
+		}
+		finally
+		{
+			release();
+		}
+	}
+
+	private void release()
+	{
+		if (inFlight != null)
+		{
+			inFlight.release();
+		}
+	}
+
+	/*
+	 * Shut down the executor if this async solver created it, cancelling
+	 * the solves that are still running, and wait for its threads to stop.
+	 * (non-Javadoc)
+	 * @see java.lang.AutoCloseable#close()
+	 */
+	@Override
+	public void close()
+	{
+		if (ownsExecutor)
+		{
+			ExecutorService service = (ExecutorService) executor;
+			service.shutdownNow();
+			try
+			{
+				service.awaitTermination(1, TimeUnit.MINUTES);
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/*
+	 * Executors.newVirtualThreadPerTaskExecutor() where it exists, found by
+	 * reflection so that this class still compiles and runs on Java 17.
+	 */
+	private static ExecutorService threadPerTaskExecutor()
+	{
+		try
+		{
+			Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) factory.invoke(null);
+		}
+		catch (ReflectiveOperationException e)
+		{
+			return Executors.newCachedThreadPool(AsyncSolver::daemon);
+		}
+	}
+
+	private static Thread daemon(Runnable task)
+	{
+		Thread thread = new Thread(task, "async-solver");
+		thread.setDaemon(true);
+		return thread;
+	}
+}
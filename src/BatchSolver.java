@@ -0,0 +1,360 @@
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * BatchSolver.java
+ *
+ * The BatchSolver class solves a file containing many puzzles, one after the
+ * other in the same format as a single puzzle (N followed by the N x N tiles,
+ * or RxC followed by the R x C tiles, on any number of lines).
+ * Puzzles are read one at a time and handed to a fixed pool of worker threads.
+ * At most a fixed number of puzzles are read but not yet written, so a slow
+ * search stops the reader instead of letting the whole file build up in memory.
+ * Each worker keeps its own SearchWorkspace that is reused for every puzzle it
+ * solves.
+ *
+ * One line is written per puzzle, its position in the file (from 0) and the
+ * minimum number of moves, or -1 if it cannot be solved (or no solution was
+ * found within the node or time limits of the options). Lines are written in
+ * the order of the file unless -unordered is given, in which case each line is
+ * written as soon as its puzzle is solved.
+ *
+ * With -stats file the SearchStats of every puzzle are written to the file
+ * as JSON lines, each with the puzzle's index and moves added, in the order
+ * the puzzles are solved.
+ *
+ * With -goal file every puzzle is solved into the board in the file instead
+ * of the standard goal.
+ *
+ * The puzzle file may also be in the binary format of PuzzleWriter, which is
+ * read without parsing any text.
+ *
+ * 		java BatchSolver [-threads n] [-inflight n] [-unordered] [-stats file] [-goal file] [solver options] file
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class BatchSolver
+{
+
+	// Queued after the last puzzle to tell the writer the input has ended
+	private static final Future<String> END_OF_INPUT = new CompletableFuture<String>();
+
+	private final SolverOptions options; // search settings shared by all workers
+	private final int threads; // number of worker threads
+	private final int inFlight; // most puzzles read but not yet written
+	private final boolean ordered; // write results in input order
+	private Writer statsOut; // receives a JSON line of statistics per puzzle, or null
+	private Goal goal; // the goal of every puzzle, or null for the standard goal
+
+	// The open list and closed set of each worker thread
+	private final ThreadLocal<SearchWorkspace> workspaces = ThreadLocal.withInitial(SearchWorkspace::new);
+
+	/*
+	 * Create a batch solver.
+	 *
+	 * @param SolverOptions options search settings for every puzzle
+	 * @param int threads number of worker threads
+	 * @param int inFlight most puzzles read but not yet written, at least 1
+	 * @param boolean ordered true to write results in input order
+	 */
+	public BatchSolver(SolverOptions options, int threads, int inFlight, boolean ordered)
+	{
+		this.options = options;
+		this.threads = threads;
+		this.inFlight = inFlight;
+		this.ordered = ordered;
+	}
+
+	/*
+	 * Write the statistics of every puzzle as JSON lines. The options must
+	 * have statistics enabled.
+	 *
+	 * @param Writer statsOut receives one JSON line per puzzle
+	 *
+	 * @return BatchSolver this batch solver
+	 */
+	public BatchSolver statistics(Writer statsOut)
+	{
+		this.statsOut = statsOut;
+		return this;
+	}
+
+	/*
+	 * Solve every puzzle into a goal other than the standard one.
+	 *
+	 * @param Goal goal the goal, the same size as every puzzle
+	 *
+	 * @return BatchSolver this batch solver
+	 */
+	public BatchSolver goal(Goal goal)
+	{
+		this.goal = goal;
+		return this;
+	}
+
+	/*
+	 * Solve every puzzle in the input and write a line for each one.
+	 *
+	 * @param PuzzleReader in the puzzles
+	 * @param Writer out receives one line per puzzle
+	 */
+	public void solveAll(PuzzleReader in, Writer out) throws IOException, InterruptedException
+	{
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		Semaphore permits = new Semaphore(inFlight);
+
+		/*
+		 * In order mode the futures are queued in input order and a writer
+		 * thread waits for each one in turn. The queue never holds more than
+		 * inFlight futures because of the permits.
+		 */
+		BlockingQueue<Future<String>> pending = new ArrayBlockingQueue<Future<String>>(inFlight + 1);
+		List<Throwable> errors = new ArrayList<Throwable>();
+		Thread writer = null;
+		if (ordered)
+		{
+			writer = new Thread(() -> writeInOrder(pending, out, permits, errors), "batch-writer");
+			writer.start();
+		}
+
+		try
+		{
+			for (int index = 0; in.hasNext(); index++)
+			{
+				Board board = in.next(goal);
+				permits.acquire();
+				final int position = index;
+				if (ordered)
+				{
+					pending.put(pool.submit(() -> solveOne(position, board)));
+				}
+				else
+				{
+					pool.submit(() ->
+					{
+						try
+						{
+							String line = solveOne(position, board);
+							synchronized (out)
+							{
+								out.write(line);
+							}
+						}
+						catch (IOException | RuntimeException e)
+						{
+							synchronized (errors)
+							{
+								errors.add(e);
+							}
+						}
+						finally
+						{
+							permits.release();
+						}
+					});
+				}
+			}
+		}
+		finally
+		{
+			if (writer != null)
+			{
+				pending.put(END_OF_INPUT);
+				writer.join();
+			}
+			pool.shutdown();
+			pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+			out.flush();
+			if (statsOut != null)
+			{
+				statsOut.flush();
+			}
+		}
+
+		if (!errors.isEmpty())
+		{
+			throw new IOException("Batch failed", errors.get(0));
+		}
+	}
+
+	/*
+	 * Solve one puzzle with this thread's workspace.
+	 *
+	 * @param int index position of the puzzle in the input
+	 * @param Board board the puzzle
+	 *
+	 * @return String the output line for the puzzle
+	 */
+	private String solveOne(int index, Board board) throws IOException
+	{
+		Solver solver;
+		try
+		{
+			solver = new Solver(board, options, workspaces.get());
+		}
+		catch (CancellationException e)
+		{
+			// Stopped at the limits of the options, like a weighted search with no solution
+			return index + " -1\n";
+		}
+		if (statsOut != null)
+		{
+			// Puzzles that needed no search have only their index and moves
+			String fields = (solver.stats() == null) ? "}" : "," + solver.stats().toJson().substring(1);
+			synchronized (statsOut)
+			{
+				statsOut.write("{\"index\":" + index + ",\"moves\":" + solver.moves() + fields + "\n");
+			}
+		}
+		return index + " " + solver.moves() + "\n";
+	}
+
+	/*
+	 * Write the result of each future in the order they were queued,
+	 * releasing a permit for each so the reader can continue.
+	 *
+	 * @param BlockingQueue<Future<String>> pending futures in input order
+	 * @param Writer out receives the results
+	 * @param Semaphore permits released as each result is written
+	 * @param List<Throwable> errors receives any failure
+	 */
+	private static void writeInOrder(BlockingQueue<Future<String>> pending, Writer out,
+			Semaphore permits, List<Throwable> errors)
+	{
+		try
+		{
+			while (true)
+			{
+				Future<String> future = pending.take();
+				if (future == END_OF_INPUT)
+				{
+					return;
+				}
+				try
+				{
+					out.write(future.get());
+				}
+				catch (IOException | ExecutionException e)
+				{
+					synchronized (errors)
+					{
+						errors.add(e);
+					}
+				}
+				finally
+				{
+					permits.release();
+				}
+			}
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/*
+	 * Read a goal board from a file in the puzzle format.
+	 *
+	 * @param String file the file name
+	 *
+	 * @return Goal the goal
+	 */
+	static Goal readGoal(String file) throws IOException
+	{
+		try (PuzzleReader in = PuzzleReader.open(file))
+		{
+			return in.nextGoal();
+		}
+	}
+
+	public static void main(String[] args) throws IOException, InterruptedException
+	{
+		int threads = Runtime.getRuntime().availableProcessors();
+		int inFlight = 0;
+		boolean ordered = true;
+		String statsFile = null;
+		String goalFile = null;
+		List<String> solverArgs = new ArrayList<String>();
+
+		// The last argument is the file, the rest are batch or solver options
+		for (int i = 0; i < args.length - 1; i++)
+		{
+			if (args[i].equals("-threads"))
+			{
+				threads = Integer.parseInt(args[++i]);
+			}
+			else if (args[i].equals("-inflight"))
+			{
+				inFlight = Integer.parseInt(args[++i]);
+			}
+			else if (args[i].equals("-unordered"))
+			{
+				ordered = false;
+			}
+			else if (args[i].equals("-stats"))
+			{
+				statsFile = args[++i];
+			}
+			else if (args[i].equals("-goal"))
+			{
+				goalFile = args[++i];
+			}
+			else
+			{
+				solverArgs.add(args[i]);
+			}
+		}
+		if (inFlight <= 0)
+		{
+			inFlight = 64 * threads;
+		}
+
+		SolverOptions options = SolverOptions.fromArgs(solverArgs.toArray(new String[0]));
+		Writer out = new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16);
+		BatchSolver batch = new BatchSolver(options, threads, inFlight, ordered);
+		if (goalFile != null)
+		{
+			batch.goal(readGoal(goalFile));
+		}
+		try (PuzzleReader in = PuzzleReader.open(args[args.length - 1]))
+		{
+			if (statsFile == null)
+			{
+				batch.solveAll(in, out);
+				return;
+			}
+			options.statistics(true);
+			try (Writer statsOut = new BufferedWriter(new FileWriter(statsFile), 1 << 16))
+			{
+				batch.statistics(statsOut).solveAll(in, out);
+			}
+		}
+		finally
+		{
+			if (options.trace() != null)
+			{
+				options.trace().close();
+			}
+		}
+	}
+}
@@ -0,0 +1,371 @@
+import java.util.Arrays;
+
+/*
+ * BidirectionalSearch.java
+ *
+ * The BidirectionalSearch class finds the shortest solution with two A*
+ * searches at once, one forward from the initial board towards the goal and
+ * one backward from the goal towards the initial board. The side with the
+ * smaller open list is expanded next, so the two frontiers grow to meet
+ * roughly in the middle.
+ *
+ * Both searches share one StateTable. The value for a board holds the best
+ * number of moves found to it from the initial board and from the goal, 15
+ * bits each, so a board generated by one side is checked against the other
+ * side with the same lookup that detects duplicates. Whenever a board has
+ * been reached from both sides the sum is a solution, and the best one is
+ * kept with its meeting board.
+ *
+ * The search stops when no solution shorter than the best can remain. Every
+ * unfound path passes through an open board on each side, so its length is
+ * at least the smallest priority of either open list, and at least the
+ * smallest moves of each open list plus 1 for the move that joins them.
+ * The bound holds for any admissible heuristic: a board reached again by a
+ * shorter path is queued again, so a shortest path always has a board in
+ * each open list with its true moves, and a priority no more than the
+ * shortest length. A consistent heuristic, as all but the pattern database
+ * are, only means boards are not expanded twice. The backward search
+ * estimates with the Manhattan distance to the initial board.
+ *
+ * No parent chains are needed for the solution. Each value in the table was
+ * set from a neighbour that is at least one move closer to that side's
+ * start, so the path is rebuilt by walking from the meeting board to
+ * neighbours with smaller values on each side.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class BidirectionalSearch
+{
+
+	private static final int FORWARD = 0;
+	private static final int BACKWARD = 1;
+
+	// Bits per side in a table value, and the value of a side that has not reached a board
+	private static final int SIDE_BITS = 15;
+	private static final int UNKNOWN = (1 << SIDE_BITS) - 1;
+
+	private final Board initial; // the starting state of the board
+	private final Board goal; // the goal state of the board
+	private final Heuristic[] heuristics = new Heuristic[2]; // estimates towards the other side's start
+	private final OpenList[] open = new OpenList[2]; // frontier of each side
+	private final StateTable table = new StateTable(); // moves from each side's start to every board
+
+	/*
+	 * Number of open nodes on each side by moves, including stale ones. The
+	 * smallest moves with a count gives a lower bound for the stopping test.
+	 */
+	private final int[][] openMoves = { new int[64], new int[64] };
+	private final int[] smallestMoves = new int[2];
+
+	private final int[] lastPriority = new int[2]; // priority of the last node expanded by each side
+	private int best = Integer.MAX_VALUE; // length of the best solution found
+	private Board meeting; // board where the best solution's two halves join
+	private long expanded; // number of boards expanded by both sides
+	private final SearchMonitor monitor; // checked for cancellation, or null
+
+	/*
+	 * Create a search from the initial board.
+	 *
+	 * @param Board initial the starting state of the board, solvable and not the goal
+	 * @param Heuristic heuristic estimates the moves left to the goal
+	 * @param OpenList.Type openList the type of open list for each side
+	 */
+	public BidirectionalSearch(Board initial, Heuristic heuristic, OpenList.Type openList)
+	{
+		this(initial, heuristic, openList, null);
+	}
+
+	/*
+	 * Create a search from the initial board that can be cancelled.
+	 *
+	 * @param Board initial the starting state of the board, solvable and not the goal
+	 * @param Heuristic heuristic estimates the moves left to the goal
+	 * @param OpenList.Type openList the type of open list for each side
+	 * @param SearchMonitor monitor checked every SearchMonitor.CHECK_INTERVAL expansions, or null
+	 */
+	public BidirectionalSearch(Board initial, Heuristic heuristic, OpenList.Type openList, SearchMonitor monitor)
+	{
+		this.initial = initial;
+		this.monitor = monitor;
+		this.goal = initial.goal().board();
+		heuristics[FORWARD] = heuristic;
+		heuristics[BACKWARD] = new TargetManhattanHeuristic(initial);
+		open[FORWARD] = openList.create();
+		open[BACKWARD] = openList.create();
+	}
+
+	/*
+	 * Search until the best solution found is known to be the shortest.
+	 *
+	 * @return byte[] the moves from the initial board to the goal, see Board.UP etc
+	 */
+	public byte[] solve()
+	{
+		start(FORWARD, initial);
+		start(BACKWARD, goal);
+
+		while (!open[FORWARD].isEmpty() && !open[BACKWARD].isEmpty())
+		{
+			int bound = Math.max(Math.max(lastPriority[FORWARD], lastPriority[BACKWARD]),
+					smallestMoves(FORWARD) + smallestMoves(BACKWARD) + 1);
+			if (best <= bound)
+			{
+				break;
+			}
+			expand(open[FORWARD].size() <= open[BACKWARD].size() ? FORWARD : BACKWARD);
+			if (monitor != null && (expanded & (SearchMonitor.CHECK_INTERVAL - 1)) == 0)
+			{
+				monitor.checkpoint(bound, expanded);
+			}
+		}
+		return path();
+	}
+
+	/*
+	 * The number of boards expanded by both sides.
+	 *
+	 * @return long expanded boards
+	 */
+	public long expanded()
+	{
+		return expanded;
+	}
+
+	/*
+	 * The number of nodes left in both open lists.
+	 *
+	 * @return int open nodes
+	 */
+	public int openSize()
+	{
+		return open[FORWARD].size() + open[BACKWARD].size();
+	}
+
+	/*
+	 * Put a side's start board in its open list and the table.
+	 *
+	 * @param int side FORWARD or BACKWARD
+	 * @param Board board the start board of the side
+	 */
+	private void start(int side, Board board)
+	{
+		Solver.Node root = new Solver.Node(board, null, heuristics[side]);
+		open[side].insert(root);
+		openMoves[side][0]++;
+		lastPriority[side] = root.priority;
+		table.put(board, withMoves(encode(UNKNOWN, UNKNOWN), side, 0));
+	}
+
+	/*
+	 * Remove the best node of one side and generate its neighbours.
+	 *
+	 * @param int side FORWARD or BACKWARD
+	 */
+	private void expand(int side)
+	{
+		Solver.Node node = open[side].delMin();
+		openMoves[side][node.moves]--;
+
+		// Skip nodes queued before a shorter path to their board was found
+		if (node.moves > moves(table.get(node.board), side))
+		{
+			return;
+		}
+		lastPriority[side] = node.priority;
+		expanded++;
+
+		int other = 1 - side;
+		// The start boards may have been made by a move that is not part of this search
+		int lastMove = (node.previousNode == null) ? Board.NONE : node.board.lastMove();
+		for (int direction = Board.UP; direction <= Board.RIGHT; direction++)
+		{
+			if (lastMove != Board.NONE && direction == Board.opposite(lastMove))
+			{
+				continue;
+			}
+			Board neighbour = node.board.move(direction);
+			if (neighbour == null)
+			{
+				continue;
+			}
+
+			int moves = node.moves + 1;
+			int value = table.get(neighbour);
+			if (value == StateTable.NOT_FOUND)
+			{
+				value = encode(UNKNOWN, UNKNOWN);
+			}
+			else if (moves(value, side) <= moves)
+			{
+				continue;
+			}
+			table.put(neighbour, withMoves(value, side, moves));
+			open[side].insert(new Solver.Node(neighbour, node, heuristics[side]));
+			count(side, moves);
+
+			// A board reached from both sides joins the two halves of a solution
+			int otherMoves = moves(value, other);
+			if (otherMoves != UNKNOWN && moves + otherMoves < best)
+			{
+				best = moves + otherMoves;
+				meeting = neighbour;
+			}
+		}
+	}
+
+	/*
+	 * Count an open node of one side.
+	 */
+	private void count(int side, int moves)
+	{
+		if (moves >= openMoves[side].length)
+		{
+			openMoves[side] = Arrays.copyOf(openMoves[side], openMoves[side].length * 2);
+		}
+		openMoves[side][moves]++;
+	}
+
+	/*
+	 * The smallest moves of any open node of one side. Nodes are expanded
+	 * with moves at least this, and their children have one more, so the
+	 * smallest only ever increases.
+	 */
+	private int smallestMoves(int side)
+	{
+		int[] counts = openMoves[side];
+		while (smallestMoves[side] < counts.length - 1 && counts[smallestMoves[side]] == 0)
+		{
+			smallestMoves[side]++;
+		}
+		return smallestMoves[side];
+	}
+
+	/*
+	 * Join the two halves of the best solution at the meeting board.
+	 *
+	 * @return byte[] the moves from the initial board to the goal
+	 */
+	private byte[] path()
+	{
+		byte[] moves = new byte[best];
+
+		// Walk back to the initial board, filling the first half from its end
+		Board board = meeting;
+		int length = moves(table.get(board), FORWARD);
+		for (int k = length; k > 0; k--)
+		{
+			int direction = closerNeighbour(board, FORWARD);
+			board = board.move(direction);
+			moves[k - 1] = (byte) Board.opposite(direction);
+		}
+
+		// Walk on to the goal for the second half
+		board = meeting;
+		for (int k = length; k < best; k++)
+		{
+			int direction = closerNeighbour(board, BACKWARD);
+			board = board.move(direction);
+			moves[k] = (byte) direction;
+		}
+		return moves;
+	}
+
+	/*
+	 * A move to a neighbour that one side reached in fewer moves than the board.
+	 *
+	 * @param Board board a board reached by the side
+	 * @param int side FORWARD or BACKWARD
+	 *
+	 * @return int the direction of the move
+	 */
+	private int closerNeighbour(Board board, int side)
+	{
+		int moves = moves(table.get(board), side);
+		for (int direction = Board.UP; direction <= Board.RIGHT; direction++)
+		{
+			Board neighbour = board.move(direction);
+			if (neighbour == null)
+			{
+				continue;
+			}
+			int value = table.get(neighbour);
+			if (value != StateTable.NOT_FOUND && moves(value, side) < moves)
+			{
+				return direction;
+			}
+		}
+		throw new IllegalStateException("No path back from\n" + board);
+	}
+
+	private static int encode(int forward, int backward)
+	{
+		return forward | (backward << SIDE_BITS);
+	}
+
+	private static int moves(int value, int side)
+	{
+		return (value >>> (side * SIDE_BITS)) & UNKNOWN;
+	}
+
+	private static int withMoves(int value, int side, int moves)
+	{
+		int shift = side * SIDE_BITS;
+		return (value & ~(UNKNOWN << shift)) | (moves << shift);
+	}
+
+	/*
+	 * Manhattan distance to a target board instead of the goal, used by the
+	 * backward search to estimate the moves left to the initial board.
+	 */
+	private static class TargetManhattanHeuristic implements Heuristic
+	{
+		private final Goal target; // the initial board's layout as a goal
+
+		private TargetManhattanHeuristic(Board target)
+		{
+			this.target = new Goal(target.toTiles());
+		}
+
+		@Override
+		public int estimate(TileGrid board)
+		{
+			int sum = 0;
+			for (int index = 0; index < target.cells(); index++)
+			{
+				int tile = board.tileAt(index);
+				if (tile != 0)
+				{
+					sum += target.distance(tile, index);
+				}
+			}
+			return sum;
+		}
+
+		@Override
+		public int update(TileGrid board, int parentEstimate, int direction)
+		{
+			int to = board.movedTileIndex(direction);
+			int from = board.blank();
+			int tile = board.tileAt(to);
+
+			// Only the distance along the axis of the move changes
+			if (direction == Board.UP || direction == Board.DOWN)
+			{
+				int row = target.goalRow(tile);
+				return parentEstimate + Math.abs(target.rowOf(to) - row) - Math.abs(target.rowOf(from) - row);
+			}
+			int column = target.goalColumn(tile);
+			return parentEstimate + Math.abs(target.columnOf(to) - column) - Math.abs(target.columnOf(from) - column);
+		}
+
+		@Override
+		public boolean isConsistent()
+		{
+			return true;
+		}
+	}
+}
@@ -1,54 +1,301 @@
+import java.util.Arrays;
+
 /*
  * Board.java
- * 
- * The board class contains an 2d array of integers that represent
- * the tiles in a (*)Puzzle game. There are N - 1 tiles and the empty space is 
- * denoted by the value 0. Board takes in a 2D array of integers and populates
- * its array, makes a copy of the parameter array. It also has function that manipulate the
- * board like swapping tiles or applying operators.
- * 
+ *
+ * The board class contains the tiles in a (*)Puzzle game. A board has rows x
+ * columns cells, usually N x N, holding rows * columns - 1 tiles and the empty
+ * space denoted by the value 0. Each board is solved into a Goal, the standard
+ * layout with the blank bottom right unless the caller supplies another. Board
+ * takes in a 2D array of integers and packs a copy of it into a compact
+ * encoding. Boards of up to 16 cells (8 and 15 puzzles) store 4 bits per tile
+ * in a single long, larger boards store one byte per tile. The blank position,
+ * hash and Manhattan distance are cached when the board is created so that
+ * comparing and expanding boards does not need to rescan the tiles. It also
+ * has function that manipulate the board like swapping tiles or applying
+ * operators.
+ *
  * @author David Morton K00179391
- * 
- * Artificial Intelligence Programming Assignment 
+ *
+ * Artificial Intelligence Programming Assignment
  * 8 Puzzle Problem
- * 
+ *
  */
-public class Board
+public class Board implements TileGrid
 {
-	
-	private int N; // N x N tiles
-	private int[][] boardTiles; // tiles on the board
-	
+
+	// Largest number of cells that fit in the packed long, 4 bits per tile
+	private static final int MAX_PACKED_CELLS = 16;
+
 	/*
-	 * Create a board containing N x N tiles and 
-	 * populate it with the values stored in inputTiles.
-	 * Create a copy of the parameter board.
-	 * 
+	 * Operators, named after the direction the tile slides into the
+	 * empty space. NONE is used by boards that were not created by a move.
+	 */
+	public static final int NONE = -1;
+	public static final int UP = 0;
+	public static final int DOWN = 1;
+	public static final int LEFT = 2;
+	public static final int RIGHT = 3;
+
+	// Letter for each operator, indexed by UP, DOWN, LEFT and RIGHT
+	private static final char[] MOVE_NAMES = { 'U', 'D', 'L', 'R' };
+
+	private final int rows; // rows of tiles
+	private final int columns; // columns of tiles
+	private final Goal goal; // the layout this board is solved into
+	private final long packedTiles; // 4 bits per tile, used when rows * columns <= 16
+	private final byte[] byteTiles; // 1 byte per tile for larger boards, otherwise null
+	private final int blank; // index (i * columns + j) of the empty tile
+	private final int manhattan; // cached Manhattan distance
+	private final int hash; // cached hash of the tiles
+	private final int movedTile; // tile moved to create this board, 0 if none
+	private final int lastMove; // operator used to create this board, NONE if none
+
+	/*
+	 * Create a board containing N x N (or rows x columns) tiles and
+	 * populate it with the values stored in inputTiles. The board is
+	 * solved into the standard goal. The tiles are copied into the
+	 * packed encoding.
+	 *
 	 * @param int [][] inputTiles is the input board from file
 	 */
     public Board(int [][] inputTiles)
     {
-        // YOUR CODE HERE
-    	N = inputTiles.length; // N x N tiles
-    	boardTiles = new int[N][N]; // 2d array of tiles
-        
-        // create the N x N board of tiles
-        for (int i = 0; i < N; i++) 
+    	this(inputTiles, Goal.standard(inputTiles.length, inputTiles[0].length));
+    }
+
+	/*
+	 * Create a board that is solved into the given goal.
+	 *
+	 * @param int [][] inputTiles the tiles, the same size as the goal, holding
+	 * 			0 to rows * columns - 1 once each
+	 * @param Goal goal the layout to solve the board into
+	 *
+	 * @throws IllegalArgumentException if the tiles are the wrong shape, or
+	 * 			a tile is out of range or appears twice
+	 */
+    public Board(int [][] inputTiles, Goal goal)
+    {
+    	rows = goal.rows();
+    	columns = goal.columns();
+    	this.goal = goal;
+    	if (inputTiles.length != rows)
+    	{
+    		throw new IllegalArgumentException("Board has " + inputTiles.length + " rows, the goal has " + rows);
+    	}
+
+    	long packed = 0L;
+    	int cells = rows * columns;
+    	byte[] bytes = (cells > MAX_PACKED_CELLS) ? new byte[cells] : null;
+    	boolean[] used = (cells > 64) ? new boolean[cells] : null;
+    	long seen = 0L;
+    	int blankIndex = -1;
+
+        // pack the rows x columns board of tiles
+        for (int i = 0; i < rows; i++)
         {
-            for (int j = 0; j < N; j++) 
+        	if (inputTiles[i].length != columns)
+        	{
+        		throw new IllegalArgumentException("Row " + i + " has " + inputTiles[i].length + " tiles, not " + columns);
+        	}
+            for (int j = 0; j < columns; j++)
             {
-            	boardTiles[i][j] = inputTiles[i][j];
-                //System.out.printf("%d", boardTiles[i][j]);
+            	int index = i * columns + j;
+            	int tile = inputTiles[i][j];
+            	if (tile < 0 || tile >= cells)
+            	{
+            		throw new IllegalArgumentException("Tile " + tile + " at row " + i + " column " + j
+            				+ " is not between 0 and " + (cells - 1));
+            	}
+
+            	// Every tile in range and none twice means each appears once, the blank included
+            	if ((used == null) ? (seen & (1L << tile)) != 0 : used[tile])
+            	{
+            		throw new IllegalArgumentException("Tile " + tile + " appears more than once");
+            	}
+            	if (used == null)
+            	{
+            		seen |= 1L << tile;
+            	}
+            	else
+            	{
+            		used[tile] = true;
+            	}
+            	if (bytes == null)
+            	{
+            		packed |= (long) tile << (4 * index);
+            	}
+            	else
+            	{
+            		bytes[index] = (byte) tile;
+            	}
+            	if (tile == 0)
+            	{
+            		blankIndex = index;
+            	}
             }
-            //System.out.printf("\n");
-        }           
+        }
+
+        packedTiles = packed;
+        byteTiles = bytes;
+        blank = blankIndex;
+        manhattan = computeManhattan();
+        hash = computeHash();
+        movedTile = 0;
+        lastMove = NONE;
+    }
+
+    /*
+     * Create a board directly from an already packed set of tiles. Used
+     * when applying an operator so that the tiles are not unpacked and
+     * copied again, and the Manhattan distance is already known from the
+     * parent board.
+     *
+     * @param Board parent the board the operator was applied to, for its size and goal
+     * @param long packedTiles packed tiles, ignored when byteTiles is not null
+     * @param byte[] byteTiles tiles for larger boards, owned by this board
+     * @param int blank index of the empty tile
+     * @param int manhattan Manhattan distance of the new board
+     * @param int movedTile the tile that was moved
+     * @param int lastMove the operator that was applied
+     */
+    private Board(Board parent, long packedTiles, byte[] byteTiles, int blank, int manhattan, int movedTile, int lastMove)
+    {
+    	this.rows = parent.rows;
+    	this.columns = parent.columns;
+    	this.goal = parent.goal;
+    	this.packedTiles = packedTiles;
+    	this.byteTiles = byteTiles;
+    	this.blank = blank;
+    	this.manhattan = manhattan;
+    	this.hash = computeHash();
+    	this.movedTile = movedTile;
+    	this.lastMove = lastMove;
     }
-    
+
+    /*
+     * The value of the tile stored at the index i * columns + j.
+     *
+     * @param int index position of the tile in row major order
+     *
+     * @return int the tile value at that position
+     */
+    @Override
+    public int tileAt(int index)
+    {
+    	if (byteTiles == null)
+    	{
+    		return (int) (packedTiles >>> (4 * index)) & 0xF;
+    	}
+    	return byteTiles[index] & 0xFF;
+    }
+
+    /*
+     * The value of the tile at row i and column j.
+     *
+     * @param int i row position of tile
+     * @param int j column position of tile
+     *
+     * @return int the tile value at (i, j)
+     */
+    public int tileAt(int i, int j)
+    {
+    	return tileAt(i * columns + j);
+    }
+
+    /*
+     * The number of rows in this board.
+     *
+     * @return int rows
+     */
+    @Override
+    public int rows()
+    {
+    	return rows;
+    }
+
+    /*
+     * The number of columns in this board.
+     *
+     * @return int columns
+     */
+    @Override
+    public int columns()
+    {
+    	return columns;
+    }
+
+    /*
+     * The layout this board is solved into.
+     *
+     * @return Goal the goal
+     */
+    @Override
+    public Goal goal()
+    {
+    	return goal;
+    }
+
+    /*
+     * The index of the empty tile, cached when the board is created.
+     *
+     * @return int blank position in row major order
+     */
+    @Override
+    public int blank()
+    {
+    	return blank;
+    }
+
+    /*
+     * The tile that was moved into the empty space to create this board.
+     *
+     * @return int the moved tile, or 0 if this board was not created by a move
+     */
+    public int movedTile()
+    {
+    	return movedTile;
+    }
+
+    /*
+     * The operator that was applied to the parent board to create this board.
+     *
+     * @return int UP, DOWN, LEFT or RIGHT, or NONE if this board was not created by a move
+     */
+    public int lastMove()
+    {
+    	return lastMove;
+    }
+
+    /*
+     * The letter used to print an operator in a move sequence.
+     *
+     * @param int direction UP, DOWN, LEFT or RIGHT
+     *
+     * @return char 'U', 'D', 'L' or 'R'
+     */
+    public static char moveName(int direction)
+    {
+    	return MOVE_NAMES[direction];
+    }
+
+    /*
+     * The operator that undoes the given operator.
+     *
+     * @param int direction UP, DOWN, LEFT or RIGHT
+     *
+     * @return int the opposite direction
+     */
+    public static int opposite(int direction)
+    {
+    	return direction ^ 1;
+    }
+
     /*
      * How many tiles are not in the correct position
      * in this board state?. Loop through the board and calculate
      * the number of tiles that are not in their goal states.
-     * 
+     *
      * @return int hamming heuristic for this board
      */
     public int hamming()
@@ -56,403 +303,542 @@ public class Board
     	// Number of tiles that are not in their correct positions
     	int inCorrectTilePositions = 0;
 
-    	/* 
+    	/*
     	 * Loop through the puzzle and check each tiles position
-    	 * against its correct position 
+    	 * against its correct position, skipping the blank square
     	 */
-		for (int i = 0; i < N; i++) 
+		for (int index = 0; index < rows * columns; index++)
 		{
-			for (int j = 0; j < N; j++) 
+			int tile = tileAt(index);
+			if (tile != 0 && tile != goal.tileAt(index))
 			{
-				// check if the tile is in the correct position
-				if (boardTiles[i][j] != correctTileAt(i, j)) 
-				{
-					// increment the counter
-					inCorrectTilePositions++;					
-				}
+				// increment the counter
+				inCorrectTilePositions++;
 			}
 		}
-		// subtract 1 for the blank square
-		return inCorrectTilePositions - 1;
+		return inCorrectTilePositions;
     }
-    
+
     /*
-     * In the 2d array, the position (i, j) should contain
-     * the value i * N + j + 1
-     * e.g 	
-     * 		for position (0, 0) is 1
-     * 		0 * 3 + 0 + 1 = 1
-     * 
-     * 		for position (2, 1) = 8
-     * 		2 * 3 + 1 + 1 = 8
-     * 
-     * @param int i row position of tile in array
-     * @param int j column position of tile in array
-     * 
-     * @return int the goal position of the tile at the position (i, j)
+     * The Manhattan distance is cached when the board is created.
+     *
+     * @return int sum of the Manhattan distances for this board
      */
-    private int correctTileAt(int i, int j) 
-    {    	
-        return i * N + j + 1;
+    public int manhattan()
+    {
+    	return manhattan;
     }
-    
+
     /*
      * Calculate the Manhattan distance heuristic for this board.
      * Sum the distance for each tile to its goal tile and use this
      * to choose from the priority queue.
-     * 
+     *
      * @return int sum of the Manhattan distances for this board
      */
-    public int manhattan()
-    {    	  	
+    private int computeManhattan()
+    {
 		int sum = 0;
-		
-		// where the stored value should be in the board
-		int correctRow;
-		int correctColumm;
-		
+
 		// For each tile in this board
-		for (int i = 0; i < N; i++)
+		for (int index = 0; index < rows * columns; index++)
 		{
-		    for (int j = 0; j < N; j++) 
-		    {		    			    	
-		        int tileNumber = boardTiles[i][j];
-		        if (tileNumber == 0) 
-		        {
-		        	// skip the blank square
-		        	continue;
-		        }
-		
-		        /*
-		         * Use the value stored in the array to caluclate
-		         * where it should be in the board
-		         * 
-		         * e.g 
-		         * 		value = 8
-		         * 		N = 3
-		         * 		
-		         * 		row = 8 - 1 / 3
-		         * 		row = 7 / 3
-		         * 		row = 2 (integer division)
-		         * 
-		         * 		column = 8 - 1 % 3
-		         * 		column = 7 % 3
-		         * 		column = 1 
-		         * 
-		         * 		tile 8 should be in position (2, 1)
-		         */
-		        correctRow = (tileNumber - 1) / N;
-		        correctColumm = (tileNumber - 1) % N;
-		        
-		        /*
-		         *  Calculate the Manhattan distance from the tile at 
-		         *  (i, j) to its goal position (correctRow, goalCol). Use the 
-		         *  absolute values to get distance.
-		         *  
-		         *  e.g tile number 8
-		         *  	tile position (0, 0)
-		         *  	goal position for tile (2, 1)
-		         *  
-		         *  	manhattan = (0 - 2) + (0 - 1)
-		         *  	manhattan = -3
-		         *  	manhattan = absoluteValue(-3) = 3
-		         *  
-		         *  	if negative change to positive, if positive, do nothing.		
-		         */		        
-		        sum += Math.abs(i - correctRow) + Math.abs(j - correctColumm);		        
-		    }
+	        int tileNumber = tileAt(index);
+	        if (tileNumber == 0)
+	        {
+	        	// skip the blank square
+	        	continue;
+	        }
+
+	        /*
+	         * The goal looks up the row and column the tile should be
+	         * in, and the row and column of the cell it is in now
+	         *
+	         * e.g
+	         * 		value = 8, standard 3 x 3 goal
+	         *
+	         * 		tile 8 should be in position (2, 1)
+	         */
+	        sum += goal.distance(tileNumber, index);
 	    }
-		return sum;        
+		return sum;
+    }
+
+    /*
+     * Hash the packed tiles. The long encoding is mixed so that boards
+     * that differ in a single nibble spread across the hash table.
+     *
+     * @return int hash of the tiles
+     */
+    private int computeHash()
+    {
+    	if (byteTiles != null)
+    	{
+    		return Arrays.hashCode(byteTiles);
+    	}
+    	long h = packedTiles;
+    	h ^= h >>> 33;
+    	h *= 0xff51afd7ed558ccdL;
+    	h ^= h >>> 33;
+    	h *= 0xc4ceb9fe1a85ec53L;
+    	h ^= h >>> 33;
+    	return (int) h;
     }
-    
-    /* Check to see if this board is the goal board. Iterate the 2D
-     * array and check all tiles except the empty one.
-     * 
+
+    /* Check to see if this board is the goal board. The cached hash is
+     * compared with the goal board's first, so almost every board is
+     * rejected with one comparison and only the goal (or a rare collision)
+     * has its packed tiles compared.
+     *
      * @return boolean true if this is the goal board
      */
-    public boolean isGoal() 
+    public boolean isGoal()
     {
-    	//StdOut.println("Checking if board is in the goal state...");
-    	    	
-        for (int i = 0; i < N; i++) 
-        {
-            for (int j = 0; j < N; j++) 
-            {
-                
-            	/*
-            	 * Check that all of the tiles in the board are in their correct positions, 
-            	 * except the empty tile that has a value of 0. Not checking the bottom right
-            	 * tile avoids the calculation error to find the empty tiles correct position
-            	 * 
-            	 * e.g	N = 3 
-            	 * 		find goal position of (2, 2) this should be the empty square 
-            	 * 		with value 0 in the bottom right of the goal state
-            	 * 
-            	 *  	equation : i * N + j + 1
-            	 *  
-            	 *  	2 * 3 + 2 + 1 = 9
-            	 *  
-            	 *  	The value at position 2,2 should be 0 not 9 in 
-            	 *  	the final goal state
-            	 */
-                if ((boardTiles[i][j] != correctTileAt(i, j)) && ((i != N - 1) || (j != N - 1))) 
-                {
-                    
-                	/*
-                	 * There is at least 1 tile wrong so the board is not in
-                	 * the goal state 
-                	 */
-                    return false;
-                }
-            }
-        }
         // This board is complete! quick before the twin gets solved!......
-        return true;
+    	Board target = goal.board();
+        return hash == target.hash
+        		&& packedTiles == target.packedTiles
+        		&& Arrays.equals(byteTiles, target.byteTiles);
     }
-    
+
     /*
      * Compare this object with the board Object by checking
-     * common member variables. (non-Javadoc)
+     * the packed tiles. (non-Javadoc)
      * @see java.lang.Object#equals(java.lang.Object)
      */
+    @Override
     public boolean equals(Object board)
     {
-        // YOUR CODE HERE
-    	//StdOut.println("Checking if this board is equal to the parameter board..");
-    	
+    	if (this == board)
+    	{
+    		return true;
+    	}
+    	if (!(board instanceof Board))
+    	{
+    		return false;
+    	}
+
+    	// Boards are identical if their sizes, packed tiles and goals match
+    	Board that = (Board) board;
+    	return this.rows == that.rows
+    			&& this.columns == that.columns
+    			&& this.hash == that.hash
+    			&& this.packedTiles == that.packedTiles
+    			&& Arrays.equals(this.byteTiles, that.byteTiles)
+    			&& this.goal.equals(that.goal);
+    }
+
+    /*
+     * The hash of the tiles is cached when the board is created.
+     * (non-Javadoc)
+     * @see java.lang.Object#hashCode()
+     */
+    @Override
+    public int hashCode()
+    {
+    	return hash;
+    }
+
+    public Iterable<Board> neighbours()
+    {
+    	//StdOut.println("Creating queue of boards that have moved one tile into the empty tile space...");
+
+    	// Queue of boards that are derived from this board
+    	Queue<Board> q = new Queue<Board>();
+
     	/*
-    	 * Cast the object to a board data type and check its tiles
-    	 * against this board to see if they are identical
+    	 * From this board use an operator to move a tile and create
+    	 * a new board. Each new board is added to a queue and returned to the
+    	 * solver.
+    	 *
+    	 * The operators are the available moves for this board,
+    	 * Up, Down, Left, Right.
+    	 *
+    	 * Depending on where the empty tile is on the board, certain
+    	 * operators will be unavailable, the goal's move table lists the
+    	 * ones that are available with the empty tile in each position.
+    	 *
+    	 * e.g. if the empty tile is in the top left corner of the puzzle, only
+    	 * the Up and Left operators can be used on tiles adjacent to the empty tile.
+    	 * If the empty tile is bottom right only the Down and Right Operators can be
+    	 * used on adjacent tiles.
+    	 *
     	 */
-    	Board that = (Board) board;
-    	for (int i = 0; i < N; i++) 
+    	for (byte direction : goal.validMoves(blank))
     	{
-    		for (int j = 0; j < N; j++) 
-        	{
-        		if (this.boardTiles[i] != that.boardTiles[j]) 
-        		{
-        			return false;
-        		}
-        	}    		
+    		q.enqueue(slide(direction, goal.moveSource(blank, direction)));
     	}
-    	
-    	// If all tiles in this board are the same as the parameter board, then they are equal
-    	return true;        
-    }
-    
-    public Iterable<Board> neighbours(){
-        // YOUR CODE HERE
-    	for (int i = 0; i < N; i++) 
+        return q;
+    }
+
+    /*
+     * Pass each board one move away to a visitor, in the same order as
+     * neighbours() but without building a queue. The move that would undo
+     * the move that created this board is skipped, as it only leads back to
+     * the parent board.
+     *
+     * A search that starts from a board made by move() must not skip that
+     * move at its root, as the parent is not in the search, and should use
+     * visitNeighbours(visitor, NONE) for the root instead.
+     *
+     * @param NeighbourVisitor visitor receives each neighbour
+     */
+    public void visitNeighbours(NeighbourVisitor visitor)
+    {
+    	visitNeighbours(visitor, (lastMove == NONE) ? NONE : opposite(lastMove));
+    }
+
+    /*
+     * Pass each board one move away to a visitor, in the same order as
+     * neighbours(), skipping one move.
+     *
+     * @param NeighbourVisitor visitor receives each neighbour
+     * @param int skip the move not made, UP, DOWN, LEFT or RIGHT, or NONE to make every move
+     */
+    public void visitNeighbours(NeighbourVisitor visitor, int skip)
+    {
+    	for (byte direction : goal.validMoves(blank))
     	{
-            for (int j = 0; j < N; j++) 
-            {
-            	
-            	/*
-            	 * Walk through each tile in the board and if we hit
-            	 * the 0 tile we can move tiles into this space.
-            	 */
-                if (boardTiles[i][j] == 0) 
-                {
-                	//StdOut.println("Creating queue of boards that have moved one tile into the empty tile space...");
-                	
-                	// Queue of boards that are derived from this board
-                	Queue<Board> q = new Queue<Board>();
-
-                	/*
-                	 * From this board use an operator to move a tile and create 
-                	 * a new board. Each new board is added to a queue and returned to the 
-                	 * solver. 
-                	 * 
-                	 * The operators are the available moves for this board, 
-                	 * Up, Down, Left, Right.
-                	 * 
-                	 * Depending on where the empty tile is on the board, certain
-                	 * operators will be unavailable. 
-                	 * 
-                	 * e.g. if the empty tile is in the top left corner of the puzzle, only
-                	 * the Up and Left operators can be used on tiles adjacent to the empty tile.
-                	 * If the empty tile is bottom right only the Down and Right Operators can be 
-                	 * used on adjacent tiles.
-                	 *  
-                	 */
-                	
-                	// Move tile down in to empty space
-                    if (i > 0) 
-                    {
-                    	//StdOut.println("Operator Down");
-                        q.enqueue(new Board(swap(i, j, i - 1, j)));
-                    }
-                    
-                    // Move tile up into empty space
-                    if (i < N - 1) 
-                    {
-                    	//StdOut.println("Operator Up");
-                        q.enqueue(new Board(swap(i, j, i + 1, j)));
-                    }
-                    
-                    // Move tile right into empty space
-                    if (j > 0) 
-                    {
-                    	//StdOut.println("Operator Right");
-                        q.enqueue(new Board(swap(i, j, i, j - 1)));
-                    }
-                    
-                    // Move tile left into empty space
-                    if (j < N - 1) 
-                    {
-                    	//StdOut.println("Operator Left");
-                        q.enqueue(new Board(swap(i, j, i, j + 1)));
-                    }
-                    //StdOut.println("Returning queue of neightbour boards");
-                    return q;                    
-                }
-            }
-        }
-    	//StdOut.println("There are no available moves for this board");
-        return null;
+    		if (direction != skip)
+    		{
+    			visitor.visit(slide(direction, goal.moveSource(blank, direction)));
+    		}
+    	}
     }
-    
+
+    /*
+     * Check whether the goal can be reached from this board. Every move swaps
+     * the blank with a tile, which flips the parity of the permutation of the
+     * cells and also flips the parity of the blank's distance from its goal
+     * position. The goal has both parities even, so a board is solvable exactly
+     * when the two parities are the same, for any goal layout and any grid of at
+     * least 2 rows and columns. The permutation parity comes from its cycles, a
+     * cycle of length L being L - 1 swaps, so this is O(rows * columns).
+     *
+     * @return boolean true if the goal can be reached
+     */
+    public boolean isSolvable()
+    {
+    	int cells = rows * columns;
+    	boolean[] visited = (cells > 64) ? new boolean[cells] : null;
+    	long seen = 0L;
+    	int swaps = 0;
+
+    	for (int start = 0; start < cells; start++)
+    	{
+    		if ((visited == null) ? (seen & (1L << start)) != 0 : visited[start])
+    		{
+    			continue;
+    		}
+
+    		// Follow the cycle of cells through the goal position of each tile
+    		int length = 0;
+    		int index = start;
+    		while ((visited == null) ? (seen & (1L << index)) == 0 : !visited[index])
+    		{
+    			if (visited == null)
+    			{
+    				seen |= 1L << index;
+    			}
+    			else
+    			{
+    				visited[index] = true;
+    			}
+    			int tile = tileAt(index);
+    			index = goal.cellOf(tile);
+    			length++;
+    		}
+    		swaps += length - 1;
+    	}
+
+    	int blankDistance = goal.distance(0, blank);
+    	return (swaps % 2) == (blankDistance % 2);
+    }
+
     /*
      * Create a twin of this board by swapping the first two adjacent tiles
-     * possible and returning that board. The twin is used to find out if the initial board
-     * is solvable. If the twin board at any stage is solvable then the initial board is not solvable. 
-     * 
-     * e.g 
+     * possible and returning that board. Exactly one of a board and its twin is solvable,
+     * see isSolvable().
+     *
+     * e.g
      * 		Initial board
      * 		3
-     *		0  1  3 
-     *		4  2  5 
+     *		0  1  3
+     *		4  2  5
      *		7  8  6
      *
      *      Twin board
      * 		3
-     *		0  3  1 
-     *		4  2  5 
+     *		0  3  1
+     *		4  2  5
      *		7  8  6
      *
-     *	The values 3 and 1 are swapped in the twin board, the value 0 is 
+     *	The values 3 and 1 are swapped in the twin board, the value 0 is
      *	ignored.
      *
-     *	If the twin board that is created from each board being processed is solved, 
-     *	it means that the initial board is unsolvable because there is no way to swap 
-     *	tiles in the puzzle without removing the, thus if the twin is solvable it means the 
+     *	If the twin board that is created from each board being processed is solved,
+     *	it means that the initial board is unsolvable because there is no way to swap
+     *	tiles in the puzzle without removing the, thus if the twin is solvable it means the
      *	initial boards is in a state that cannot be solved.
      */
-    public Board twin() 
+    public Board twin()
     {
-    	//StdOut.println("Creating twin of board\n" + this);
-    	
     	// Loop through this board and populate the twin
-    	int N = boardTiles.length;
-        int[][] twinBoardTiles = new int[N][N];
-        for (int i = 0; i < N; i++) 
-    	{
-    		for (int j = 0; j < N; j++) 
-        	{
-    			twinBoardTiles[i][j] = boardTiles[i][j];
-        	}
-        }
-                
+        int[][] twinBoardTiles = toTiles();
+
         // Error checking the size of the board
-        if (N <= 1) 
+        if (columns <= 1)
         {
-            return new Board(twinBoardTiles);
+            return new Board(twinBoardTiles, goal);
         }
-       
+
         /*
          * Loop through this boards tile and swap
          * the first two tiles that are not the empty
          * tile space
          */
-        for (int i = 0; i < N; i++) 
+        for (int i = 0; i < rows; i++)
         {
-            int lastVal = boardTiles[i][0];
+            int lastVal = twinBoardTiles[i][0];
 
-            for (int j = 1; j < N; j++) 
+            for (int j = 1; j < columns; j++)
             {
-                int currentVal = boardTiles[i][j];
+                int currentVal = twinBoardTiles[i][j];
 
                 // If currentVal nor lastVal is the empty space
-                if (currentVal != 0 && lastVal != 0) 
+                if (currentVal != 0 && lastVal != 0)
                 {
-                	
+
                 	// Swap adjacent tiles
                 	twinBoardTiles[i][j] = lastVal;
                 	twinBoardTiles[i][j - 1] = currentVal;
-                	//StdOut.println("Swapping tiles " + lastVal + " with " + currentVal);
-                	
+
                 	// Create the twin board from the new tile set
-                    Board twinBoard = new Board(twinBoardTiles);
-                    //StdOut.println("TWIN\n" + twinBoard);
-                    return twinBoard;
+                    return new Board(twinBoardTiles, goal);
                 }
-                
+
                 /*
-                 *  Move to the next adjacent tile because one of the 
-                 *  previous two were empty tiles 
-                 */                
+                 *  Move to the next adjacent tile because one of the
+                 *  previous two were empty tiles
+                 */
                 lastVal = currentVal;
             }
-        }        
+        }
     	return null;
-    }    
-    
+    }
+
     /*
-     * Given an origin and destination index in a 2D array of two tiles, swap
-     * them and return the updated tile set. 
-     * 
-     * @param int originRow row index of value
-     * @param int originColumn column index of value 
-     * @param int destRow row index of destination position
-     * @param int destColumn column index of destination position
-     * 
-     * @return int[][] copy is the updated 2D array of tile values
+     * The number of longs needed to store the packed tiles of this board
+     * as a hash table key. Packed boards use their single long, larger
+     * boards pack 8 byte tiles into each long.
+     *
+     * @return int the number of key words
      */
-    private int[][] swap(int originRow, int originColumn, int destRow, int destColumn) 
+    public int keyWords()
     {
-    	
-    	// Create a temporary tile set and populate it
-    	int N = boardTiles.length;
-        int[][] copy = new int[N][N];
-        for (int i = 0; i < N; i++) 
+    	return (byteTiles == null) ? 1 : (byteTiles.length + 7) / 8;
+    }
+
+    /*
+     * One word of the packed tiles, used as a primitive hash table key.
+     *
+     * @param int word index of the word, 0 to keyWords() - 1
+     *
+     * @return long the packed tiles for that word
+     */
+    public long keyWord(int word)
+    {
+    	if (byteTiles == null)
     	{
-    		for (int j = 0; j < N; j++) 
-        	{
-    			copy[i][j] = boardTiles[i][j];
-        	}
-        }
-                
-        // Store the value at the target position
-        int tempValue = copy[destRow][destColumn];
-        
-        // Store the value to the target position
-        copy[destRow][destColumn] = copy[originRow][originColumn];
-        
-        // Store the old target position value in its new position
-        copy[originRow][originColumn] = tempValue;
-        
-        // Return the 2D array tile set with the swapped values.
-        return copy;
-    }
-    
+    		return packedTiles;
+    	}
+    	long key = 0L;
+    	int end = Math.min(byteTiles.length, word * 8 + 8);
+    	for (int index = word * 8; index < end; index++)
+    	{
+    		key = (key << 8) | (byteTiles[index] & 0xFF);
+    	}
+    	return key;
+    }
+
+    /*
+     * Rebuild a board of the same size and goal as this one from the key
+     * words of a board stored elsewhere, e.g. in a NodeStore record. The
+     * blank and Manhattan distance are found again from the tiles.
+     *
+     * @param long[] words the array holding the key words
+     * @param int offset index of the first key word in words
+     * @param int lastMove the operator that created the stored board, or NONE
+     *
+     * @return Board the stored board
+     */
+    Board fromKeyWords(long[] words, int offset, int lastMove)
+    {
+    	int cells = rows * columns;
+    	long packed = 0L;
+    	byte[] bytes = null;
+    	if (byteTiles == null)
+    	{
+    		packed = words[offset];
+    	}
+    	else
+    	{
+    		// Undo keyWord(), the first tile of each word is in its highest byte
+    		bytes = new byte[cells];
+    		for (int word = 0; word * 8 < cells; word++)
+    		{
+    			long key = words[offset + word];
+    			int end = Math.min(cells, word * 8 + 8);
+    			for (int index = end - 1; index >= word * 8; index--)
+    			{
+    				bytes[index] = (byte) key;
+    				key >>>= 8;
+    			}
+    		}
+    	}
+
+    	int blankIndex = -1;
+    	int sum = 0;
+    	for (int index = 0; index < cells; index++)
+    	{
+    		int tile = tileAt(bytes, packed, index);
+    		if (tile == 0)
+    		{
+    			blankIndex = index;
+    		}
+    		else
+    		{
+    			sum += goal.distance(tile, index);
+    		}
+    	}
+
+    	// The moved tile is next to the blank, where the blank was before the move
+    	int movedTile = 0;
+    	switch (lastMove)
+    	{
+    		case UP:
+    			movedTile = tileAt(bytes, packed, blankIndex - columns);
+    			break;
+    		case DOWN:
+    			movedTile = tileAt(bytes, packed, blankIndex + columns);
+    			break;
+    		case LEFT:
+    			movedTile = tileAt(bytes, packed, blankIndex - 1);
+    			break;
+    		case RIGHT:
+    			movedTile = tileAt(bytes, packed, blankIndex + 1);
+    			break;
+    		default:
+    			break;
+    	}
+    	return new Board(this, packed, bytes, blankIndex, sum, movedTile, lastMove);
+    }
+
+    /*
+     * The tile at an index of packed or byte tiles not yet in a board.
+     */
+    private static int tileAt(byte[] bytes, long packed, int index)
+    {
+    	return (bytes == null) ? (int) (packed >>> (4 * index)) & 0xF : bytes[index] & 0xFF;
+    }
+
+    /*
+     * Unpack the tiles of this board into a new 2D array.
+     *
+     * @return int[][] copy of the tiles
+     */
+    public int[][] toTiles()
+    {
+    	int[][] tiles = new int[rows][columns];
+    	for (int i = 0; i < rows; i++)
+    	{
+    		for (int j = 0; j < columns; j++)
+    		{
+    			tiles[i][j] = tileAt(i * columns + j);
+    		}
+    	}
+    	return tiles;
+    }
+
+    /*
+     * Apply an operator to this board and return the resulting board.
+     * Only the moved tile changes position, so the Manhattan distance of
+     * the new board is the parent's distance plus or minus 1 rather than
+     * a rescan of every tile. Packed boards only change two nibbles of
+     * the long, larger boards copy the byte array once.
+     *
+     * @param int direction the direction the tile slides into the empty space
+     *
+     * @return Board the board after the move, or null if the move is not possible
+     */
+    public Board move(int direction)
+    {
+    	if (direction < UP || direction > RIGHT)
+    	{
+    		throw new IllegalArgumentException("Unknown direction " + direction);
+    	}
+    	int index = goal.moveSource(blank, direction);
+    	return (index < 0) ? null : slide(direction, index);
+    }
+
+    /*
+     * Apply a move that is known to be possible. The tile moves from index
+     * to the blank along one axis, so the goal's move table gives the
+     * change in its distance.
+     *
+     * @param int direction the direction the tile slides into the empty space
+     * @param int index position of the tile that moves
+     *
+     * @return Board the board after the move
+     */
+    private Board slide(int direction, int index)
+    {
+    	int tile = tileAt(index);
+    	int distance = goal.manhattanDelta(tile, blank, direction);
+
+    	if (byteTiles == null)
+    	{
+    		// The blank nibble is 0, so the tile can be OR'd into place
+    		long packed = packedTiles & ~(0xFL << (4 * index));
+    		packed |= (long) tile << (4 * blank);
+    		return new Board(this, packed, null, index, manhattan + distance, tile, direction);
+    	}
+
+    	byte[] copy = byteTiles.clone();
+    	copy[blank] = (byte) tile;
+    	copy[index] = 0;
+    	return new Board(this, 0L, copy, index, manhattan + distance, tile, direction);
+    }
+
     /*
      * Format the board to s string so it be printed to StdOut(non-Javadoc)
      * @see java.lang.Object#toString()
      */
     public String toString()
     {
-        // YOUR CODE HERE    	
     	StringBuilder s = new StringBuilder();
-        s.append(N + "\n");
-        for (int i = 0; i < N; i++) 
+
+        // Square boards start with N, others with RxC
+        s.append(rows);
+        if (rows != columns)
         {
-            for (int j = 0; j < N; j++) 
+        	s.append('x').append(columns);
+        }
+        s.append("\n");
+        for (int i = 0; i < rows; i++)
+        {
+            for (int j = 0; j < columns; j++)
             {
-                s.append(String.format("%2d ", boardTiles[i][j]));
+            	// Right align each tile in 2 characters without String.format
+                int tile = tileAt(i * columns + j);
+                if (tile < 10)
+                {
+                	s.append(' ');
+                }
+                s.append(tile).append(' ');
             }
             s.append("\n");
         }
-        return s.toString();       
+        return s.toString();
     }
 }
-        
\ No newline at end of file
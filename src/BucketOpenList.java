@@ -0,0 +1,182 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/*
+ * BucketOpenList.java
+ *
+ * The BucketOpenList class is an open list for small integer priorities.
+ * Nodes are stored in an array of buckets indexed by priority (f = moves +
+ * heuristic), and each bucket holds a stack of nodes per heuristic value (h).
+ * delMin() returns a node from the lowest non-empty bucket, preferring the
+ * smallest h (the node closest to the goal) and the most recently inserted
+ * node among those with the same h. Insert and delete are O(1) apart from
+ * moving the minimum pointers past empty buckets, with no compareTo() calls.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class BucketOpenList implements OpenList
+{
+
+	private Bucket[] buckets = new Bucket[64]; // buckets indexed by priority
+	private int minPriority = Integer.MAX_VALUE; // no bucket below this index has nodes
+	private int size; // number of nodes in the open list
+
+	/*
+	 * The nodes that share a priority, stacked by heuristic value.
+	 */
+	private static class Bucket
+	{
+		private Solver.Node[][] stacks = new Solver.Node[16][]; // stacks indexed by heuristic
+		private int[] sizes = new int[16]; // number of nodes in each stack
+		private int minHeuristic = Integer.MAX_VALUE; // no stack below this index has nodes
+		private int count; // number of nodes in the bucket
+
+		/*
+		 * Push a node onto the stack for its heuristic value.
+		 *
+		 * @param Solver.Node node the node to add
+		 */
+		private void push(Solver.Node node)
+		{
+			int h = node.heuristic;
+			if (h >= stacks.length)
+			{
+				int length = Math.max(stacks.length * 2, h + 1);
+				stacks = Arrays.copyOf(stacks, length);
+				sizes = Arrays.copyOf(sizes, length);
+			}
+			Solver.Node[] stack = stacks[h];
+			if (stack == null)
+			{
+				stack = new Solver.Node[8];
+				stacks[h] = stack;
+			}
+			else if (sizes[h] == stack.length)
+			{
+				stack = Arrays.copyOf(stack, stack.length * 2);
+				stacks[h] = stack;
+			}
+			stack[sizes[h]++] = node;
+			count++;
+			if (h < minHeuristic)
+			{
+				minHeuristic = h;
+			}
+		}
+
+		/*
+		 * Pop the last node added with the smallest heuristic value.
+		 *
+		 * @return Solver.Node the removed node
+		 */
+		private Solver.Node pop()
+		{
+			while (sizes[minHeuristic] == 0)
+			{
+				minHeuristic++;
+			}
+			int h = minHeuristic;
+			Solver.Node node = stacks[h][--sizes[h]];
+
+			// Release the reference so the node can be garbage collected
+			stacks[h][sizes[h]] = null;
+			count--;
+			if (count == 0)
+			{
+				minHeuristic = Integer.MAX_VALUE;
+			}
+			return node;
+		}
+
+		/*
+		 * Remove every node from the bucket, keeping the stacks for reuse.
+		 */
+		private void clear()
+		{
+			for (int h = 0; h < stacks.length; h++)
+			{
+				if (sizes[h] > 0)
+				{
+					Arrays.fill(stacks[h], 0, sizes[h], null);
+					sizes[h] = 0;
+				}
+			}
+			count = 0;
+			minHeuristic = Integer.MAX_VALUE;
+		}
+	}
+
+	@Override
+	public void insert(Solver.Node node)
+	{
+		int f = node.priority;
+		if (f >= buckets.length)
+		{
+			buckets = Arrays.copyOf(buckets, Math.max(buckets.length * 2, f + 1));
+		}
+		Bucket bucket = buckets[f];
+		if (bucket == null)
+		{
+			bucket = new Bucket();
+			buckets[f] = bucket;
+		}
+		bucket.push(node);
+		size++;
+
+		// A shorter path can reopen a node below the current minimum
+		if (f < minPriority)
+		{
+			minPriority = f;
+		}
+	}
+
+	@Override
+	public Solver.Node delMin()
+	{
+		if (size == 0)
+		{
+			throw new NoSuchElementException("Open list underflow");
+		}
+		while (buckets[minPriority] == null || buckets[minPriority].count == 0)
+		{
+			minPriority++;
+		}
+		size--;
+		Solver.Node node = buckets[minPriority].pop();
+		if (size == 0)
+		{
+			minPriority = Integer.MAX_VALUE;
+		}
+		return node;
+	}
+
+	@Override
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	@Override
+	public int size()
+	{
+		return size;
+	}
+
+	@Override
+	public void clear()
+	{
+		for (Bucket bucket : buckets)
+		{
+			if (bucket != null && bucket.count > 0)
+			{
+				bucket.clear();
+			}
+		}
+		size = 0;
+		minPriority = Integer.MAX_VALUE;
+	}
+}
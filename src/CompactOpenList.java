@@ -0,0 +1,190 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/*
+ * CompactOpenList.java
+ *
+ * The CompactOpenList class is the open list of a CompactSearch. It orders
+ * the records of a NodeStore the same way BucketOpenList orders nodes, by
+ * the smallest priority (f = moves + heuristic), then the smallest heuristic
+ * (h), then the most recently inserted, but holds only the int index of each
+ * record. The stacks are int arrays, so a queued node costs 4 bytes and the
+ * garbage collector has nothing to trace.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class CompactOpenList
+{
+
+	private Bucket[] buckets = new Bucket[64]; // buckets indexed by priority
+	private int minPriority = Integer.MAX_VALUE; // no bucket below this index has nodes
+	private int size; // number of nodes in the open list
+
+	/*
+	 * The nodes that share a priority, stacked by heuristic value.
+	 */
+	private static class Bucket
+	{
+		private int[][] stacks = new int[16][]; // stacks indexed by heuristic
+		private int[] sizes = new int[16]; // number of nodes in each stack
+		private int minHeuristic = Integer.MAX_VALUE; // no stack below this index has nodes
+		private int count; // number of nodes in the bucket
+
+		/*
+		 * Push a node onto the stack for its heuristic value.
+		 *
+		 * @param int node index of the record
+		 * @param int h the heuristic value of the node
+		 */
+		private void push(int node, int h)
+		{
+			if (h >= stacks.length)
+			{
+				int length = Math.max(stacks.length * 2, h + 1);
+				stacks = Arrays.copyOf(stacks, length);
+				sizes = Arrays.copyOf(sizes, length);
+			}
+			int[] stack = stacks[h];
+			if (stack == null)
+			{
+				stack = new int[8];
+				stacks[h] = stack;
+			}
+			else if (sizes[h] == stack.length)
+			{
+				stack = Arrays.copyOf(stack, stack.length * 2);
+				stacks[h] = stack;
+			}
+			stack[sizes[h]++] = node;
+			count++;
+			if (h < minHeuristic)
+			{
+				minHeuristic = h;
+			}
+		}
+
+		/*
+		 * Pop the last node added with the smallest heuristic value.
+		 *
+		 * @return int index of the removed record
+		 */
+		private int pop()
+		{
+			while (sizes[minHeuristic] == 0)
+			{
+				minHeuristic++;
+			}
+			int h = minHeuristic;
+			int node = stacks[h][--sizes[h]];
+			count--;
+			if (count == 0)
+			{
+				minHeuristic = Integer.MAX_VALUE;
+			}
+			return node;
+		}
+
+		/*
+		 * Remove every node from the bucket, keeping the stacks for reuse.
+		 */
+		private void clear()
+		{
+			Arrays.fill(sizes, 0);
+			count = 0;
+			minHeuristic = Integer.MAX_VALUE;
+		}
+	}
+
+	/*
+	 * Add a node.
+	 *
+	 * @param int node index of the record in the NodeStore
+	 * @param int priority the priority of the node, moves + heuristic
+	 * @param int heuristic the heuristic value of the node
+	 */
+	public void insert(int node, int priority, int heuristic)
+	{
+		if (priority >= buckets.length)
+		{
+			buckets = Arrays.copyOf(buckets, Math.max(buckets.length * 2, priority + 1));
+		}
+		Bucket bucket = buckets[priority];
+		if (bucket == null)
+		{
+			bucket = new Bucket();
+			buckets[priority] = bucket;
+		}
+		bucket.push(node, heuristic);
+		size++;
+
+		// A shorter path can reopen a node below the current minimum
+		if (priority < minPriority)
+		{
+			minPriority = priority;
+		}
+	}
+
+	/*
+	 * Remove the node with the smallest priority.
+	 *
+	 * @return int index of the record
+	 */
+	public int delMin()
+	{
+		if (size == 0)
+		{
+			throw new NoSuchElementException("Open list underflow");
+		}
+		while (buckets[minPriority] == null || buckets[minPriority].count == 0)
+		{
+			minPriority++;
+		}
+		size--;
+		int node = buckets[minPriority].pop();
+		if (size == 0)
+		{
+			minPriority = Integer.MAX_VALUE;
+		}
+		return node;
+	}
+
+	/*
+	 * Whether the open list has no nodes.
+	 *
+	 * @return boolean true if empty
+	 */
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	/*
+	 * The number of nodes in the open list.
+	 *
+	 * @return int the number of nodes
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/*
+	 * Remove every node, keeping the buckets for reuse.
+	 */
+	public void clear()
+	{
+		for (Bucket bucket : buckets)
+		{
+			if (bucket != null && bucket.count > 0)
+			{
+				bucket.clear();
+			}
+		}
+		size = 0;
+		minPriority = Integer.MAX_VALUE;
+	}
+}
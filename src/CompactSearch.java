@@ -0,0 +1,211 @@
+/*
+ * CompactSearch.java
+ *
+ * The CompactSearch class is the A* search of the Solver with its nodes kept
+ * as records in a NodeStore and its frontier as record indices in a
+ * CompactOpenList, chosen with SolverOptions.compactNodes(true). A queued
+ * node of the 8 or 15 puzzle takes 20 bytes instead of the Node, Board and
+ * open list slot of about 96, and the pages and stacks hold no references,
+ * so a search can keep several times the frontier in the same heap without
+ * long garbage collection pauses.
+ *
+ * Only the packed tiles of a board are stored. Its Board is rebuilt when the
+ * node is taken off the open list, and its neighbours are only held until
+ * they are stored, so they never leave the young generation. Nodes are
+ * expanded in the same order as the object A* search with a bucket open
+ * list, so both return the same solution.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class CompactSearch
+{
+
+	private final Board initial; // the starting state of the board
+	private final Heuristic heuristic; // estimates the moves left to the goal
+	private final CompactOpenList open; // indices of the nodes to expand
+	private final StateTable closed; // best moves found to each board
+	private final NodeStore nodes; // every node generated
+	private final SearchStats stats; // filled in as the search runs, or null
+	private final SearchTrace.Recording trace; // records each expansion, or null
+	private final SearchMonitor monitor; // checked for cancellation, or null
+
+	private final NeighbourVisitor queueNeighbour = this::queueNeighbour; // kept for every expansion
+
+	private int expanding; // index of the record being expanded
+	private int expandingMoves; // moves to the board being expanded
+	private int expandingHeuristic; // heuristic of the board being expanded
+	private long expanded; // number of boards expanded
+	private int openSize; // nodes left in the open list when the goal was found
+
+	/*
+	 * Create a search from the initial board.
+	 *
+	 * @param Board initial the starting state of the board, solvable and not the goal
+	 * @param Heuristic heuristic estimates the moves left to the goal
+	 * @param SearchWorkspace workspace provides the open list, closed set and node store
+	 * @param SearchStats stats the started statistics to fill in, or null
+	 * @param SearchTrace.Recording trace records each expansion, or null
+	 * @param SearchMonitor monitor checked every SearchMonitor.CHECK_INTERVAL expansions, or null
+	 */
+	public CompactSearch(Board initial, Heuristic heuristic, SearchWorkspace workspace, SearchStats stats,
+			SearchTrace.Recording trace, SearchMonitor monitor)
+	{
+		this.initial = initial;
+		this.heuristic = heuristic;
+		this.open = workspace.compactOpenList();
+		this.closed = workspace.closed();
+		this.nodes = workspace.nodeStore(initial.keyWords());
+		this.stats = stats;
+		this.trace = trace;
+		this.monitor = monitor;
+		if (stats != null)
+		{
+			stats.nodeBytes(nodes.recordBytes() + 4);
+		}
+	}
+
+	/*
+	 * Search until the goal is expanded. The board is known to be
+	 * solvable, so the search always reaches the goal.
+	 *
+	 * @return byte[] the moves of a shortest solution, see Board.UP etc
+	 */
+	public byte[] solve()
+	{
+		int root = nodes.add(initial, NodeStore.NO_PARENT, 0, heuristic.estimate(initial));
+		open.insert(root, nodes.heuristic(root), nodes.heuristic(root));
+		closed.put(initial, 0);
+
+		try
+		{
+			while (!open.isEmpty())
+			{
+				long start = (stats == null) ? 0 : System.nanoTime();
+				int node = open.delMin();
+				int moves = nodes.moves(node);
+				Board board = nodes.board(node, initial);
+
+				// Skip nodes queued before a shorter path to their board was found
+				if (moves > closed.get(board))
+				{
+					if (stats != null)
+					{
+						stats.duplicate();
+					}
+					continue;
+				}
+				int priority = moves + nodes.heuristic(node);
+				if (monitor != null && (expanded & (SearchMonitor.CHECK_INTERVAL - 1)) == 0)
+				{
+					monitor.checkpoint(priority, expanded);
+				}
+				expanded++;
+				if (stats != null)
+				{
+					stats.queueTime(System.nanoTime() - start);
+					stats.expanded(priority);
+				}
+				if (trace != null)
+				{
+					trace.expanded(board.hashCode(), moves, nodes.heuristic(node), open.size());
+				}
+
+				if (board.isGoal())
+				{
+					openSize = open.size();
+					if (stats != null)
+					{
+						stats.finish(open.size(), closed);
+					}
+					return nodes.movesTo(node);
+				}
+				expand(node, board, moves);
+			}
+		}
+		finally
+		{
+			// Let the unexpanded nodes go when the goal is found or the search is cancelled
+			open.clear();
+		}
+		throw new IllegalStateException("No solution found for a solvable board\n" + initial);
+	}
+
+	/*
+	 * Store and queue the neighbours of a board that are reached in fewer
+	 * moves than before.
+	 *
+	 * @param int node index of the record being expanded
+	 * @param Board board the board of the record
+	 * @param int moves the moves to the board
+	 */
+	private void expand(int node, Board board, int moves)
+	{
+		expanding = node;
+		expandingMoves = moves;
+		expandingHeuristic = nodes.heuristic(node);
+		board.visitNeighbours(queueNeighbour);
+		if (stats != null)
+		{
+			stats.openSize(open.size());
+			stats.progress(open.size(), closed);
+		}
+	}
+
+	/*
+	 * Store and queue a neighbour of the board being expanded if it is
+	 * reached in fewer moves than before.
+	 *
+	 * @param Board neighbour a board one move from the expanded board
+	 */
+	private void queueNeighbour(Board neighbour)
+	{
+		int moves = expandingMoves + 1;
+		if (closed.improve(neighbour, moves))
+		{
+			int h = heuristic.update(neighbour, expandingHeuristic, neighbour.lastMove());
+			int child = nodes.add(neighbour, expanding, moves, h);
+			if (stats == null)
+			{
+				open.insert(child, moves + h, h);
+			}
+			else
+			{
+				long insertStart = System.nanoTime();
+				open.insert(child, moves + h, h);
+				stats.queueTime(System.nanoTime() - insertStart);
+			}
+		}
+		else if (stats != null)
+		{
+			stats.duplicate();
+		}
+		if (stats != null)
+		{
+			stats.generated(1);
+		}
+	}
+
+	/*
+	 * The number of boards expanded.
+	 *
+	 * @return long boards expanded
+	 */
+	public long expanded()
+	{
+		return expanded;
+	}
+
+	/*
+	 * The number of nodes left in the open list when the goal was found.
+	 *
+	 * @return int unexpanded nodes
+	 */
+	public int openSize()
+	{
+		return openSize;
+	}
+}
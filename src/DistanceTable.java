@@ -0,0 +1,416 @@
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/*
+ * DistanceTable.java
+ *
+ * The DistanceTable class holds the exact distance to the goal of every
+ * state of a puzzle, as found by StateSpaceSearch, and answers distance
+ * queries in O(1) with one memory read.
+ *
+ * A state is the position of the blank and of a set of tracked tiles. When
+ * every tile is tracked the states are the boards themselves and the
+ * distances are the optimal solution lengths. When only some tiles are
+ * tracked, e.g. 1 to 7 of the 15 puzzle, the other tiles cannot be told
+ * apart, every move still costs 1, and the distance is a lower bound on the
+ * solution length of any board with those tiles in those positions.
+ *
+ * States are numbered by a perfect hash, the rank of the positions of the
+ * blank and the tracked tiles in turn, where each position is counted among
+ * the cells not already used. This gives a mixed radix number with bases
+ * cells, cells - 1, ..., so every placement has its own rank from 0 to
+ * cells! / (cells - k - 1)! - 1 for k tracked tiles.
+ *
+ * File layout, big endian: magic, rows, columns, the goal tiles in row major
+ * order, the number of tracked tiles followed by the tiles, the largest
+ * distance, then the number of states at each distance from 0 up to the
+ * largest. The table starts at HEADER_BYTES with one byte per rank holding
+ * the distance + 1, or 0 for a state that cannot be reached. The file is
+ * memory mapped a window at a time, so tables larger than memory are paged
+ * in by the operating system as they are used.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class DistanceTable
+{
+
+	// "DST1", marks a distance table file
+	private static final int MAGIC = 0x44535431;
+
+	// Offset of the table in the file, after the header
+	static final int HEADER_BYTES = 8192;
+
+	// Largest distance a table byte can hold
+	static final int MAX_DISTANCE = 254;
+
+	// Bits of the rank that index within a window
+	private static final int WINDOW_BITS = 30;
+	private static final long WINDOW_MASK = (1L << WINDOW_BITS) - 1;
+
+	private final Goal goal; // the goal the distances are to
+	private final int[] tiles; // the tracked tiles, not counting the blank
+	private final int[] slotOf; // slot of each tile in a state, 0 for the blank, -1 if not tracked
+	private final long states; // number of ranks
+	private final ByteBuffer header; // the mapped header
+	private final ByteBuffer[] windows; // the mapped table, 1 << WINDOW_BITS ranks each
+	private long[] counts; // states at each distance
+
+	/*
+	 * Create a table over mapped header and table windows.
+	 */
+	private DistanceTable(Goal goal, int[] tiles, ByteBuffer header, ByteBuffer[] windows, long[] counts)
+	{
+		this.goal = goal;
+		this.tiles = tiles;
+		this.states = states(goal.cells(), tiles.length);
+		this.header = header;
+		this.windows = windows;
+		this.counts = counts;
+		this.slotOf = new int[goal.cells()];
+		Arrays.fill(slotOf, -1);
+		slotOf[0] = 0;
+		for (int slot = 0; slot < tiles.length; slot++)
+		{
+			slotOf[tiles[slot]] = slot + 1;
+		}
+	}
+
+	/*
+	 * Create an empty table file for StateSpaceSearch to fill in. Every
+	 * state starts unreached.
+	 *
+	 * @param String file path of the table file, replaced if it exists
+	 * @param Goal goal the goal the distances are to
+	 * @param int[] tiles the tracked tiles
+	 *
+	 * @return DistanceTable the writable table
+	 */
+	static DistanceTable create(String file, Goal goal, int[] tiles) throws IOException
+	{
+		long states = states(goal.cells(), tiles.length);
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw");
+				FileChannel channel = raf.getChannel())
+		{
+			// Truncating first clears any old table, the new length reads as zeros
+			raf.setLength(0);
+			raf.setLength(HEADER_BYTES + states);
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+			header.putInt(MAGIC);
+			header.putInt(goal.rows());
+			header.putInt(goal.columns());
+			for (int cell = 0; cell < goal.cells(); cell++)
+			{
+				header.putInt(goal.tileAt(cell));
+			}
+			header.putInt(tiles.length);
+			for (int tile : tiles)
+			{
+				header.putInt(tile);
+			}
+			return new DistanceTable(goal, tiles, header, map(channel, states, FileChannel.MapMode.READ_WRITE),
+					new long[0]);
+		}
+	}
+
+	/*
+	 * Load a table saved by StateSpaceSearch.
+	 *
+	 * @param String file path of the table file
+	 *
+	 * @return DistanceTable the loaded table
+	 */
+	public static DistanceTable load(String file) throws IOException
+	{
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+				FileChannel channel = raf.getChannel())
+		{
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(HEADER_BYTES, channel.size()));
+			if (channel.size() < HEADER_BYTES || header.getInt() != MAGIC)
+			{
+				throw new IOException(file + " is not a distance table");
+			}
+			int rows = header.getInt();
+			int columns = header.getInt();
+			int[][] layout = new int[rows][columns];
+			for (int i = 0; i < rows; i++)
+			{
+				for (int j = 0; j < columns; j++)
+				{
+					layout[i][j] = header.getInt();
+				}
+			}
+			Goal goal = new Goal(layout);
+			int[] tiles = new int[header.getInt()];
+			for (int slot = 0; slot < tiles.length; slot++)
+			{
+				tiles[slot] = header.getInt();
+			}
+			long[] counts = new long[header.getInt() + 1];
+			for (int distance = 0; distance < counts.length; distance++)
+			{
+				counts[distance] = header.getLong();
+			}
+
+			long states = states(goal.cells(), tiles.length);
+			if (channel.size() != HEADER_BYTES + states)
+			{
+				throw new IOException(file + " has a table of the wrong size");
+			}
+			return new DistanceTable(goal, tiles, header, map(channel, states, FileChannel.MapMode.READ_ONLY), counts);
+		}
+	}
+
+	/*
+	 * Map the table a window at a time.
+	 */
+	private static ByteBuffer[] map(FileChannel channel, long states, FileChannel.MapMode mode) throws IOException
+	{
+		ByteBuffer[] windows = new ByteBuffer[(int) ((states + WINDOW_MASK) >>> WINDOW_BITS)];
+		for (int w = 0; w < windows.length; w++)
+		{
+			long start = (long) w << WINDOW_BITS;
+			windows[w] = channel.map(mode, HEADER_BYTES + start, Math.min(1L << WINDOW_BITS, states - start));
+		}
+		return windows;
+	}
+
+	/*
+	 * The number of ranks for a number of tracked tiles.
+	 *
+	 * @param int cells number of cells on the board
+	 * @param int k number of tracked tiles, not counting the blank
+	 *
+	 * @return long cells! / (cells - k - 1)!
+	 */
+	static long states(int cells, int k)
+	{
+		long count = 1;
+		for (int slot = 0; slot <= k; slot++)
+		{
+			if (count > Long.MAX_VALUE / (cells - slot))
+			{
+				throw new IllegalArgumentException("Too many states to rank with " + k + " tiles tracked");
+			}
+			count *= cells - slot;
+		}
+		return count;
+	}
+
+	/*
+	 * The distance of a board from the goal, or a lower bound on it if not
+	 * every tile is tracked.
+	 *
+	 * @param TileGrid board a board with the same size and goal as this table
+	 *
+	 * @return int moves to the goal, -1 if the goal cannot be reached
+	 */
+	public int distance(TileGrid board)
+	{
+		if (board.rows() != goal.rows() || board.columns() != goal.columns() || !goal.equals(board.goal()))
+		{
+			throw new IllegalArgumentException("Board does not have the size and goal of this table");
+		}
+		int[] positions = new int[tiles.length + 1];
+		for (int cell = 0; cell < goal.cells(); cell++)
+		{
+			int slot = slotOf[board.tileAt(cell)];
+			if (slot >= 0)
+			{
+				positions[slot] = cell;
+			}
+		}
+		return distance(rank(positions, goal.cells()));
+	}
+
+	/*
+	 * The distance of a state from the goal.
+	 *
+	 * @param long rank the rank of the state
+	 *
+	 * @return int moves to the goal, -1 if the goal cannot be reached
+	 */
+	public int distance(long rank)
+	{
+		return (windows[(int) (rank >>> WINDOW_BITS)].get((int) (rank & WINDOW_MASK)) & 0xFF) - 1;
+	}
+
+	/*
+	 * Record the distance of a state.
+	 *
+	 * @param long rank the rank of the state
+	 * @param int distance moves to the goal, at most MAX_DISTANCE
+	 */
+	void set(long rank, int distance)
+	{
+		windows[(int) (rank >>> WINDOW_BITS)].put((int) (rank & WINDOW_MASK), (byte) (distance + 1));
+	}
+
+	/*
+	 * Write the number of states at each distance into the header once the
+	 * table is complete.
+	 *
+	 * @param long[] counts states at each distance from 0 up to the largest
+	 */
+	void finish(long[] counts)
+	{
+		this.counts = counts.clone();
+		header.position(4 * (4 + goal.cells() + tiles.length));
+		header.putInt(counts.length - 1);
+		for (long count : counts)
+		{
+			header.putLong(count);
+		}
+	}
+
+	/*
+	 * @return Goal the goal the distances are to
+	 */
+	public Goal goal()
+	{
+		return goal;
+	}
+
+	/*
+	 * @return int[] the tracked tiles, not counting the blank
+	 */
+	public int[] tiles()
+	{
+		return tiles.clone();
+	}
+
+	/*
+	 * @return long the number of ranks, reachable or not
+	 */
+	public long states()
+	{
+		return states;
+	}
+
+	/*
+	 * @return int the largest distance of any state, the diameter of the state space
+	 */
+	public int maxDistance()
+	{
+		return counts.length - 1;
+	}
+
+	/*
+	 * The number of states at a distance, the distribution of optimal
+	 * solution lengths when every tile is tracked.
+	 *
+	 * @param int distance moves to the goal
+	 *
+	 * @return long states at that distance
+	 */
+	public long count(int distance)
+	{
+		return (distance >= 0 && distance < counts.length) ? counts[distance] : 0;
+	}
+
+	/*
+	 * The cells of the blank and the tracked tiles of a state.
+	 *
+	 * @param long rank the rank of the state
+	 *
+	 * @return int[][] the layout, 0 for the blank and -1 for a cell whose
+	 * 			tile is not tracked
+	 */
+	public int[][] layout(long rank)
+	{
+		int[] positions = new int[tiles.length + 1];
+		unrank(rank, goal.cells(), positions);
+		int[][] layout = new int[goal.rows()][goal.columns()];
+		for (int[] row : layout)
+		{
+			Arrays.fill(row, -1);
+		}
+		for (int slot = 0; slot < positions.length; slot++)
+		{
+			int cell = positions[slot];
+			layout[goal.rowOf(cell)][goal.columnOf(cell)] = (slot == 0) ? 0 : tiles[slot - 1];
+		}
+		return layout;
+	}
+
+	/*
+	 * Rank the positions of the blank and the tracked tiles.
+	 *
+	 * @param int[] positions the cell of the blank, then of each tracked tile
+	 * @param int cells number of cells on the board, at most 64
+	 *
+	 * @return long the rank
+	 */
+	static long rank(int[] positions, int cells)
+	{
+		long used = 0L;
+		long rank = 0;
+		for (int slot = 0; slot < positions.length; slot++)
+		{
+			int digit = positions[slot] - Long.bitCount(used & ((1L << positions[slot]) - 1));
+			rank = rank * (cells - slot) + digit;
+			used |= 1L << positions[slot];
+		}
+		return rank;
+	}
+
+	/*
+	 * The positions with the given rank, the reverse of rank().
+	 *
+	 * @param long rank the rank
+	 * @param int cells number of cells on the board
+	 * @param int[] positions receives the cell of the blank, then of each tracked tile
+	 */
+	static void unrank(long rank, int cells, int[] positions)
+	{
+		// Split the rank into its digits, stored in positions for now
+		for (int slot = positions.length - 1; slot >= 0; slot--)
+		{
+			positions[slot] = (int) (rank % (cells - slot));
+			rank /= cells - slot;
+		}
+
+		// Turn each digit into the digit-th unused cell
+		long used = 0L;
+		for (int slot = 0; slot < positions.length; slot++)
+		{
+			long free = ~used;
+			for (int skip = positions[slot]; skip > 0; skip--)
+			{
+				free &= free - 1;
+			}
+			int cell = Long.numberOfTrailingZeros(free);
+			positions[slot] = cell;
+			used |= 1L << cell;
+		}
+	}
+
+	/*
+	 * Print the distribution of distances and some of the farthest states
+	 * of a table, or the distance of each puzzle in a file.
+	 *
+	 * 		java DistanceTable table [puzzles]
+	 */
+	public static void main(String[] args) throws IOException
+	{
+		DistanceTable table = load(args[0]);
+		if (args.length > 1)
+		{
+			try (PuzzleReader in = PuzzleReader.open(args[1]))
+			{
+				while (in.hasNext())
+				{
+					System.out.println(table.distance(in.next(table.goal())));
+				}
+			}
+			return;
+		}
+		StateSpaceSearch.printSummary(table, System.out);
+	}
+}
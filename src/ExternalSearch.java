@@ -0,0 +1,848 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * ExternalSearch.java
+ *
+ * The ExternalSearch class is A* for searches whose open and closed lists
+ * are larger than the heap (external A*, Edelkamp, Jabbar and Schroedl). Its
+ * heap use is fixed by SolverOptions.memoryBytes() and the states are kept
+ * in files on disk, which are only read and written in order.
+ *
+ * - The open list is split into buckets by moves (g) and heuristic (h). The
+ *   open bucket of the smallest f = g + h, and of the smallest g within the
+ *   same f, is expanded next, which is the order A* would expand them in.
+ * - A state is stored as the rank of its tiles, see DistanceTable.rank(),
+ *   with the move that created it in the low bits. New states are buffered
+ *   in memory by bucket. When the buffers outgrow half the budget the
+ *   buckets to be expanded last, those of the largest f, are sorted and
+ *   written to disk as runs, see RankFile.
+ * - Duplicates are removed in a batch when a bucket is expanded. Its runs
+ *   and buffer are merged, dropping repeated states, and the states already
+ *   expanded with the same h are subtracted as the merge goes. A state
+ *   always has the same h, as each estimate is updated from its parent's.
+ *   With a consistent heuristic on a puzzle whose moves can be undone a
+ *   state can only have been expanded in the buckets (g - 1, h) and
+ *   (g - 2, h), so only their closed files are read. Each state left is
+ *   expanded and written to a closed file of the bucket.
+ * - The solution is read back from the closed files. The move stored with
+ *   the goal leads to its parent one layer of g up, whose move is found by
+ *   a scan of the closed files of that layer, and so on to the initial
+ *   board.
+ *
+ * A heuristic that is only admissible, such as an additive pattern
+ * database, can lower f from a state to its successor and reach a state
+ * again with fewer moves after it has been expanded. Then every closed file
+ * of the same h up to the bucket's g is subtracted, and a bucket that is
+ * given more states after its expansion is expanded again, the states it
+ * has expanded before subtracted too. A state reached with fewer moves is
+ * expanded again, as A* reopens it, so the solution is still the shortest.
+ * When there are more closed files than one merge can read they are
+ * subtracted a group at a time first. Boards of up to MAX_CELLS cells can
+ * be ranked into the files.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class ExternalSearch
+{
+
+	// Smallest memory budget, enough for a useful buffer
+	static final long MIN_MEMORY = 1 << 20;
+
+	// Most cells of a board whose rank leaves room for the move in a long
+	public static final int MAX_CELLS = 19;
+
+	// Low bits of a stored state that hold the move that created it
+	private static final int MOVE_BITS = 3;
+	private static final long MOVE_MASK = (1 << MOVE_BITS) - 1;
+
+	// Stored in place of a move for the initial board
+	private static final int ROOT = 4;
+
+	// First size of the buffer of a bucket
+	private static final int INITIAL_BUFFER = 1024;
+
+	/*
+	 * The states with the same moves and heuristic.
+	 */
+	private static class Bucket
+	{
+		private final int g; // moves to the states
+		private final int h; // heuristic of the states
+		private long[] buffer; // states not yet spilled, or null
+		private int size; // number of states in the buffer
+		private long count; // number of states stored, counting duplicates
+		private final List<File> runs = new ArrayList<File>(); // sorted runs spilled to disk
+		private final List<File> closed = new ArrayList<File>(); // the states expanded, a file per expansion
+
+		private Bucket(int g, int h)
+		{
+			this.g = g;
+			this.h = h;
+		}
+
+		private boolean isOpen()
+		{
+			return size > 0 || !runs.isEmpty();
+		}
+	}
+
+	/*
+	 * Gives the stored states of a sorted run or buffer in order.
+	 */
+	private interface Source
+	{
+		/*
+		 * @return long the next stored state, or -1 at the end
+		 */
+		long next() throws IOException;
+	}
+
+	private final Board initial; // the starting state of the board
+	private final Heuristic heuristic; // estimates the moves left to the goal
+	private final boolean consistent; // states can only be met again one or two moves later
+	private final File spillDirectory; // holds the directory of each search
+	private final long bufferLimit; // most states held in the bucket buffers
+	private final int fanIn; // most runs merged at once
+	private final SearchMonitor monitor; // checked for cancellation, or null
+	private final int cells; // cells of the board
+	private final int[] positions; // the cell of each tile of the state being expanded
+	private final long[] words; // key words of the state being rebuilt as a Board
+	private final NeighbourVisitor storeNeighbour = this::storeNeighbour; // kept for every expansion
+
+	private File directory; // the work files of this search
+	private Bucket[][] buckets = new Bucket[0][]; // buckets by moves and heuristic
+	private long buffered; // capacity of every bucket buffer
+	private int openBuckets; // buckets with states left to expand
+	private int files; // number of work files created, for unique names
+	private long goalRank; // the rank of the goal
+	private Bucket expanding; // the bucket being expanded
+	private long expanded; // number of states expanded
+	private long stored; // number of states stored in the open buckets
+	private long spilled; // number of states written to runs
+
+	/*
+	 * Create a search from the initial board.
+	 *
+	 * @param Board initial the starting state of the board, solvable and not the goal
+	 * @param Heuristic heuristic estimates the moves left to the goal
+	 * @param SolverOptions options the memory budget and spill directory
+	 * @param SearchMonitor monitor checked every SearchMonitor.CHECK_INTERVAL expansions, or null
+	 */
+	public ExternalSearch(Board initial, Heuristic heuristic, SolverOptions options, SearchMonitor monitor)
+	{
+		cells = initial.rows() * initial.columns();
+		if (cells > MAX_CELLS)
+		{
+			throw new IllegalArgumentException("External search needs boards of at most " + MAX_CELLS + " cells, not " + cells);
+		}
+		this.initial = initial;
+		this.heuristic = heuristic;
+		this.consistent = heuristic.isConsistent();
+		this.spillDirectory = options.spillDirectory();
+		this.monitor = monitor;
+
+		// Half the budget buffers new states, the other half buffers the files of a merge
+		this.bufferLimit = Math.min(Integer.MAX_VALUE - 8, options.memoryBytes() / 2 / Long.BYTES);
+		this.fanIn = (int) Math.max(2, Math.min(1024, options.memoryBytes() / 2 / RankFile.IO_BUFFER - 3));
+		this.positions = new int[cells];
+		this.words = new long[initial.keyWords()];
+	}
+
+	/*
+	 * Search until the goal is expanded, deleting the work files at the end.
+	 *
+	 * @return byte[] the moves of a shortest solution, see Board.UP etc
+	 */
+	public byte[] solve() throws IOException
+	{
+		directory = Files.createTempDirectory(spillDirectory.toPath(), "external-astar").toFile();
+		try
+		{
+			positionsOf(initial.goal().board());
+			goalRank = DistanceTable.rank(positions, cells);
+			int h = heuristic.estimate(initial);
+			positionsOf(initial);
+			store(0, h, DistanceTable.rank(positions, cells) << MOVE_BITS | ROOT);
+
+			for (Bucket bucket = next(); bucket != null; bucket = next())
+			{
+				long goal = expand(bucket);
+				if (goal >= 0)
+				{
+					return path(bucket.g, goal);
+				}
+			}
+			throw new IllegalStateException("No solution found for a solvable board\n" + initial);
+		}
+		finally
+		{
+			buckets = new Bucket[0][];
+			deleteAll(directory);
+		}
+	}
+
+	/*
+	 * The open bucket A* would expand next, the smallest f = g + h and then
+	 * the smallest g.
+	 *
+	 * @return Bucket the bucket, or null if no bucket has states to expand
+	 */
+	private Bucket next()
+	{
+		Bucket next = null;
+		if (openBuckets > 0)
+		{
+			// Rows are in order of g, so the first bucket of a priority wins
+			for (Bucket[] row : buckets)
+			{
+				for (Bucket bucket : row)
+				{
+					if (bucket != null && bucket.isOpen() && (next == null || bucket.g + bucket.h < next.g + next.h))
+					{
+						next = bucket;
+					}
+				}
+			}
+		}
+		return next;
+	}
+
+	/*
+	 * Expand a bucket: merge its runs and buffer, drop the states already
+	 * expanded, and store the successors of the rest.
+	 *
+	 * @param Bucket bucket the bucket
+	 *
+	 * @return long the stored goal state if the bucket holds it, otherwise -1
+	 */
+	private long expand(Bucket bucket) throws IOException
+	{
+		int f = bucket.g + bucket.h;
+		reduceRuns(bucket);
+		List<File> earlier = earlierClosed(bucket);
+		subtractInPasses(bucket, earlier);
+
+		List<Source> sources = new ArrayList<Source>();
+		List<RankFile.Reader> readers = new ArrayList<RankFile.Reader>();
+		List<RankFile.Reader> earlierReaders = new ArrayList<RankFile.Reader>();
+		openBuckets--;
+		stored -= bucket.count;
+		bucket.count = 0;
+		expanding = bucket;
+		File closedFile = newFile();
+		bucket.closed.add(closedFile);
+		try (RankFile.Writer closed = new RankFile.Writer(closedFile))
+		{
+			for (File run : bucket.runs)
+			{
+				RankFile.Reader reader = new RankFile.Reader(run);
+				readers.add(reader);
+				sources.add(reader::next);
+			}
+			if (bucket.size > 0)
+			{
+				sources.add(sorted(bucket));
+			}
+			for (File file : earlier)
+			{
+				RankFile.Reader reader = new RankFile.Reader(file);
+				readers.add(reader);
+				earlierReaders.add(reader);
+			}
+
+			Source states = subtract(sources, earlierReaders);
+			for (long state = states.next(); state >= 0; state = states.next())
+			{
+				closed.write(state);
+				if (monitor != null && (expanded & (SearchMonitor.CHECK_INTERVAL - 1)) == 0)
+				{
+					monitor.checkpoint(f, expanded);
+				}
+				expanded++;
+				long rank = state >>> MOVE_BITS;
+				if (rank == goalRank)
+				{
+					return state;
+				}
+				DistanceTable.unrank(rank, cells, positions);
+				int move = (int) (state & MOVE_MASK);
+				boardOf(move == ROOT ? Board.NONE : move).visitNeighbours(storeNeighbour);
+			}
+			return -1;
+		}
+		finally
+		{
+			expanding = null;
+			for (RankFile.Reader reader : readers)
+			{
+				reader.close();
+			}
+			for (File run : bucket.runs)
+			{
+				delete(run);
+			}
+			bucket.runs.clear();
+			release(bucket);
+		}
+	}
+
+	/*
+	 * The closed files whose states are dropped when a bucket is expanded.
+	 * A state always has the same h. With a consistent heuristic on a
+	 * puzzle whose moves can be undone it can only have been expanded one
+	 * or two moves before. Otherwise it may have been expanded with any
+	 * number of moves up to the bucket's own, in the bucket itself if the
+	 * bucket is being expanded again.
+	 *
+	 * @param Bucket bucket the bucket about to be expanded
+	 *
+	 * @return List<File> the closed files of the same h to subtract
+	 */
+	private List<File> earlierClosed(Bucket bucket)
+	{
+		List<File> earlier = new ArrayList<File>();
+		int first = consistent ? Math.max(0, bucket.g - 2) : 0;
+		int last = consistent ? bucket.g - 1 : bucket.g;
+		for (int g = first; g <= last; g++)
+		{
+			Bucket before = bucket(g, bucket.h, false);
+			if (before != null)
+			{
+				earlier.addAll(before.closed);
+			}
+		}
+		return earlier;
+	}
+
+	/*
+	 * While there are more closed files to subtract than the merge of the
+	 * expansion can read with the runs, subtract them a group at a time,
+	 * leaving the bucket's states in a single run. Used files are removed
+	 * from the list.
+	 *
+	 * @param Bucket bucket the bucket about to be expanded
+	 * @param List<File> earlier the closed files to subtract
+	 */
+	private void subtractInPasses(Bucket bucket, List<File> earlier) throws IOException
+	{
+		while (bucket.runs.size() + earlier.size() > fanIn + 2)
+		{
+			List<File> group = earlier.subList(0, fanIn + 2 - bucket.runs.size());
+			List<Source> sources = new ArrayList<Source>();
+			List<RankFile.Reader> readers = new ArrayList<RankFile.Reader>();
+			List<RankFile.Reader> groupReaders = new ArrayList<RankFile.Reader>();
+			File run = newFile();
+			try (RankFile.Writer out = new RankFile.Writer(run))
+			{
+				for (File used : bucket.runs)
+				{
+					RankFile.Reader reader = new RankFile.Reader(used);
+					readers.add(reader);
+					sources.add(reader::next);
+				}
+				if (bucket.size > 0)
+				{
+					sources.add(sorted(bucket));
+				}
+				for (File file : group)
+				{
+					RankFile.Reader reader = new RankFile.Reader(file);
+					readers.add(reader);
+					groupReaders.add(reader);
+				}
+				Source left = subtract(sources, groupReaders);
+				for (long state = left.next(); state >= 0; state = left.next())
+				{
+					out.write(state);
+				}
+			}
+			finally
+			{
+				for (RankFile.Reader reader : readers)
+				{
+					reader.close();
+				}
+			}
+			for (File used : bucket.runs)
+			{
+				delete(used);
+			}
+			bucket.runs.clear();
+			bucket.runs.add(run);
+			release(bucket);
+			group.clear();
+		}
+	}
+
+	/*
+	 * Merge sorted sources into their states in order, each once, leaving
+	 * out the states of the earlier closed files.
+	 *
+	 * @param List<Source> sources the sorted runs and buffer of a bucket
+	 * @param List<RankFile.Reader> earlier the closed files to subtract
+	 *
+	 * @return Source the states left
+	 */
+	private static Source subtract(List<Source> sources, List<RankFile.Reader> earlier) throws IOException
+	{
+		long[] heads = new long[sources.size()];
+		for (int k = 0; k < heads.length; k++)
+		{
+			heads[k] = sources.get(k).next();
+		}
+		long[] earlierHeads = new long[earlier.size()];
+		for (int k = 0; k < earlierHeads.length; k++)
+		{
+			earlierHeads[k] = earlier.get(k).next();
+		}
+		return new Source()
+		{
+			private long lastRank = -1;
+
+			@Override
+			public long next() throws IOException
+			{
+				while (true)
+				{
+					// The fan in is small, so the smallest head is found by a scan rather than a heap
+					int smallest = -1;
+					for (int k = 0; k < heads.length; k++)
+					{
+						if (heads[k] >= 0 && (smallest < 0 || heads[k] < heads[smallest]))
+						{
+							smallest = k;
+						}
+					}
+					if (smallest < 0)
+					{
+						return -1;
+					}
+					long state = heads[smallest];
+					heads[smallest] = sources.get(smallest).next();
+					long rank = state >>> MOVE_BITS;
+					if (rank == lastRank)
+					{
+						continue;
+					}
+					lastRank = rank;
+
+					boolean seen = false;
+					for (int k = 0; k < earlierHeads.length; k++)
+					{
+						while (earlierHeads[k] >= 0 && (earlierHeads[k] >>> MOVE_BITS) < rank)
+						{
+							earlierHeads[k] = earlier.get(k).next();
+						}
+						seen |= earlierHeads[k] >= 0 && (earlierHeads[k] >>> MOVE_BITS) == rank;
+					}
+					if (!seen)
+					{
+						return state;
+					}
+				}
+			}
+		};
+	}
+
+	/*
+	 * Store a successor of the state being expanded in the bucket for its
+	 * moves and heuristic.
+	 *
+	 * @param Board neighbour a board one move from the expanded state
+	 */
+	private void storeNeighbour(Board neighbour)
+	{
+		int h = heuristic.update(neighbour, expanding.h, neighbour.lastMove());
+
+		// The moved tile and the blank swap cells
+		int blank = positions[0];
+		int tile = neighbour.movedTile();
+		positions[0] = neighbour.blank();
+		positions[tile] = blank;
+		long rank = DistanceTable.rank(positions, cells);
+		positions[0] = blank;
+		positions[tile] = neighbour.blank();
+		try
+		{
+			store(expanding.g + 1, h, rank << MOVE_BITS | neighbour.lastMove());
+		}
+		catch (IOException e)
+		{
+			throw new IllegalStateException("Could not spill a bucket to " + directory, e);
+		}
+	}
+
+	/*
+	 * Add a state to the buffer of a bucket, spilling the coldest buffers
+	 * to disk when the buffers are full.
+	 */
+	private void store(int g, int h, long state) throws IOException
+	{
+		Bucket bucket = bucket(g, h, true);
+		if (!bucket.isOpen())
+		{
+			openBuckets++;
+		}
+		if (bucket.buffer == null || bucket.size == bucket.buffer.length)
+		{
+			int length = (bucket.buffer == null) ? INITIAL_BUFFER : bucket.buffer.length * 2;
+			while (buffered + length - ((bucket.buffer == null) ? 0 : bucket.buffer.length) > bufferLimit)
+			{
+				Bucket coldest = coldest();
+				if (coldest == null)
+				{
+					break;
+				}
+				spill(coldest);
+				if (coldest == bucket)
+				{
+					length = INITIAL_BUFFER;
+					break;
+				}
+			}
+			long[] buffer = new long[length];
+			if (bucket.buffer != null)
+			{
+				System.arraycopy(bucket.buffer, 0, buffer, 0, bucket.size);
+				buffered -= bucket.buffer.length;
+			}
+			bucket.buffer = buffer;
+			buffered += length;
+		}
+		bucket.buffer[bucket.size++] = state;
+		bucket.count++;
+		stored++;
+	}
+
+	/*
+	 * The buffered bucket that will be expanded last, the largest f and
+	 * then the most states, but not the bucket being expanded.
+	 *
+	 * @return Bucket the bucket, or null if no other bucket has a buffer
+	 */
+	private Bucket coldest()
+	{
+		Bucket coldest = null;
+		for (Bucket[] row : buckets)
+		{
+			for (Bucket bucket : row)
+			{
+				if (bucket != null && bucket.buffer != null && bucket != expanding
+						&& (coldest == null || bucket.g + bucket.h > coldest.g + coldest.h
+								|| (bucket.g + bucket.h == coldest.g + coldest.h && bucket.size > coldest.size)))
+				{
+					coldest = bucket;
+				}
+			}
+		}
+		return coldest;
+	}
+
+	/*
+	 * Sort the buffer of a bucket and write it as a run without duplicate
+	 * states, then free the buffer.
+	 */
+	private void spill(Bucket bucket) throws IOException
+	{
+		if (bucket.size > 0)
+		{
+			Source source = sorted(bucket);
+			File run = newFile();
+			try (RankFile.Writer out = new RankFile.Writer(run))
+			{
+				for (long state = source.next(); state >= 0; state = source.next())
+				{
+					out.write(state);
+				}
+			}
+			bucket.runs.add(run);
+			spilled += bucket.size;
+		}
+		release(bucket);
+	}
+
+	/*
+	 * Sort the buffer of a bucket and read it back without duplicate states.
+	 */
+	private static Source sorted(Bucket bucket)
+	{
+		long[] buffer = bucket.buffer;
+		int size = bucket.size;
+		Arrays.sort(buffer, 0, size);
+		return new Source()
+		{
+			private int next = 0;
+
+			@Override
+			public long next()
+			{
+				while (next < size)
+				{
+					long state = buffer[next++];
+					if (next == 1 || (state >>> MOVE_BITS) != (buffer[next - 2] >>> MOVE_BITS))
+					{
+						return state;
+					}
+				}
+				return -1;
+			}
+		};
+	}
+
+	private void release(Bucket bucket)
+	{
+		if (bucket.buffer != null)
+		{
+			buffered -= bucket.buffer.length;
+			bucket.buffer = null;
+		}
+		bucket.size = 0;
+	}
+
+	/*
+	 * Merge the runs of a bucket in groups until one pass can take them all.
+	 */
+	private void reduceRuns(Bucket bucket) throws IOException
+	{
+		while (bucket.runs.size() > fanIn)
+		{
+			List<File> merged = new ArrayList<File>();
+			for (int from = 0; from < bucket.runs.size(); from += fanIn)
+			{
+				List<File> group = bucket.runs.subList(from, Math.min(bucket.runs.size(), from + fanIn));
+				RankFile.Reader[] readers = new RankFile.Reader[group.size()];
+				long[] heads = new long[group.size()];
+				File run = newFile();
+				try (RankFile.Writer out = new RankFile.Writer(run))
+				{
+					for (int k = 0; k < readers.length; k++)
+					{
+						readers[k] = new RankFile.Reader(group.get(k));
+						heads[k] = readers[k].next();
+					}
+					while (true)
+					{
+						int smallest = -1;
+						for (int k = 0; k < heads.length; k++)
+						{
+							if (heads[k] >= 0 && (smallest < 0 || heads[k] < heads[smallest]))
+							{
+								smallest = k;
+							}
+						}
+						if (smallest < 0)
+						{
+							break;
+						}
+						out.write(heads[smallest]);
+						heads[smallest] = readers[smallest].next();
+					}
+				}
+				finally
+				{
+					for (RankFile.Reader reader : readers)
+					{
+						if (reader != null)
+						{
+							reader.close();
+						}
+					}
+				}
+				for (File used : group)
+				{
+					delete(used);
+				}
+				merged.add(run);
+			}
+			bucket.runs.clear();
+			bucket.runs.addAll(merged);
+		}
+	}
+
+	/*
+	 * Follow the stored moves back from the goal to the initial board.
+	 *
+	 * @param int g the moves to the goal
+	 * @param long goal the stored goal state
+	 *
+	 * @return byte[] the moves from the initial board to the goal
+	 */
+	private byte[] path(int g, long goal) throws IOException
+	{
+		byte[] moves = new byte[g];
+		Board board = initial.goal().board();
+		int move = (int) (goal & MOVE_MASK);
+		for (int depth = g; depth > 0; depth--)
+		{
+			moves[depth - 1] = (byte) move;
+			board = board.move(Board.opposite(move));
+			positionsOf(board);
+			move = closedMove(depth - 1, DistanceTable.rank(positions, cells));
+		}
+		return moves;
+	}
+
+	/*
+	 * The move stored with a state expanded after the given moves, found
+	 * by a scan of the closed files of that layer. A state is expanded at
+	 * most once with the same moves, so there is only one.
+	 */
+	private int closedMove(int g, long rank) throws IOException
+	{
+		for (Bucket bucket : buckets[g])
+		{
+			if (bucket == null)
+			{
+				continue;
+			}
+			for (File file : bucket.closed)
+			{
+				try (RankFile.Reader in = new RankFile.Reader(file))
+				{
+					for (long state = in.next(); state >= 0 && (state >>> MOVE_BITS) <= rank; state = in.next())
+					{
+						if ((state >>> MOVE_BITS) == rank)
+						{
+							return (int) (state & MOVE_MASK);
+						}
+					}
+				}
+			}
+		}
+		throw new IllegalStateException("State " + rank + " is missing from the closed files of layer " + g);
+	}
+
+	/*
+	 * The bucket for a number of moves and heuristic value.
+	 *
+	 * @param boolean create true to create the bucket if there is none
+	 *
+	 * @return Bucket the bucket, or null if there is none and create is false
+	 */
+	private Bucket bucket(int g, int h, boolean create)
+	{
+		if (g < 0 || h < 0 || (!create && (g >= buckets.length || h >= buckets[g].length)))
+		{
+			return null;
+		}
+		if (g >= buckets.length)
+		{
+			int length = buckets.length;
+			buckets = Arrays.copyOf(buckets, Math.max(2 * length, g + 1));
+			for (int k = length; k < buckets.length; k++)
+			{
+				buckets[k] = new Bucket[0];
+			}
+		}
+		if (h >= buckets[g].length)
+		{
+			buckets[g] = Arrays.copyOf(buckets[g], Math.max(2 * buckets[g].length, h + 1));
+		}
+		if (buckets[g][h] == null && create)
+		{
+			buckets[g][h] = new Bucket(g, h);
+		}
+		return buckets[g][h];
+	}
+
+	/*
+	 * Fill positions with the cell of each tile of a board.
+	 */
+	private void positionsOf(TileGrid board)
+	{
+		for (int cell = 0; cell < cells; cell++)
+		{
+			positions[board.tileAt(cell)] = cell;
+		}
+	}
+
+	/*
+	 * The Board of the state in positions.
+	 */
+	private Board boardOf(int lastMove)
+	{
+		Arrays.fill(words, 0L);
+		for (int tile = 1; tile < cells; tile++)
+		{
+			int cell = positions[tile];
+			if (words.length == 1 && cells <= 16)
+			{
+				words[0] |= (long) tile << (4 * cell);
+			}
+			else
+			{
+				// The layout of Board.keyWord(), the first tile of each word in its highest byte
+				int end = Math.min(cells, (cell / 8) * 8 + 8);
+				words[cell / 8] |= (long) tile << (8 * (end - 1 - cell));
+			}
+		}
+		return initial.fromKeyWords(words, 0, lastMove);
+	}
+
+	private File newFile()
+	{
+		return new File(directory, "bucket-" + (files++) + ".ranks");
+	}
+
+	private static void delete(File file) throws IOException
+	{
+		if (!file.delete() && file.exists())
+		{
+			throw new IOException("Could not delete " + file);
+		}
+	}
+
+	private static void deleteAll(File directory) throws IOException
+	{
+		File[] left = directory.listFiles();
+		if (left != null)
+		{
+			for (File file : left)
+			{
+				delete(file);
+			}
+		}
+		delete(directory);
+	}
+
+	/*
+	 * The number of states expanded.
+	 *
+	 * @return long states expanded
+	 */
+	public long expanded()
+	{
+		return expanded;
+	}
+
+	/*
+	 * The number of states written to runs on disk because the buffers were
+	 * full.
+	 *
+	 * @return long states spilled
+	 */
+	public long spilled()
+	{
+		return spilled;
+	}
+
+	/*
+	 * The number of states left in the open buckets when the goal was
+	 * found, counting duplicates not yet removed.
+	 *
+	 * @return long states left
+	 */
+	public long openSize()
+	{
+		return stored;
+	}
+}
@@ -0,0 +1,359 @@
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Goal.java
+ *
+ * The Goal class is the layout that a board is solved into, for a grid of
+ * any number of rows and columns. The standard goal has tiles 1 to
+ * rows * columns - 1 in row major order with the blank in the bottom right
+ * corner, and a caller can supply any other arrangement, e.g. with the blank
+ * in the top left.
+ *
+ * A goal keeps lookup tables so that heuristics find the goal row and column
+ * of a tile, and the row and column of a cell, without division or modulo.
+ * It also holds its goal Board, whose cached hash lets Board.isGoal() reject
+ * almost every board with one comparison. Goals are immutable and shared by
+ * every board solved into them.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class Goal
+{
+
+	// Standard goals by size, rows in the high half of the key
+	private static final ConcurrentHashMap<Long, Goal> STANDARD = new ConcurrentHashMap<Long, Goal>();
+
+	private final int rows; // rows of the grid
+	private final int columns; // columns of the grid
+	private final int[] tileAt; // goal tile of each cell
+	private final int[] cellOf; // goal cell of each tile, the blank is tile 0
+	private final int[] goalRow; // goal row of each tile
+	private final int[] goalColumn; // goal column of each tile
+	private final int[] rowOf; // row of each cell
+	private final int[] columnOf; // column of each cell
+	private final boolean standard; // tiles in order with the blank last
+	private final Board board; // the goal board
+	private final int[] moveSource; // cell of the tile each move slides into each blank cell, -1 if none
+	private final byte[][] validMoves; // moves possible with the blank in each cell, in Board.neighbours() order
+	private final byte[] manhattanDelta; // change in the Manhattan distance of each tile moved into each cell
+
+	/*
+	 * Create a goal from its layout.
+	 *
+	 * @param int[][] tiles the goal tiles, rows of equal length holding 0 to
+	 * 			rows * columns - 1 once each
+	 */
+	public Goal(int[][] tiles)
+	{
+		rows = tiles.length;
+		columns = (rows == 0) ? 0 : tiles[0].length;
+		int cells = rows * columns;
+		if (rows < 2 || columns < 2 || cells > 256)
+		{
+			throw new IllegalArgumentException("Boards must have 2 to 256 cells in at least 2 rows and columns, not "
+					+ rows + "x" + columns);
+		}
+
+		tileAt = new int[cells];
+		cellOf = new int[cells];
+		goalRow = new int[cells];
+		goalColumn = new int[cells];
+		rowOf = new int[cells];
+		columnOf = new int[cells];
+		boolean[] seen = new boolean[cells];
+		boolean inOrder = true;
+		for (int i = 0; i < rows; i++)
+		{
+			if (tiles[i].length != columns)
+			{
+				throw new IllegalArgumentException("Row " + i + " has " + tiles[i].length + " tiles, not " + columns);
+			}
+			for (int j = 0; j < columns; j++)
+			{
+				int cell = i * columns + j;
+				int tile = tiles[i][j];
+				if (tile < 0 || tile >= cells || seen[tile])
+				{
+					throw new IllegalArgumentException("Goal must hold each tile 0 to " + (cells - 1) + " once");
+				}
+				seen[tile] = true;
+				tileAt[cell] = tile;
+				cellOf[tile] = cell;
+				goalRow[tile] = i;
+				goalColumn[tile] = j;
+				rowOf[cell] = i;
+				columnOf[cell] = j;
+				inOrder &= (tile == (cell + 1) % cells);
+			}
+		}
+		standard = inOrder;
+
+		/*
+		 * The move tables, so a move looks up where its tile comes from
+		 * and how far it gets from its goal instead of working them out
+		 */
+		moveSource = new int[4 * cells];
+		validMoves = new byte[cells][];
+		manhattanDelta = new byte[4 * cells * cells];
+		int[] order = { Board.DOWN, Board.UP, Board.RIGHT, Board.LEFT };
+		byte[] moves = new byte[4];
+		for (int blank = 0; blank < cells; blank++)
+		{
+			int count = 0;
+			for (int direction : order)
+			{
+				int source = source(blank, direction);
+				moveSource[4 * blank + direction] = source;
+				if (source < 0)
+				{
+					continue;
+				}
+				moves[count++] = (byte) direction;
+				for (int tile = 1; tile < cells; tile++)
+				{
+					manhattanDelta[4 * (tile * cells + blank) + direction] = (byte) (distance(tile, blank) - distance(tile, source));
+				}
+			}
+			validMoves[blank] = Arrays.copyOf(moves, count);
+		}
+		board = new Board(tiles, this);
+	}
+
+	/*
+	 * The cell of the tile a move slides into the blank.
+	 *
+	 * @param int blank cell of the blank
+	 * @param int direction Board.UP etc
+	 *
+	 * @return int the cell of the tile, -1 if the move is not possible
+	 */
+	private int source(int blank, int direction)
+	{
+		switch (direction)
+		{
+			case Board.UP:
+				return (rowOf[blank] < rows - 1) ? blank + columns : -1;
+			case Board.DOWN:
+				return (rowOf[blank] > 0) ? blank - columns : -1;
+			case Board.LEFT:
+				return (columnOf[blank] < columns - 1) ? blank + 1 : -1;
+			default:
+				return (columnOf[blank] > 0) ? blank - 1 : -1;
+		}
+	}
+
+	/*
+	 * The standard goal for a grid, tiles in row major order with the blank
+	 * in the bottom right corner.
+	 *
+	 * @param int rows rows of the grid
+	 * @param int columns columns of the grid
+	 *
+	 * @return Goal the shared standard goal
+	 */
+	public static Goal standard(int rows, int columns)
+	{
+		return STANDARD.computeIfAbsent(((long) rows << 32) | columns, key ->
+		{
+			int[][] tiles = new int[rows][columns];
+			for (int cell = 0; cell < rows * columns - 1; cell++)
+			{
+				tiles[cell / columns][cell % columns] = cell + 1;
+			}
+			return new Goal(tiles);
+		});
+	}
+
+	/*
+	 * @return int rows of the grid
+	 */
+	public int rows()
+	{
+		return rows;
+	}
+
+	/*
+	 * @return int columns of the grid
+	 */
+	public int columns()
+	{
+		return columns;
+	}
+
+	/*
+	 * @return int cells in the grid, rows * columns
+	 */
+	public int cells()
+	{
+		return tileAt.length;
+	}
+
+	/*
+	 * Whether this is the standard goal, tiles in order with the blank last.
+	 *
+	 * @return boolean true for the standard layout
+	 */
+	public boolean isStandard()
+	{
+		return standard;
+	}
+
+	/*
+	 * The goal board.
+	 *
+	 * @return Board the board of this goal
+	 */
+	public Board board()
+	{
+		return board;
+	}
+
+	/*
+	 * The tile that belongs in a cell.
+	 *
+	 * @param int cell position in row major order
+	 *
+	 * @return int the goal tile, 0 for the blank
+	 */
+	public int tileAt(int cell)
+	{
+		return tileAt[cell];
+	}
+
+	/*
+	 * The cell a tile belongs in.
+	 *
+	 * @param int tile the tile, 0 for the blank
+	 *
+	 * @return int the goal cell in row major order
+	 */
+	public int cellOf(int tile)
+	{
+		return cellOf[tile];
+	}
+
+	/*
+	 * @param int tile the tile, 0 for the blank
+	 *
+	 * @return int the row the tile belongs in
+	 */
+	public int goalRow(int tile)
+	{
+		return goalRow[tile];
+	}
+
+	/*
+	 * @param int tile the tile, 0 for the blank
+	 *
+	 * @return int the column the tile belongs in
+	 */
+	public int goalColumn(int tile)
+	{
+		return goalColumn[tile];
+	}
+
+	/*
+	 * @param int cell position in row major order
+	 *
+	 * @return int the row of the cell
+	 */
+	public int rowOf(int cell)
+	{
+		return rowOf[cell];
+	}
+
+	/*
+	 * @param int cell position in row major order
+	 *
+	 * @return int the column of the cell
+	 */
+	public int columnOf(int cell)
+	{
+		return columnOf[cell];
+	}
+
+	/*
+	 * The Manhattan distance of a tile in a cell from its goal cell.
+	 *
+	 * @param int tile the tile
+	 * @param int cell position of the tile in row major order
+	 *
+	 * @return int moves the tile is from its goal
+	 */
+	public int distance(int tile, int cell)
+	{
+		return Math.abs(rowOf[cell] - goalRow[tile]) + Math.abs(columnOf[cell] - goalColumn[tile]);
+	}
+
+	/*
+	 * The cell of the tile a move slides into the blank, from the move
+	 * tables.
+	 *
+	 * @param int blank cell of the blank
+	 * @param int direction Board.UP etc
+	 *
+	 * @return int the cell of the tile, -1 if the move is not possible
+	 */
+	public int moveSource(int blank, int direction)
+	{
+		return moveSource[4 * blank + direction];
+	}
+
+	/*
+	 * The moves possible with the blank in a cell, DOWN, UP, RIGHT then
+	 * LEFT as in Board.neighbours(). The array is shared, not a copy.
+	 *
+	 * @param int blank cell of the blank
+	 *
+	 * @return byte[] the possible moves, Board.UP etc
+	 */
+	byte[] validMoves(int blank)
+	{
+		return validMoves[blank];
+	}
+
+	/*
+	 * The change in the Manhattan distance of a tile slid into the blank.
+	 *
+	 * @param int tile the tile that moves
+	 * @param int blank cell of the blank, where the tile ends up
+	 * @param int direction Board.UP etc
+	 *
+	 * @return int -1 if the tile moves towards its goal, 1 if away
+	 */
+	public int manhattanDelta(int tile, int blank, int direction)
+	{
+		return manhattanDelta[4 * (tile * tileAt.length + blank) + direction];
+	}
+
+	/*
+	 * Goals are equal if they have the same shape and layout.
+	 * (non-Javadoc)
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(Object other)
+	{
+		if (this == other)
+		{
+			return true;
+		}
+		if (!(other instanceof Goal))
+		{
+			return false;
+		}
+		Goal that = (Goal) other;
+		return this.columns == that.columns && Arrays.equals(this.tileAt, that.tileAt);
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return 31 * columns + Arrays.hashCode(tileAt);
+	}
+}
@@ -0,0 +1,50 @@
+/*
+ * HammingHeuristic.java
+ *
+ * The HammingHeuristic class counts the tiles that are not in their goal
+ * position. A move only changes whether the moved tile is in place, so the
+ * update adds or removes at most 1.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class HammingHeuristic implements Heuristic
+{
+
+	@Override
+	public int estimate(TileGrid board)
+	{
+		Goal goal = board.goal();
+		int count = 0;
+		for (int index = 0; index < goal.cells(); index++)
+		{
+			int tile = board.tileAt(index);
+			if (tile != 0 && tile != goal.tileAt(index))
+			{
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Override
+	public int update(TileGrid board, int parentEstimate, int direction)
+	{
+		int to = board.movedTileIndex(direction);
+		int from = board.blank();
+		int goalCell = board.goal().cellOf(board.tileAt(to));
+
+		int before = (from == goalCell) ? 0 : 1;
+		int after = (to == goalCell) ? 0 : 1;
+		return parentEstimate - before + after;
+	}
+
+	@Override
+	public boolean isConsistent()
+	{
+		return true;
+	}
+}
@@ -0,0 +1,49 @@
+/*
+ * HeapOpenList.java
+ *
+ * The HeapOpenList class is the original open list of the Solver, an algs4
+ * MinPQ binary heap ordered by Node.compareTo(). It is kept so that the
+ * bucket open list can be compared against it.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class HeapOpenList implements OpenList
+{
+
+	// Nodes ordered by priority, then heuristic
+	private MinPQ<Solver.Node> heap = new MinPQ<Solver.Node>();
+
+	@Override
+	public void insert(Solver.Node node)
+	{
+		heap.insert(node);
+	}
+
+	@Override
+	public Solver.Node delMin()
+	{
+		return heap.delMin();
+	}
+
+	@Override
+	public boolean isEmpty()
+	{
+		return heap.isEmpty();
+	}
+
+	@Override
+	public int size()
+	{
+		return heap.size();
+	}
+
+	@Override
+	public void clear()
+	{
+		heap = new MinPQ<Solver.Node>();
+	}
+}
@@ -0,0 +1,53 @@
+/*
+ * Heuristic.java
+ *
+ * The Heuristic interface estimates the number of moves left to reach the
+ * goal from a board. The estimate must never be more than the real number of
+ * moves (admissible) for the Solver to find the shortest solution. As well
+ * as a full evaluation, each heuristic updates a parent's estimate after a
+ * single move, which is how the searches evaluate every generated board.
+ *
+ * A heuristic is also consistent when the estimates of two boards one move
+ * apart never differ by more than 1. The A* searches reopen a board that is
+ * reached by a shorter path, so they only need admissible estimates, but a
+ * search that expands each board once, such as ExternalSearch, relies on
+ * isConsistent() to know whether it may.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public interface Heuristic
+{
+
+	/*
+	 * Evaluate the heuristic for a board from scratch.
+	 *
+	 * @param TileGrid board the board to evaluate
+	 *
+	 * @return int estimated moves to the goal
+	 */
+	int estimate(TileGrid board);
+
+	/*
+	 * Evaluate the heuristic for a board that was created by applying a
+	 * single move to a parent board.
+	 *
+	 * @param TileGrid board the board after the move
+	 * @param int parentEstimate the heuristic value of the parent board
+	 * @param int direction the move that was applied, Board.UP etc
+	 *
+	 * @return int estimated moves to the goal
+	 */
+	int update(TileGrid board, int parentEstimate, int direction);
+
+	/*
+	 * Whether the estimates of any two boards one move apart differ by at
+	 * most 1.
+	 *
+	 * @return boolean true if the heuristic is consistent
+	 */
+	boolean isConsistent();
+}
@@ -0,0 +1,154 @@
+import java.util.Arrays;
+
+/*
+ * IdaSearch.java
+ *
+ * The IdaSearch class solves a board with iterative deepening A* (IDA*).
+ * Each iteration is a depth first search that cuts off any path whose
+ * priority (moves + heuristic) is above the current bound, and the next bound
+ * is the smallest priority that was cut off. Only the current path is kept,
+ * as a list of moves applied to a single MutableBoard and undone while
+ * backtracking, so memory is linear in the solution depth. The move back to
+ * the previous board is never tried.
+ *
+ * The board must be solvable, otherwise the search does not terminate. A
+ * SearchMonitor can stop it early and is told the current bound.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class IdaSearch
+{
+
+	// Returned by search() when the goal has been reached
+	private static final int FOUND = -1;
+
+	private final MutableBoard board; // the board on the current path
+	private final Heuristic heuristic; // estimates the moves left to the goal
+	private final SearchMonitor monitor; // checked for cancellation, or null
+	private byte[] path = new byte[64]; // moves applied from the initial board
+	private int pathLength; // number of moves on the path, set when the goal is found
+	private long expanded; // number of boards expanded over all iterations
+
+	/*
+	 * Create a search from the initial board.
+	 *
+	 * @param Board initial the starting state of the board
+	 * @param Heuristic heuristic estimates the moves left to the goal
+	 */
+	public IdaSearch(Board initial, Heuristic heuristic)
+	{
+		this(initial, heuristic, null);
+	}
+
+	/*
+	 * Create a search from the initial board that can be cancelled.
+	 *
+	 * @param Board initial the starting state of the board
+	 * @param Heuristic heuristic estimates the moves left to the goal
+	 * @param SearchMonitor monitor checked every SearchMonitor.CHECK_INTERVAL expansions, or null
+	 */
+	public IdaSearch(Board initial, Heuristic heuristic, SearchMonitor monitor)
+	{
+		this.board = new MutableBoard(initial);
+		this.heuristic = heuristic;
+		this.monitor = monitor;
+	}
+
+	/*
+	 * Run iterations with increasing bounds until the goal is found.
+	 *
+	 * @return byte[] the moves from the initial board to the goal, see Board.UP etc
+	 */
+	public byte[] solve()
+	{
+		int estimate = heuristic.estimate(board);
+		int bound = estimate;
+		while (true)
+		{
+			//StdOut.println("IDA* bound " + bound);
+			int next = search(0, estimate, bound, Board.NONE);
+			if (next == FOUND)
+			{
+				return Arrays.copyOf(path, pathLength);
+			}
+			bound = next;
+		}
+	}
+
+	/*
+	 * The number of boards expanded over all iterations.
+	 *
+	 * @return long expanded boards
+	 */
+	public long expanded()
+	{
+		return expanded;
+	}
+
+	/*
+	 * Depth first search below the current board.
+	 *
+	 * @param int moves number of moves taken to reach the current board
+	 * @param int estimate the heuristic value of the current board
+	 * @param int bound the largest priority allowed in this iteration
+	 * @param int lastMove the move that reached the current board
+	 *
+	 * @return int FOUND, or the smallest priority that was over the bound
+	 */
+	private int search(int moves, int estimate, int bound, int lastMove)
+	{
+		int priority = moves + estimate;
+		if (priority > bound)
+		{
+			return priority;
+		}
+		if (board.isGoal())
+		{
+			pathLength = moves;
+			return FOUND;
+		}
+
+		expanded++;
+		if (monitor != null && (expanded & (SearchMonitor.CHECK_INTERVAL - 1)) == 0)
+		{
+			monitor.checkpoint(bound, expanded);
+		}
+		if (moves == path.length)
+		{
+			path = Arrays.copyOf(path, path.length * 2);
+		}
+
+		int smallest = Integer.MAX_VALUE;
+		for (int direction = Board.UP; direction <= Board.RIGHT; direction++)
+		{
+			// Skip the move that leads straight back to the previous board
+			if (lastMove != Board.NONE && direction == Board.opposite(lastMove))
+			{
+				continue;
+			}
+			if (!board.canMove(direction))
+			{
+				continue;
+			}
+
+			board.apply(direction);
+			path[moves] = (byte) direction;
+			int next = search(moves + 1, heuristic.update(board, estimate, direction), bound, direction);
+			board.undo(direction);
+
+			if (next == FOUND)
+			{
+				return FOUND;
+			}
+			if (next < smallest)
+			{
+				smallest = next;
+			}
+		}
+		return smallest;
+	}
+}
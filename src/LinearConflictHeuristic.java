@@ -0,0 +1,120 @@
+/*
+ * LinearConflictHeuristic.java
+ *
+ * The LinearConflictHeuristic class adds linear conflicts to the Manhattan
+ * distance. Two tiles are in conflict when they are both in their goal row
+ * (or column) but in the wrong order, so one of them has to leave the line and
+ * come back, which costs 2 moves the Manhattan distance does not count. For
+ * each line the fewest tiles that must leave is the number of tiles in their
+ * goal line minus the longest run of them already in increasing goal order.
+ *
+ * Lines are read through the goal's lookup tables, so boards of any shape and
+ * goal layout are handled, as long as no line is longer than 64 tiles.
+ *
+ * A vertical move leaves the order of every column unchanged and only changes
+ * the two rows the tile moved between (a horizontal move the two columns), so
+ * the update only rescans those two lines.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class LinearConflictHeuristic implements Heuristic
+{
+
+	// Computes the Manhattan part of the estimate
+	private final ManhattanHeuristic manhattan = new ManhattanHeuristic();
+
+	@Override
+	public int estimate(TileGrid board)
+	{
+		int rows = board.rows();
+		int columns = board.columns();
+		if (rows > 64 || columns > 64)
+		{
+			throw new IllegalArgumentException("Linear conflicts need lines of at most 64 tiles, not " + rows + "x" + columns);
+		}
+		int conflicts = 0;
+		for (int row = 0; row < rows; row++)
+		{
+			conflicts += lineConflicts(board, row, true, -1, -1);
+		}
+		for (int column = 0; column < columns; column++)
+		{
+			conflicts += lineConflicts(board, column, false, -1, -1);
+		}
+		return manhattan.estimate(board) + 2 * conflicts;
+	}
+
+	@Override
+	public int update(TileGrid board, int parentEstimate, int direction)
+	{
+		Goal goal = board.goal();
+		int to = board.movedTileIndex(direction);
+		int from = board.blank();
+		boolean rows = (direction == Board.UP || direction == Board.DOWN);
+		int lineTo = rows ? goal.rowOf(to) : goal.columnOf(to);
+		int lineFrom = rows ? goal.rowOf(from) : goal.columnOf(from);
+
+		// The parent board is this board with the moved tile back where the blank is
+		int before = lineConflicts(board, lineTo, rows, to, from)
+				+ lineConflicts(board, lineFrom, rows, to, from);
+		int after = lineConflicts(board, lineTo, rows, -1, -1)
+				+ lineConflicts(board, lineFrom, rows, -1, -1);
+		return manhattan.update(board, parentEstimate, direction) + 2 * (after - before);
+	}
+
+	/*
+	 * The fewest tiles that have to leave a line to remove its conflicts.
+	 * The goal positions of the tiles that belong in the line are read in
+	 * order, and the longest increasing run is found with a bitmask of the
+	 * smallest last value for each run length (patience sorting).
+	 *
+	 * @param TileGrid board the board to scan
+	 * @param int line the row or column
+	 * @param boolean row true for a row, false for a column
+	 * @param int swapA position to read as swapB, -1 for none
+	 * @param int swapB position to read as swapA, -1 for none
+	 *
+	 * @return int the number of tiles that must leave the line
+	 */
+	private static int lineConflicts(TileGrid board, int line, boolean row, int swapA, int swapB)
+	{
+		Goal goal = board.goal();
+		int columns = goal.columns();
+		int length = row ? columns : goal.rows();
+		int inLine = 0;
+		long tails = 0L;
+		for (int k = 0; k < length; k++)
+		{
+			int index = row ? line * columns + k : k * columns + line;
+			int position = (index == swapA) ? swapB : (index == swapB) ? swapA : index;
+			int tile = board.tileAt(position);
+			if (tile == 0)
+			{
+				continue;
+			}
+			int goalLine = row ? goal.goalRow(tile) : goal.goalColumn(tile);
+			if (goalLine != line)
+			{
+				continue;
+			}
+			int target = row ? goal.goalColumn(tile) : goal.goalRow(tile);
+			inLine++;
+
+			// Replace the smallest tail above target, or start a longer run
+			long above = tails & -(2L << target);
+			tails &= ~Long.lowestOneBit(above);
+			tails |= 1L << target;
+		}
+		return inLine - Long.bitCount(tails);
+	}
+
+	@Override
+	public boolean isConsistent()
+	{
+		return true;
+	}
+}
@@ -0,0 +1,56 @@
+/*
+ * ManhattanHeuristic.java
+ *
+ * The ManhattanHeuristic class sums the distance of each tile from its goal
+ * position. A move changes only the moved tile's distance, along the axis of
+ * the move, so the update is the parent's estimate plus or minus 1.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class ManhattanHeuristic implements Heuristic
+{
+
+	@Override
+	public int estimate(TileGrid board)
+	{
+		Goal goal = board.goal();
+		int sum = 0;
+		for (int index = 0; index < goal.cells(); index++)
+		{
+			int tile = board.tileAt(index);
+			if (tile != 0)
+			{
+				sum += goal.distance(tile, index);
+			}
+		}
+		return sum;
+	}
+
+	@Override
+	public int update(TileGrid board, int parentEstimate, int direction)
+	{
+		Goal goal = board.goal();
+		int to = board.movedTileIndex(direction);
+		int from = board.blank();
+		int tile = board.tileAt(to);
+
+		// Only the distance along the axis of the move changes
+		if (direction == Board.UP || direction == Board.DOWN)
+		{
+			int correctRow = goal.goalRow(tile);
+			return parentEstimate + Math.abs(goal.rowOf(to) - correctRow) - Math.abs(goal.rowOf(from) - correctRow);
+		}
+		int correctColumn = goal.goalColumn(tile);
+		return parentEstimate + Math.abs(goal.columnOf(to) - correctColumn) - Math.abs(goal.columnOf(from) - correctColumn);
+	}
+
+	@Override
+	public boolean isConsistent()
+	{
+		return true;
+	}
+}
@@ -0,0 +1,183 @@
+/*
+ * MutableBoard.java
+ *
+ * The MutableBoard class is a single board whose tiles are changed in place
+ * by applying and undoing operators. It is used by depth first searches such
+ * as IDA*, which only ever need the board on the current path, so no new
+ * board is created for each move. The Manhattan distance is updated by the
+ * change in the moved tile's distance on each move.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class MutableBoard implements TileGrid
+{
+
+	private final int rows; // rows of tiles
+	private final int columns; // columns of tiles
+	private final Goal goal; // the layout the board is solved into
+	private final int[] tiles; // tiles in row major order
+	private int blank; // index of the empty tile
+	private int manhattan; // Manhattan distance of the current tiles
+
+	/*
+	 * Create a mutable copy of a board.
+	 *
+	 * @param Board board the board to copy
+	 */
+	public MutableBoard(Board board)
+	{
+		rows = board.rows();
+		columns = board.columns();
+		goal = board.goal();
+		tiles = new int[rows * columns];
+		for (int index = 0; index < tiles.length; index++)
+		{
+			tiles[index] = board.tileAt(index);
+			if (tiles[index] == 0)
+			{
+				blank = index;
+			}
+		}
+		manhattan = board.manhattan();
+	}
+
+	/*
+	 * The number of rows in this board.
+	 *
+	 * @return int rows
+	 */
+	@Override
+	public int rows()
+	{
+		return rows;
+	}
+
+	/*
+	 * The number of columns in this board.
+	 *
+	 * @return int columns
+	 */
+	@Override
+	public int columns()
+	{
+		return columns;
+	}
+
+	/*
+	 * The layout this board is solved into.
+	 *
+	 * @return Goal the goal
+	 */
+	@Override
+	public Goal goal()
+	{
+		return goal;
+	}
+
+	/*
+	 * The value of the tile stored at the index i * columns + j.
+	 *
+	 * @param int index position of the tile in row major order
+	 *
+	 * @return int the tile value at that position
+	 */
+	@Override
+	public int tileAt(int index)
+	{
+		return tiles[index];
+	}
+
+	/*
+	 * The index of the empty tile.
+	 *
+	 * @return int blank position in row major order
+	 */
+	@Override
+	public int blank()
+	{
+		return blank;
+	}
+
+	/*
+	 * The Manhattan distance of the current tiles.
+	 *
+	 * @return int sum of the Manhattan distances for this board
+	 */
+	public int manhattan()
+	{
+		return manhattan;
+	}
+
+	/*
+	 * Check to see if the tiles are in the goal state.
+	 *
+	 * @return boolean true if this is the goal board
+	 */
+	public boolean isGoal()
+	{
+		return manhattan == 0;
+	}
+
+	/*
+	 * Check if a tile can slide into the empty space in the given direction,
+	 * from the move tables of the goal.
+	 *
+	 * @param int direction Board.UP, Board.DOWN, Board.LEFT or Board.RIGHT
+	 *
+	 * @return boolean true if the move is possible
+	 */
+	public boolean canMove(int direction)
+	{
+		return goal.moveSource(blank, direction) >= 0;
+	}
+
+	/*
+	 * Slide a tile into the empty space. The move must be possible. The cell
+	 * of the tile and the change in its distance from its goal are looked up
+	 * in the move tables of the goal.
+	 *
+	 * @param int direction Board.UP, Board.DOWN, Board.LEFT or Board.RIGHT
+	 *
+	 * @return int the tile that was moved
+	 */
+	public int apply(int direction)
+	{
+		int index = goal.moveSource(blank, direction);
+		int tile = tiles[index];
+		manhattan += goal.manhattanDelta(tile, blank, direction);
+
+		tiles[blank] = tile;
+		tiles[index] = 0;
+		blank = index;
+		return tile;
+	}
+
+	/*
+	 * Undo a move previously made with apply().
+	 *
+	 * @param int direction the direction that was applied
+	 */
+	public void undo(int direction)
+	{
+		apply(Board.opposite(direction));
+	}
+
+	/*
+	 * Create an immutable board from the current tiles.
+	 *
+	 * @return Board copy of this board
+	 */
+	public Board toBoard()
+	{
+		int[][] copy = new int[rows][columns];
+		for (int index = 0; index < tiles.length; index++)
+		{
+			copy[goal.rowOf(index)][goal.columnOf(index)] = tiles[index];
+		}
+		return new Board(copy, goal);
+	}
+}
@@ -0,0 +1,24 @@
+/*
+ * NeighbourVisitor.java
+ *
+ * The NeighbourVisitor interface receives the boards one move away from a
+ * board, see Board.visitNeighbours(). A search keeps one visitor and passes
+ * it to every board it expands, so generating successors allocates nothing
+ * but the new boards.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public interface NeighbourVisitor
+{
+
+	/*
+	 * A board one move away from the board being expanded.
+	 *
+	 * @param Board neighbour the board after the move, see Board.lastMove()
+	 */
+	void visit(Board neighbour);
+}
@@ -0,0 +1,229 @@
+import java.util.Arrays;
+
+/*
+ * NodeStore.java
+ *
+ * The NodeStore class keeps the nodes of a CompactSearch as fixed width
+ * records in pages of longs, instead of as a Node and a Board object each.
+ * A record is the key words of its board, see Board.keyWord(), followed by
+ * one word holding
+ *
+ * 		bits  0-31	index of the parent record, -1 for the root
+ * 		bits 32-46	moves from the initial board (g)
+ * 		bits 47-61	heuristic estimate (h)
+ * 		bits 62-63	the move that created the board
+ *
+ * so a node of the 8 or 15 puzzle takes 16 bytes where the objects took
+ * about 90. Parents are linked by record index, so the pages hold no
+ * references and the garbage collector never has to trace them. Records are
+ * only added, a search finds its solution by following the parent indices
+ * from the goal record back to the root.
+ *
+ * The pages are kept by clear() so a SearchWorkspace can reuse them for the
+ * next search. A store must only be used by one search at a time.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class NodeStore
+{
+
+	// Returned by parent() for the root record
+	public static final int NO_PARENT = -1;
+
+	// Largest moves or heuristic value a record can hold
+	public static final int MAX_VALUE = (1 << 15) - 1;
+
+	// Records in each page, a power of 2
+	private static final int PAGE_SHIFT = 14;
+	private static final int PAGE_RECORDS = 1 << PAGE_SHIFT;
+
+	private long[][] pages = new long[0][]; // the records, PAGE_RECORDS to a page
+	private int stride = 2; // longs in each record, the key words and the node word
+	private int size; // number of records
+
+	/*
+	 * Remove every record and set the size of the boards that will be
+	 * stored. The pages are kept when the record size does not change.
+	 *
+	 * @param int keyWords key words of each board, see Board.keyWords()
+	 */
+	public void clear(int keyWords)
+	{
+		if (keyWords + 1 != stride)
+		{
+			pages = new long[0][];
+			stride = keyWords + 1;
+		}
+		size = 0;
+	}
+
+	/*
+	 * The number of records.
+	 *
+	 * @return int records added since the last clear()
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/*
+	 * Bytes held by the pages.
+	 *
+	 * @return long the size of the pages in bytes
+	 */
+	public long memoryBytes()
+	{
+		return 8L * stride * PAGE_RECORDS * pages.length;
+	}
+
+	/*
+	 * Bytes taken by each record.
+	 *
+	 * @return int the size of a record in bytes
+	 */
+	public int recordBytes()
+	{
+		return 8 * stride;
+	}
+
+	/*
+	 * Add a record for a board.
+	 *
+	 * @param Board board the board of the node, with the move that created it
+	 * @param int parent index of the parent record, or NO_PARENT
+	 * @param int moves moves from the initial board
+	 * @param int heuristic estimated moves left to the goal
+	 *
+	 * @return int the index of the new record
+	 */
+	public int add(Board board, int parent, int moves, int heuristic)
+	{
+		if (moves > MAX_VALUE || heuristic > MAX_VALUE)
+		{
+			throw new IllegalStateException("Node of " + moves + " moves and heuristic " + heuristic + " is too large to store");
+		}
+		if (size == Integer.MAX_VALUE)
+		{
+			throw new IllegalStateException("Node store is full");
+		}
+		int page = size >>> PAGE_SHIFT;
+		if (page == pages.length)
+		{
+			pages = Arrays.copyOf(pages, page + 1);
+		}
+		if (pages[page] == null)
+		{
+			pages[page] = new long[stride * PAGE_RECORDS];
+		}
+		long[] records = pages[page];
+		int offset = (size & (PAGE_RECORDS - 1)) * stride;
+		for (int word = 0; word < stride - 1; word++)
+		{
+			records[offset + word] = board.keyWord(word);
+		}
+		int move = (parent == NO_PARENT) ? 0 : board.lastMove();
+		records[offset + stride - 1] = (parent & 0xFFFFFFFFL)
+				| (long) moves << 32
+				| (long) heuristic << 47
+				| (long) move << 62;
+		return size++;
+	}
+
+	/*
+	 * The index of the parent of a record.
+	 *
+	 * @param int node index of the record
+	 *
+	 * @return int index of the parent record, or NO_PARENT for the root
+	 */
+	public int parent(int node)
+	{
+		return (int) word(node);
+	}
+
+	/*
+	 * The moves from the initial board to the board of a record.
+	 *
+	 * @param int node index of the record
+	 *
+	 * @return int the moves (g)
+	 */
+	public int moves(int node)
+	{
+		return (int) (word(node) >>> 32) & MAX_VALUE;
+	}
+
+	/*
+	 * The heuristic estimate of a record.
+	 *
+	 * @param int node index of the record
+	 *
+	 * @return int the estimate (h)
+	 */
+	public int heuristic(int node)
+	{
+		return (int) (word(node) >>> 47) & MAX_VALUE;
+	}
+
+	/*
+	 * The move that created the board of a record.
+	 *
+	 * @param int node index of the record
+	 *
+	 * @return int Board.UP etc, or Board.NONE for the root
+	 */
+	public int lastMove(int node)
+	{
+		long word = word(node);
+		return ((int) word == NO_PARENT) ? Board.NONE : (int) (word >>> 62);
+	}
+
+	/*
+	 * Rebuild the board of a record.
+	 *
+	 * @param int node index of the record
+	 * @param Board like any board of the same size and goal
+	 *
+	 * @return Board the board of the record
+	 */
+	public Board board(int node, Board like)
+	{
+		long[] records = pages[node >>> PAGE_SHIFT];
+		int offset = (node & (PAGE_RECORDS - 1)) * stride;
+		return like.fromKeyWords(records, offset, lastMove(node));
+	}
+
+	/*
+	 * The moves from the root to a record, read by following the parents.
+	 *
+	 * @param int node index of the record
+	 *
+	 * @return byte[] the moves, see Board.UP etc
+	 */
+	public byte[] movesTo(int node)
+	{
+		byte[] moves = new byte[moves(node)];
+		for (int n = node; parent(n) != NO_PARENT; n = parent(n))
+		{
+			moves[moves(n) - 1] = (byte) lastMove(n);
+		}
+		return moves;
+	}
+
+	/*
+	 * The node word of a record.
+	 */
+	private long word(int node)
+	{
+		if (node < 0 || node >= size)
+		{
+			throw new IndexOutOfBoundsException("No node " + node + " in a store of " + size);
+		}
+		return pages[node >>> PAGE_SHIFT][(node & (PAGE_RECORDS - 1)) * stride + stride - 1];
+	}
+}
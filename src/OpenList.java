@@ -0,0 +1,81 @@
+/*
+ * OpenList.java
+ *
+ * The OpenList interface is the frontier of the A* search, the search nodes
+ * that have been generated but not yet expanded. delMin() returns the node
+ * with the smallest priority (moves + heuristic). Implementations are chosen
+ * through SolverOptions so that they can be compared against each other.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public interface OpenList
+{
+
+	/*
+	 * The open list implementations that the Solver can use.
+	 */
+	enum Type
+	{
+		// Array of buckets indexed by priority, O(1) insert and delete
+		BUCKET
+		{
+			OpenList create()
+			{
+				return new BucketOpenList();
+			}
+		},
+
+		// Binary heap from algs4, O(log n) insert and delete
+		HEAP
+		{
+			OpenList create()
+			{
+				return new HeapOpenList();
+			}
+		};
+
+		/*
+		 * Create an empty open list of this type.
+		 *
+		 * @return OpenList the new open list
+		 */
+		abstract OpenList create();
+	}
+
+	/*
+	 * Add a node to the open list.
+	 *
+	 * @param Solver.Node node the node to add
+	 */
+	void insert(Solver.Node node);
+
+	/*
+	 * Remove and return a node with the smallest priority.
+	 *
+	 * @return Solver.Node the removed node
+	 */
+	Solver.Node delMin();
+
+	/*
+	 * Check if there are no nodes left in the open list.
+	 *
+	 * @return boolean true if the open list is empty
+	 */
+	boolean isEmpty();
+
+	/*
+	 * The number of nodes in the open list.
+	 *
+	 * @return int size
+	 */
+	int size();
+
+	/*
+	 * Remove every node from the open list.
+	 */
+	void clear();
+}
@@ -0,0 +1,456 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * ParallelSearch.java
+ *
+ * The ParallelSearch class solves one board with A* on several threads,
+ * using hash distributed A* (HDA*, Kishimoto, Fukunaga and Botea). Every
+ * board has an owner worker chosen from its hash, and only the owner keeps
+ * the board in its open list and closed set, so duplicate detection needs
+ * no locks. A worker that generates a board owned by another worker buffers
+ * the node and sends it in a batch through the owner's inbox, a lock free
+ * queue.
+ *
+ * Workers do not stop at the first goal they expand, because another worker
+ * may still hold a node that leads to a shorter solution. The best solution
+ * found so far is shared, and nodes whose priority is not below it are
+ * dropped. The search ends when every worker is idle and no batch is in
+ * flight, which is detected with one counter holding the number of busy
+ * workers plus the number of nodes sent but not yet received. Only a busy
+ * worker sends nodes, and a worker counts itself busy before it takes a
+ * batch from its inbox, so the counter can only reach 0 once no work is left
+ * anywhere. An idle worker parks instead of spinning, so it leaves its core
+ * to the busy workers. It is unparked by a worker posting it a batch, or by
+ * the worker that brings the counter to 0 or stops the search. The
+ * heuristic must be admissible for the result to be the shortest solution,
+ * and safe to use from several threads, which all of the heuristics in this
+ * package are.
+ *
+ * Workers check the SearchMonitor, if there is one, once per round of
+ * expansions, and the search stops with a CancellationException once it is
+ * cancelled or the expansions of all the workers pass the limits of its
+ * options. Progress is not reported, as no one worker knows the bound.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class ParallelSearch
+{
+
+	// Nodes sent to another worker in one batch
+	private static final int BATCH_SIZE = 64;
+
+	// Expansions between checks of the inbox and flushes of partly filled batches
+	private static final int EXPANSIONS_PER_ROUND = 256;
+
+	// Longest an idle worker parks before it checks the monitor again
+	private static final long IDLE_PARK_NANOS = 1000000L;
+
+	private final Board initial; // the starting state of the board
+	private final Heuristic heuristic; // estimates the moves left to the goal
+	private final OpenList.Type openList; // the type of open list of each worker
+	private final Worker[] workers;
+
+	private final AtomicLong outstanding = new AtomicLong(); // busy workers plus nodes in flight
+	private final AtomicInteger best = new AtomicInteger(Integer.MAX_VALUE); // moves of the best solution found
+	private final AtomicLong expandedTotal = new AtomicLong(); // expansions of every worker, added each round
+	private Solver.Node goalStateNode; // goal node of the best solution, guarded by this
+	private final SearchMonitor monitor; // checked for cancellation, or null
+	private volatile boolean stopped; // set when a worker fails or the search is cancelled
+
+	/*
+	 * Create a search from the initial board.
+	 *
+	 * @param Board initial the starting state of the board, solvable and not the goal
+	 * @param Heuristic heuristic estimates the moves left to the goal
+	 * @param OpenList.Type openList the type of open list of each worker
+	 * @param int threads number of worker threads
+	 */
+	public ParallelSearch(Board initial, Heuristic heuristic, OpenList.Type openList, int threads)
+	{
+		this(initial, heuristic, openList, threads, null);
+	}
+
+	/*
+	 * Create a search from the initial board that can be cancelled.
+	 *
+	 * @param Board initial the starting state of the board, solvable and not the goal
+	 * @param Heuristic heuristic estimates the moves left to the goal
+	 * @param OpenList.Type openList the type of open list of each worker
+	 * @param int threads number of worker threads
+	 * @param SearchMonitor monitor checked by every worker each round, or null
+	 */
+	public ParallelSearch(Board initial, Heuristic heuristic, OpenList.Type openList, int threads, SearchMonitor monitor)
+	{
+		this.initial = initial;
+		this.monitor = monitor;
+		this.heuristic = heuristic;
+		this.openList = openList;
+		this.workers = new Worker[threads];
+		for (int w = 0; w < threads; w++)
+		{
+			workers[w] = new Worker(w);
+		}
+	}
+
+	/*
+	 * Run the workers until the best solution found is known to be the shortest.
+	 *
+	 * @return Solver.Node the goal state search node
+	 */
+	public Solver.Node solve() throws InterruptedException
+	{
+		Solver.Node root = new Solver.Node(initial, null, heuristic);
+		outstanding.incrementAndGet();
+		workers[owner(initial)].inbox.add(new Solver.Node[] { root });
+
+		List<Thread> threads = new ArrayList<Thread>();
+		for (Worker worker : workers)
+		{
+			Thread thread = new Thread(worker, "hda-worker-" + worker.id);
+			thread.start();
+			threads.add(thread);
+		}
+		try
+		{
+			for (Thread thread : threads)
+			{
+				thread.join();
+			}
+		}
+		catch (InterruptedException e)
+		{
+			// Do not leave the workers running, wait for them to see the flag
+			stop();
+			for (Thread thread : threads)
+			{
+				thread.join();
+			}
+			throw e;
+		}
+		if (monitor != null && monitor.isCancelled())
+		{
+			throw new CancellationException("Search cancelled");
+		}
+		for (Worker worker : workers)
+		{
+			if (worker.failure instanceof CancellationException)
+			{
+				// Stopped at the limits of the monitor
+				throw (CancellationException) worker.failure;
+			}
+			if (worker.failure != null)
+			{
+				throw new IllegalStateException("Worker " + worker.id + " failed", worker.failure);
+			}
+		}
+		synchronized (this)
+		{
+			return goalStateNode;
+		}
+	}
+
+	/*
+	 * The number of boards expanded by all workers.
+	 *
+	 * @return long expanded boards
+	 */
+	public long expanded()
+	{
+		long sum = 0;
+		for (Worker worker : workers)
+		{
+			sum += worker.expanded;
+		}
+		return sum;
+	}
+
+	/*
+	 * The number of nodes left in the open lists of all workers.
+	 *
+	 * @return int open nodes
+	 */
+	public int openSize()
+	{
+		int sum = 0;
+		for (Worker worker : workers)
+		{
+			sum += worker.open.size();
+		}
+		return sum;
+	}
+
+	/*
+	 * The worker that owns a board. The high bits of the hash are used
+	 * because each StateTable picks its slots from the low bits.
+	 *
+	 * @param Board board the board
+	 *
+	 * @return int index of the owning worker
+	 */
+	private int owner(Board board)
+	{
+		return (int) (((board.hashCode() & 0xFFFFFFFFL) * workers.length) >>> 32);
+	}
+
+	/*
+	 * Stop every worker, waking the idle ones so they see the flag.
+	 */
+	private void stop()
+	{
+		stopped = true;
+		wakeAll();
+	}
+
+	/*
+	 * Unpark every idle worker, when the search ends or is stopped.
+	 */
+	private void wakeAll()
+	{
+		for (Worker worker : workers)
+		{
+			LockSupport.unpark(worker.thread);
+		}
+	}
+
+	/*
+	 * Keep a goal node if it is shorter than the best solution so far.
+	 */
+	private synchronized void offerGoal(Solver.Node node)
+	{
+		if (node.moves < best.get())
+		{
+			goalStateNode = node;
+			best.set(node.moves);
+		}
+	}
+
+	/*
+	 * One search thread with its own part of the open list and closed set.
+	 */
+	private class Worker implements Runnable
+	{
+		private final int id;
+		private final ConcurrentLinkedQueue<Solver.Node[]> inbox = new ConcurrentLinkedQueue<Solver.Node[]>();
+		private final OpenList open = openList.create();
+		private final StateTable closed = new StateTable();
+		private final Solver.Node[][] outgoing = new Solver.Node[workers.length][]; // batches being filled
+		private final int[] outgoingSizes = new int[workers.length];
+		private long expanded; // read after the thread has been joined
+		private Throwable failure;
+		private volatile Thread thread; // the thread running this worker, unparked when work is posted
+
+		private Worker(int id)
+		{
+			this.id = id;
+		}
+
+		@Override
+		public void run()
+		{
+			thread = Thread.currentThread();
+			try
+			{
+				search();
+			}
+			catch (RuntimeException | Error e)
+			{
+				failure = e;
+
+				// Let the other workers finish instead of waiting forever for this one
+				stop();
+			}
+		}
+
+		private void search()
+		{
+			boolean busy = false;
+			while (!stopped)
+			{
+				if (monitor != null && monitor.isCancelled())
+				{
+					stop();
+					return;
+				}
+				if (!busy)
+				{
+					if (inbox.isEmpty())
+					{
+						if (outstanding.get() == 0)
+						{
+							return;
+						}
+
+						// A batch posted since the check leaves a permit, so park returns at once
+						LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+						continue;
+					}
+
+					// Count this worker busy before taking a batch so the counter never reads 0 early
+					outstanding.incrementAndGet();
+					busy = true;
+				}
+
+				receive();
+				long roundStart = expanded;
+				for (int k = 0; k < EXPANSIONS_PER_ROUND; k++)
+				{
+					if (!expandNext())
+					{
+						break;
+					}
+				}
+				flush();
+				if (monitor != null)
+				{
+					monitor.checkLimits(expandedTotal.addAndGet(expanded - roundStart));
+				}
+
+				if (open.isEmpty() && inbox.isEmpty())
+				{
+					busy = false;
+					if (outstanding.decrementAndGet() == 0)
+					{
+						wakeAll();
+					}
+				}
+			}
+		}
+
+		/*
+		 * Move every batch in the inbox into the open list.
+		 */
+		private void receive()
+		{
+			Solver.Node[] batch;
+			while ((batch = inbox.poll()) != null)
+			{
+				for (Solver.Node node : batch)
+				{
+					if (node.priority < best.get() && closed.improve(node.board, node.moves))
+					{
+						open.insert(node);
+					}
+				}
+				outstanding.addAndGet(-batch.length);
+			}
+		}
+
+		/*
+		 * Expand the node with the smallest priority in this worker's open list.
+		 *
+		 * @return boolean false if there was nothing left worth expanding
+		 */
+		private boolean expandNext()
+		{
+			Solver.Node node = null;
+			while (node == null || node.moves > closed.get(node.board))
+			{
+				if (open.isEmpty())
+				{
+					return false;
+				}
+				node = open.delMin();
+			}
+
+			// No node in this open list can lead to a shorter solution than the best
+			if (node.priority >= best.get())
+			{
+				open.clear();
+				return false;
+			}
+			if (node.board.isGoal())
+			{
+				offerGoal(node);
+				return true;
+			}
+
+			expanded++;
+			int lastMove = (node.previousNode == null) ? Board.NONE : node.board.lastMove();
+			for (int direction = Board.UP; direction <= Board.RIGHT; direction++)
+			{
+				if (lastMove != Board.NONE && direction == Board.opposite(lastMove))
+				{
+					continue;
+				}
+				Board neighbour = node.board.move(direction);
+				if (neighbour == null)
+				{
+					continue;
+				}
+				Solver.Node child = new Solver.Node(neighbour, node, heuristic);
+				if (child.priority >= best.get())
+				{
+					continue;
+				}
+				int to = owner(neighbour);
+				if (to == id)
+				{
+					if (closed.improve(neighbour, child.moves))
+					{
+						open.insert(child);
+					}
+				}
+				else
+				{
+					send(to, child);
+				}
+			}
+			return true;
+		}
+
+		/*
+		 * Add a node to the batch for another worker, sending the batch when full.
+		 */
+		private void send(int to, Solver.Node node)
+		{
+			if (outgoing[to] == null)
+			{
+				outgoing[to] = new Solver.Node[BATCH_SIZE];
+			}
+			outgoing[to][outgoingSizes[to]++] = node;
+			if (outgoingSizes[to] == BATCH_SIZE)
+			{
+				post(to, outgoing[to]);
+				outgoing[to] = null;
+				outgoingSizes[to] = 0;
+			}
+		}
+
+		/*
+		 * Send every partly filled batch.
+		 */
+		private void flush()
+		{
+			for (int to = 0; to < outgoing.length; to++)
+			{
+				if (outgoingSizes[to] > 0)
+				{
+					post(to, Arrays.copyOf(outgoing[to], outgoingSizes[to]));
+					Arrays.fill(outgoing[to], 0, outgoingSizes[to], null);
+					outgoingSizes[to] = 0;
+				}
+			}
+		}
+
+		/*
+		 * Count the nodes in flight and hand the batch to its owner.
+		 */
+		private void post(int to, Solver.Node[] batch)
+		{
+			outstanding.addAndGet(batch.length);
+			workers[to].inbox.add(batch);
+			LockSupport.unpark(workers[to].thread);
+		}
+	}
+}
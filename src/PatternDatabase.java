@@ -0,0 +1,625 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/*
+ * PatternDatabase.java
+ *
+ * The PatternDatabase class is an additive disjoint pattern database
+ * heuristic. The tiles are split into disjoint groups (patterns), e.g. 6-6-3
+ * for the 15 puzzle. For every placement of a pattern's tiles the database
+ * stores the fewest moves of those tiles needed to bring them to their goal
+ * positions, where moves of the other tiles are free. Because each move only
+ * moves one tile and is counted by at most one pattern, the values of the
+ * patterns can be added together and still never overestimate.
+ *
+ * The estimate is admissible but not consistent. A placement stores the
+ * fewest moves over every cell the blank could be in, while reaching it
+ * from a neighbouring placement may need the blank in a cell the pattern
+ * tiles wall off. Two boards one move apart can then differ by several
+ * moves: on the 8 puzzle the 4-4 database gives 10 for one board and 3 for
+ * the board after tile 7 moves down into its goal cell. Searches that need
+ * a consistent heuristic check isConsistent().
+ *
+ * The tables are built by a breadth first search backwards from the goal over
+ * (pattern placement, blank position) states and stored as one byte per
+ * placement, indexed by the rank of the placement. Building the 15 puzzle
+ * database takes a while, so it can be saved to a binary file and memory
+ * mapped when it is next needed:
+ *
+ * 		java PatternDatabase 4 pdb4.bin
+ * 		java Solver -pdb pdb4.bin < puzzle
+ *
+ * File layout, big endian: magic, N, number of patterns, then for each pattern
+ * the number of tiles followed by the tiles, then for each pattern the table
+ * length followed by the table bytes.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class PatternDatabase implements Heuristic
+{
+
+	// "PDB1", marks a pattern database file
+	private static final int MAGIC = 0x50444231;
+
+	// Bits used to store a position when packing the positions of a pattern in a long
+	private static final int POSITION_BITS = 6;
+
+	// Largest pattern that fits in a long of packed positions
+	private static final int MAX_PATTERN_TILES = 64 / POSITION_BITS;
+
+	private final int N; // N x N tiles
+	private final int[][] patterns; // the tiles of each pattern
+	private final ByteBuffer[] tables; // moves per pattern placement, indexed by rank
+	private final int[] patternOf; // pattern of each tile, -1 for the blank
+	private final int[] slotOf; // position of each tile within its pattern
+
+	/*
+	 * Create a database from its patterns and tables.
+	 *
+	 * @param int N size of the board
+	 * @param int[][] patterns the tiles of each pattern
+	 * @param ByteBuffer[] tables the moves per placement of each pattern
+	 */
+	private PatternDatabase(int N, int[][] patterns, ByteBuffer[] tables)
+	{
+		this.N = N;
+		this.patterns = patterns;
+		this.tables = tables;
+		this.patternOf = new int[N * N];
+		this.slotOf = new int[N * N];
+		Arrays.fill(patternOf, -1);
+		for (int p = 0; p < patterns.length; p++)
+		{
+			for (int slot = 0; slot < patterns[p].length; slot++)
+			{
+				patternOf[patterns[p][slot]] = p;
+				slotOf[patterns[p][slot]] = slot;
+			}
+		}
+	}
+
+	/*
+	 * The partition of tiles used when none is given, 4-4 for the 8 puzzle,
+	 * 6-6-3 for the 15 puzzle and groups of 4 for larger boards.
+	 *
+	 * @param int N size of the board
+	 *
+	 * @return int[][] the tiles of each pattern
+	 */
+	public static int[][] defaultPatterns(int N)
+	{
+		if (N == 3)
+		{
+			return new int[][] { { 1, 2, 3, 4 }, { 5, 6, 7, 8 } };
+		}
+		if (N == 4)
+		{
+			return new int[][] { { 1, 5, 6, 9, 10, 13 }, { 7, 8, 11, 12, 14, 15 }, { 2, 3, 4 } };
+		}
+
+		// Split the tiles in order into groups of 4
+		int tiles = N * N - 1;
+		int[][] patterns = new int[(tiles + 3) / 4][];
+		for (int p = 0; p < patterns.length; p++)
+		{
+			patterns[p] = new int[Math.min(4, tiles - 4 * p)];
+			for (int slot = 0; slot < patterns[p].length; slot++)
+			{
+				patterns[p][slot] = 4 * p + slot + 1;
+			}
+		}
+		return patterns;
+	}
+
+	/*
+	 * Build a database with the default patterns for the board size.
+	 *
+	 * @param int N size of the board
+	 *
+	 * @return PatternDatabase the new database
+	 */
+	public static PatternDatabase build(int N)
+	{
+		return build(N, defaultPatterns(N));
+	}
+
+	/*
+	 * Build a database from a partition of the tiles.
+	 *
+	 * @param int N size of the board
+	 * @param int[][] patterns disjoint groups of tiles, every tile in at most one group
+	 *
+	 * @return PatternDatabase the new database
+	 */
+	public static PatternDatabase build(int N, int[][] patterns)
+	{
+		boolean[] used = new boolean[N * N];
+		ByteBuffer[] tables = new ByteBuffer[patterns.length];
+		for (int p = 0; p < patterns.length; p++)
+		{
+			if (patterns[p].length > MAX_PATTERN_TILES || N * N > (1 << POSITION_BITS))
+			{
+				throw new IllegalArgumentException("Pattern " + p + " is too large");
+			}
+			for (int tile : patterns[p])
+			{
+				if (tile <= 0 || tile >= N * N || used[tile])
+				{
+					throw new IllegalArgumentException("Patterns must be disjoint groups of tiles 1 to " + (N * N - 1));
+				}
+				used[tile] = true;
+			}
+			tables[p] = ByteBuffer.wrap(buildTable(N, patterns[p]));
+		}
+		return new PatternDatabase(N, patterns, tables);
+	}
+
+	/*
+	 * Load a database saved by save(). The file is memory mapped rather than
+	 * read, so only the pages that are used are loaded and they are shared
+	 * between processes using the same file.
+	 *
+	 * @param String file path of the database file
+	 *
+	 * @return PatternDatabase the loaded database
+	 */
+	public static PatternDatabase load(String file) throws IOException
+	{
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+				FileChannel channel = raf.getChannel())
+		{
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.getInt() != MAGIC)
+			{
+				throw new IOException(file + " is not a pattern database");
+			}
+			int N = buffer.getInt();
+			int[][] patterns = new int[buffer.getInt()][];
+			for (int p = 0; p < patterns.length; p++)
+			{
+				patterns[p] = new int[buffer.getInt()];
+				for (int slot = 0; slot < patterns[p].length; slot++)
+				{
+					patterns[p][slot] = buffer.getInt();
+				}
+			}
+
+			ByteBuffer[] tables = new ByteBuffer[patterns.length];
+			for (int p = 0; p < patterns.length; p++)
+			{
+				int length = buffer.getInt();
+				if (length != placements(N * N, patterns[p].length))
+				{
+					throw new IOException(file + " has a table of the wrong size");
+				}
+
+				// Each table is a view of its part of the mapped file
+				ByteBuffer table = buffer.slice();
+				table.limit(length);
+				tables[p] = table;
+				buffer.position(buffer.position() + length);
+			}
+			return new PatternDatabase(N, patterns, tables);
+		}
+	}
+
+	/*
+	 * Save this database to a binary file.
+	 *
+	 * @param String file path of the database file
+	 */
+	public void save(String file) throws IOException
+	{
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file))))
+		{
+			out.writeInt(MAGIC);
+			out.writeInt(N);
+			out.writeInt(patterns.length);
+			for (int[] pattern : patterns)
+			{
+				out.writeInt(pattern.length);
+				for (int tile : pattern)
+				{
+					out.writeInt(tile);
+				}
+			}
+			for (ByteBuffer table : tables)
+			{
+				out.writeInt(table.limit());
+				for (int index = 0; index < table.limit(); index++)
+				{
+					out.writeByte(table.get(index));
+				}
+			}
+		}
+	}
+
+	/*
+	 * The number of rows (and columns) of the boards this database is for.
+	 *
+	 * @return int N
+	 */
+	public int dimension()
+	{
+		return N;
+	}
+
+	@Override
+	public int estimate(TileGrid board)
+	{
+		checkDimension(board);
+		int sum = 0;
+		for (int p = 0; p < patterns.length; p++)
+		{
+			sum += tables[p].get(rank(positions(board, p), patterns[p].length, N * N)) & 0xFF;
+		}
+		return sum;
+	}
+
+	@Override
+	public int update(TileGrid board, int parentEstimate, int direction)
+	{
+		int to = board.movedTileIndex(direction);
+		int tile = board.tileAt(to);
+		int p = patternOf[tile];
+
+		// Tiles outside every pattern are free to move
+		if (p < 0)
+		{
+			return parentEstimate;
+		}
+
+		/*
+		 * Only the pattern of the moved tile changes, swap its old
+		 * lookup for the new one. Before the move the tile was where
+		 * the blank is now.
+		 */
+		int k = patterns[p].length;
+		long positions = positions(board, p);
+		int shift = POSITION_BITS * slotOf[tile];
+		long before = (positions & ~(((1L << POSITION_BITS) - 1) << shift)) | ((long) board.blank() << shift);
+		return parentEstimate
+				- (tables[p].get(rank(before, k, N * N)) & 0xFF)
+				+ (tables[p].get(rank(positions, k, N * N)) & 0xFF);
+	}
+
+	@Override
+	public boolean isConsistent()
+	{
+		// The fewest moves over every blank position, see the class comment
+		return false;
+	}
+
+	/*
+	 * Make sure a board is the size and goal this database was built for.
+	 * The patterns are solved into the standard goal, so a board with any
+	 * other goal cannot use them.
+	 *
+	 * @param TileGrid board the board to check
+	 */
+	private void checkDimension(TileGrid board)
+	{
+		if (board.rows() != N || board.columns() != N || !board.goal().isStandard())
+		{
+			throw new IllegalArgumentException("Pattern database is for " + N + "x" + N + " boards with the standard goal");
+		}
+	}
+
+	/*
+	 * Find the positions of the tiles of a pattern on a board, packed into a
+	 * long in the order the tiles are listed in the pattern.
+	 *
+	 * @param TileGrid board the board to scan
+	 * @param int p the pattern
+	 *
+	 * @return long the packed positions
+	 */
+	private long positions(TileGrid board, int p)
+	{
+		long positions = 0L;
+		for (int index = 0; index < N * N; index++)
+		{
+			int tile = board.tileAt(index);
+			if (tile != 0 && patternOf[tile] == p)
+			{
+				positions |= (long) index << (POSITION_BITS * slotOf[tile]);
+			}
+		}
+		return positions;
+	}
+
+	/*
+	 * The number of ways to place k tiles on a board of the given number of
+	 * cells, which is the size of the table for a pattern of k tiles.
+	 *
+	 * @param int cells number of cells on the board
+	 * @param int k number of tiles in the pattern
+	 *
+	 * @return int cells! / (cells - k)!
+	 */
+	private static int placements(int cells, int k)
+	{
+		long count = 1;
+		for (int i = 0; i < k; i++)
+		{
+			count *= cells - i;
+		}
+		if (count > Integer.MAX_VALUE)
+		{
+			throw new IllegalArgumentException("Pattern of " + k + " tiles is too large");
+		}
+		return (int) count;
+	}
+
+	/*
+	 * Rank a placement of k tiles, a number from 0 to placements() - 1.
+	 * Each position is counted among the positions not already used by the
+	 * earlier tiles of the pattern, giving a mixed radix number with bases
+	 * cells, cells - 1, ...
+	 *
+	 * @param long positions packed positions of the pattern tiles
+	 * @param int k number of tiles in the pattern
+	 * @param int cells number of cells on the board
+	 *
+	 * @return int the rank of the placement
+	 */
+	private static int rank(long positions, int k, int cells)
+	{
+		long used = 0L;
+		int rank = 0;
+		for (int slot = 0; slot < k; slot++)
+		{
+			int position = (int) (positions >>> (POSITION_BITS * slot)) & ((1 << POSITION_BITS) - 1);
+			int digit = position - Long.bitCount(used & ((1L << position) - 1));
+			rank = rank * (cells - slot) + digit;
+			used |= 1L << position;
+		}
+		return rank;
+	}
+
+	/*
+	 * Build the table of one pattern by breadth first search from the goal.
+	 * A state is a placement of the pattern tiles plus the position of the
+	 * blank, stored as rank * cells + blank. Moving a pattern tile costs 1 and
+	 * moving any other tile costs 0, so each level first follows every free
+	 * move from its states before the next level starts. The first level that
+	 * reaches a placement is the value stored for it.
+	 *
+	 * @param int N size of the board
+	 * @param int[] tiles the tiles of the pattern
+	 *
+	 * @return byte[] moves per placement, indexed by rank
+	 */
+	private static byte[] buildTable(int N, int[] tiles)
+	{
+		int cells = N * N;
+		int k = tiles.length;
+		byte[] table = new byte[placements(cells, k)];
+		Arrays.fill(table, (byte) -1);
+		long[] visited = new long[(int) (((long) table.length * cells + 63) / 64)];
+
+		int[] positions = new int[k];
+		int[] slotAt = new int[cells];
+
+		// Start from the goal placement with the blank in the bottom right
+		long goal = 0L;
+		for (int slot = 0; slot < k; slot++)
+		{
+			goal |= (long) (tiles[slot] - 1) << (POSITION_BITS * slot);
+		}
+		IntStack seeds = new IntStack();
+		seeds.push(rank(goal, k, cells) * cells + cells - 1);
+
+		IntStack work = new IntStack();
+		for (int cost = 0; !seeds.isEmpty(); cost++)
+		{
+			IntStack next = new IntStack();
+			while (!seeds.isEmpty())
+			{
+				int seed = seeds.pop();
+				if (isVisited(visited, seed))
+				{
+					continue;
+				}
+				visit(visited, seed);
+				work.push(seed);
+
+				// Follow every move that is free at this cost
+				while (!work.isEmpty())
+				{
+					int state = work.pop();
+					int rank = state / cells;
+					int blank = state % cells;
+					if (table[rank] == -1)
+					{
+						table[rank] = (byte) cost;
+					}
+
+					unrank(rank, k, cells, positions);
+					Arrays.fill(slotAt, -1);
+					for (int slot = 0; slot < k; slot++)
+					{
+						slotAt[positions[slot]] = slot;
+					}
+
+					for (int direction = Board.UP; direction <= Board.RIGHT; direction++)
+					{
+						int cell = neighbour(N, blank, direction);
+						if (cell < 0)
+						{
+							continue;
+						}
+						int slot = slotAt[cell];
+						if (slot < 0)
+						{
+							// A tile outside the pattern moves, free
+							int moved = rank * cells + cell;
+							if (!isVisited(visited, moved))
+							{
+								visit(visited, moved);
+								work.push(moved);
+							}
+						}
+						else
+						{
+							// A pattern tile moves into the blank, costs 1
+							positions[slot] = blank;
+							int moved = rank(positions, cells) * cells + cell;
+							positions[slot] = cell;
+							if (!isVisited(visited, moved))
+							{
+								next.push(moved);
+							}
+						}
+					}
+				}
+			}
+			//StdOut.println("Pattern database cost " + cost + " done");
+			seeds = next;
+		}
+		return table;
+	}
+
+	/*
+	 * The cell next to the blank in the given direction of a tile move.
+	 *
+	 * @param int N size of the board
+	 * @param int blank index of the blank
+	 * @param int direction Board.UP etc
+	 *
+	 * @return int the index of the tile that would move, or -1 if there is none
+	 */
+	private static int neighbour(int N, int blank, int direction)
+	{
+		switch (direction)
+		{
+			case Board.UP:
+				return (blank / N < N - 1) ? blank + N : -1;
+			case Board.DOWN:
+				return (blank >= N) ? blank - N : -1;
+			case Board.LEFT:
+				return (blank % N < N - 1) ? blank + 1 : -1;
+			default:
+				return (blank % N > 0) ? blank - 1 : -1;
+		}
+	}
+
+	/*
+	 * Rank a placement stored in an array, see rank(long, int).
+	 *
+	 * @param int[] positions positions of the pattern tiles
+	 * @param int cells number of cells on the board
+	 *
+	 * @return int the rank of the placement
+	 */
+	private static int rank(int[] positions, int cells)
+	{
+		long used = 0L;
+		int rank = 0;
+		for (int slot = 0; slot < positions.length; slot++)
+		{
+			int digit = positions[slot] - Long.bitCount(used & ((1L << positions[slot]) - 1));
+			rank = rank * (cells - slot) + digit;
+			used |= 1L << positions[slot];
+		}
+		return rank;
+	}
+
+	/*
+	 * The placement with the given rank, the reverse of rank().
+	 *
+	 * @param int rank the rank of the placement
+	 * @param int k number of tiles in the pattern
+	 * @param int cells number of cells on the board
+	 * @param int[] positions receives the positions of the pattern tiles
+	 */
+	private static void unrank(int rank, int k, int cells, int[] positions)
+	{
+		// Split the rank into its digits, stored in positions for now
+		for (int slot = k - 1; slot >= 0; slot--)
+		{
+			positions[slot] = rank % (cells - slot);
+			rank /= cells - slot;
+		}
+
+		// Turn each digit back into the digit-th unused position
+		long used = 0L;
+		for (int slot = 0; slot < k; slot++)
+		{
+			int position = -1;
+			for (int skip = positions[slot]; skip >= 0; skip--)
+			{
+				position++;
+				while ((used & (1L << position)) != 0)
+				{
+					position++;
+				}
+			}
+			positions[slot] = position;
+			used |= 1L << position;
+		}
+	}
+
+	private static boolean isVisited(long[] visited, int state)
+	{
+		return (visited[state >>> 6] & (1L << state)) != 0;
+	}
+
+	private static void visit(long[] visited, int state)
+	{
+		visited[state >>> 6] |= 1L << state;
+	}
+
+	/*
+	 * A growable stack of ints used for the search frontier.
+	 */
+	private static class IntStack
+	{
+		private int[] items = new int[1024];
+		private int size;
+
+		private void push(int item)
+		{
+			if (size == items.length)
+			{
+				items = Arrays.copyOf(items, size * 2);
+			}
+			items[size++] = item;
+		}
+
+		private int pop()
+		{
+			return items[--size];
+		}
+
+		private boolean isEmpty()
+		{
+			return size == 0;
+		}
+	}
+
+	/*
+	 * Build the database for an N x N board and save it to a file.
+	 *
+	 * 		java PatternDatabase N file
+	 */
+	public static void main(String[] args) throws IOException
+	{
+		int N = Integer.parseInt(args[0]);
+		long start = System.currentTimeMillis();
+		PatternDatabase database = build(N);
+		database.save(args[1]);
+		System.out.println("Built " + N + "x" + N + " pattern database in "
+				+ (System.currentTimeMillis() - start) + " ms");
+	}
+}
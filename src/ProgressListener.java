@@ -0,0 +1,27 @@
+/*
+ * ProgressListener.java
+ *
+ * The ProgressListener interface is told how far a search has got while it
+ * runs, see SolverOptions.progressListener(). It is called on the thread that
+ * runs the search, at most once per progress interval, and should return
+ * quickly.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public interface ProgressListener
+{
+
+	/*
+	 * The search is still running.
+	 *
+	 * @param int bound the priority (moves + heuristic) the search is working
+	 * 			at, a lower bound on the moves of the shortest solution for A*,
+	 * 			IDA* and the bidirectional search
+	 * @param long expanded boards expanded so far
+	 */
+	void progress(int bound, long expanded);
+}
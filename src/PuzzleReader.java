@@ -0,0 +1,415 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+/*
+ * PuzzleReader.java
+ *
+ * The PuzzleReader class reads puzzles from a file or stream in either the
+ * text format or the binary format written by PuzzleWriter, telling them
+ * apart by the magic number at the start of a binary file.
+ *
+ * The text format is the one read by Solver and BatchSolver: N for an N x N
+ * board, or RxC (e.g. 2x3) for a board of R rows and C columns, followed by
+ * the tiles, repeated for each puzzle. Any white space separates the numbers,
+ * so a puzzle may be on one line or spread over several.
+ * Numbers are parsed a byte at a time by hand instead of through a Scanner,
+ * and the tiles are parsed into a grid that is reused while the size of the
+ * boards does not change, so reading a puzzle allocates nothing but its
+ * Board.
+ *
+ * Files are memory mapped a window at a time and streams, e.g. System.in,
+ * are read through a reused buffer. Malformed input throws an
+ * InputMismatchException giving the byte offset, and input that ends inside
+ * a puzzle throws a NoSuchElementException.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class PuzzleReader implements Closeable
+{
+
+	// Bytes of a file mapped at a time
+	private static final long WINDOW = 1L << 28;
+
+	// Bytes read from a stream at a time
+	private static final int STREAM_BUFFER = 1 << 16;
+
+	// Returned by read() at the end of the input
+	private static final int END = -1;
+
+	private final FileChannel file; // the file being mapped, or null
+	private final ReadableByteChannel stream; // the stream being read, or null
+	private final boolean binary; // the input is in the binary format
+	private ByteBuffer buffer; // the current window or block of the input
+	private long offset; // offset of the start of the buffer in the input
+	private long fileEnd; // offset of the end of the input, for a file
+	private int c; // the byte after the last one parsed, END at the end of the input
+	private int[][] tiles = new int[0][0]; // the grid of the last puzzle, reused
+
+	/*
+	 * Start reading a file or stream and tell which format it holds.
+	 */
+	private PuzzleReader(FileChannel file, ReadableByteChannel stream) throws IOException
+	{
+		this.file = file;
+		this.stream = stream;
+		if (file != null)
+		{
+			fileEnd = file.size();
+			buffer = file.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(WINDOW, fileEnd));
+		}
+		else
+		{
+			buffer = ByteBuffer.allocate(STREAM_BUFFER);
+			buffer.limit(0);
+			// Fill the buffer far enough to see the magic number
+			while (buffer.limit() < PuzzleWriter.MAGIC.length && fillStream())
+			{
+			}
+		}
+		binary = hasMagic();
+		if (binary)
+		{
+			buffer.position(PuzzleWriter.MAGIC.length);
+		}
+		c = read();
+	}
+
+	/*
+	 * Open a puzzle file, memory mapping it.
+	 *
+	 * @param String name the file name
+	 *
+	 * @return PuzzleReader a reader of the puzzles in the file
+	 */
+	public static PuzzleReader open(String name) throws IOException
+	{
+		FileChannel file = FileChannel.open(Paths.get(name), StandardOpenOption.READ);
+		try
+		{
+			return new PuzzleReader(file, null);
+		}
+		catch (IOException | RuntimeException e)
+		{
+			file.close();
+			throw e;
+		}
+	}
+
+	/*
+	 * Read puzzles from a stream, e.g. System.in.
+	 *
+	 * @param InputStream in the puzzles, closed by close()
+	 *
+	 * @return PuzzleReader a reader of the puzzles in the stream
+	 */
+	public static PuzzleReader open(InputStream in) throws IOException
+	{
+		return new PuzzleReader(null, Channels.newChannel(in));
+	}
+
+	/*
+	 * Whether the input is in the binary format.
+	 *
+	 * @return boolean true for binary, false for text
+	 */
+	public boolean isBinary()
+	{
+		return binary;
+	}
+
+	/*
+	 * Whether another puzzle follows. Only white space is allowed after the
+	 * last puzzle of a text file.
+	 *
+	 * @return boolean true if next() will return a board
+	 */
+	public boolean hasNext()
+	{
+		if (!binary)
+		{
+			skipWhiteSpace();
+		}
+		return c != END;
+	}
+
+	/*
+	 * Read the next puzzle into the standard goal.
+	 *
+	 * @return Board the puzzle
+	 */
+	public Board next()
+	{
+		return next(null);
+	}
+
+	/*
+	 * Read the next puzzle.
+	 *
+	 * @param Goal goal the goal to solve it into, or null for the standard goal
+	 *
+	 * @return Board the puzzle
+	 */
+	public Board next(Goal goal)
+	{
+		int[][] grid = binary ? readBinary() : readText();
+		return (goal == null) ? new Board(grid) : new Board(grid, goal);
+	}
+
+	/*
+	 * Read the next puzzle as a goal.
+	 *
+	 * @return Goal the goal
+	 */
+	public Goal nextGoal()
+	{
+		return new Goal(binary ? readBinary() : readText());
+	}
+
+	/*
+	 * Release the file or stream.
+	 * (non-Javadoc)
+	 * @see java.io.Closeable#close()
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		buffer = null;
+		if (file != null)
+		{
+			file.close();
+		}
+		else
+		{
+			stream.close();
+		}
+	}
+
+	/*
+	 * Parse a text puzzle, the header line then the tiles.
+	 */
+	private int[][] readText()
+	{
+		int rows = readInt();
+
+		// Square unless the rows are followed by x and the columns
+		int columns = rows;
+		if (c == 'x' || c == 'X')
+		{
+			c = read();
+			columns = readInt();
+		}
+
+		int[][] grid = grid(rows, columns);
+		for (int i = 0; i < rows; i++)
+		{
+			int[] row = grid[i];
+			for (int j = 0; j < columns; j++)
+			{
+				row[j] = readInt();
+			}
+		}
+		return grid;
+	}
+
+	/*
+	 * Unpack a binary puzzle, see PuzzleWriter for the layout.
+	 */
+	private int[][] readBinary()
+	{
+		int rows = readByte();
+		int columns = readByte();
+		int[][] grid = grid(rows, columns);
+		boolean packed = rows * columns <= PuzzleWriter.MAX_PACKED_CELLS;
+		int pair = 0;
+		int cell = 0;
+		for (int i = 0; i < rows; i++)
+		{
+			int[] row = grid[i];
+			for (int j = 0; j < columns; j++, cell++)
+			{
+				if (!packed)
+				{
+					row[j] = readByte();
+				}
+				else if ((cell & 1) == 0)
+				{
+					pair = readByte();
+					row[j] = pair & 0xF;
+				}
+				else
+				{
+					row[j] = pair >>> 4;
+				}
+			}
+		}
+		return grid;
+	}
+
+	/*
+	 * The reused grid, replaced when the size of the boards changes.
+	 */
+	private int[][] grid(int rows, int columns)
+	{
+		if (rows < 1 || columns < 1 || rows * columns > 256)
+		{
+			throw new InputMismatchException("Bad board size " + rows + "x" + columns + " before offset " + position());
+		}
+		if (tiles.length != rows || tiles[0].length != columns)
+		{
+			tiles = new int[rows][columns];
+		}
+		return tiles;
+	}
+
+	/*
+	 * Parse a non-negative number after any white space.
+	 */
+	private int readInt()
+	{
+		skipWhiteSpace();
+		if (c == END)
+		{
+			throw new NoSuchElementException("Input ended inside a puzzle");
+		}
+		if (c < '0' || c > '9')
+		{
+			throw new InputMismatchException("Expected a number at offset " + (position() - 1));
+		}
+		int value = 0;
+		do
+		{
+			value = 10 * value + (c - '0');
+			if (value > 0xFFFF)
+			{
+				throw new InputMismatchException("Number too large at offset " + (position() - 1));
+			}
+			c = read();
+		}
+		while (c >= '0' && c <= '9');
+		return value;
+	}
+
+	/*
+	 * Take the next byte of a binary puzzle.
+	 */
+	private int readByte()
+	{
+		if (c == END)
+		{
+			throw new NoSuchElementException("Input ended inside a puzzle");
+		}
+		int value = c;
+		c = read();
+		return value;
+	}
+
+	private void skipWhiteSpace()
+	{
+		while (c != END && c <= ' ')
+		{
+			c = read();
+		}
+	}
+
+	/*
+	 * The next byte of the input, moving to the next window or block at the
+	 * end of the buffer.
+	 *
+	 * @return int the byte from 0 to 255, or END
+	 */
+	private int read()
+	{
+		if (!buffer.hasRemaining() && !fill())
+		{
+			return END;
+		}
+		return buffer.get() & 0xFF;
+	}
+
+	/*
+	 * Replace the used up buffer with the next window of the file or block
+	 * of the stream.
+	 *
+	 * @return boolean false at the end of the input
+	 */
+	private boolean fill()
+	{
+		try
+		{
+			if (file == null)
+			{
+				offset += buffer.limit();
+				buffer.clear();
+				buffer.limit(0);
+				return fillStream();
+			}
+			offset += buffer.limit();
+			if (offset >= fileEnd)
+			{
+				return false;
+			}
+			buffer = file.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(WINDOW, fileEnd - offset));
+			return true;
+		}
+		catch (IOException e)
+		{
+			throw new IllegalStateException("Could not read the puzzles", e);
+		}
+	}
+
+	/*
+	 * Append the next block of the stream to the buffer.
+	 *
+	 * @return boolean false at the end of the stream
+	 */
+	private boolean fillStream() throws IOException
+	{
+		int start = buffer.position();
+		buffer.position(buffer.limit());
+		buffer.limit(buffer.capacity());
+		int count = stream.read(buffer);
+		buffer.flip();
+		buffer.position(start);
+		return count > 0;
+	}
+
+	/*
+	 * Whether the input starts with the magic number of the binary format.
+	 */
+	private boolean hasMagic()
+	{
+		if (buffer.remaining() < PuzzleWriter.MAGIC.length)
+		{
+			return false;
+		}
+		for (int k = 0; k < PuzzleWriter.MAGIC.length; k++)
+		{
+			if (buffer.get(k) != PuzzleWriter.MAGIC[k])
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/*
+	 * Offset in the input of the next byte to be read.
+	 */
+	private long position()
+	{
+		return offset + buffer.position();
+	}
+}
@@ -0,0 +1,175 @@
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.IntToLongFunction;
+
+/*
+ * PuzzleWorkloads.java
+ *
+ * The PuzzleWorkloads class makes the boards and operations shared by the
+ * JMH benchmarks, see benchmarks/pom.xml, and the tests: random boards, the
+ * built in instance sets and the Board operations and solves that are timed.
+ *
+ * The built in instance sets are random boards from a fixed seed, made by
+ * random walks back from the goal so every board is solvable.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public final class PuzzleWorkloads
+{
+
+	// Boards in each built in instance set
+	public static final int INSTANCES = 100;
+
+	// Names of the built in instance sets, see instanceSet()
+	public static final String[] INSTANCE_SETS = { "3x3-random", "4x4-walk60", "4x4-walk100" };
+
+	private PuzzleWorkloads()
+	{
+	}
+
+	/*
+	 * A solvable board made by sliding random tiles starting from the goal.
+	 *
+	 * @param int N size of the board
+	 * @param int steps number of random moves tried
+	 * @param Random random the source of moves
+	 *
+	 * @return Board the board
+	 */
+	public static Board randomWalk(int N, int steps, Random random)
+	{
+		Board board = Goal.standard(N, N).board();
+		for (int k = 0; k < steps; k++)
+		{
+			Board next = board.move(random.nextInt(4));
+			if (next != null && (board.lastMove() == Board.NONE || next.lastMove() != Board.opposite(board.lastMove())))
+			{
+				board = next;
+			}
+		}
+		return board;
+	}
+
+	/*
+	 * A built in instance set.
+	 *
+	 * @param String name one of INSTANCE_SETS
+	 *
+	 * @return Board[] the boards of the set
+	 */
+	public static Board[] instanceSet(String name)
+	{
+		switch (name)
+		{
+			case "3x3-random":
+				return randomSet(3, 1000);
+			case "4x4-walk60":
+				return randomSet(4, 60);
+			case "4x4-walk100":
+				return randomSet(4, 100);
+			default:
+				throw new IllegalArgumentException("Unknown instance set " + name);
+		}
+	}
+
+	/*
+	 * A set of random boards from a fixed seed.
+	 *
+	 * @param int N size of the boards
+	 * @param int steps number of random moves tried for each board
+	 *
+	 * @return Board[] the boards
+	 */
+	private static Board[] randomSet(int N, int steps)
+	{
+		Random random = new Random(N * 1000 + steps);
+		Board[] boards = new Board[INSTANCES];
+		for (int k = 0; k < boards.length; k++)
+		{
+			boards[k] = randomWalk(N, steps, random);
+		}
+		return boards;
+	}
+
+	/*
+	 * The Board operations timed by BoardBenchmark. Each cycles through 1024
+	 * random boards by the index it is given, and returns a result that
+	 * depends on its work.
+	 *
+	 * @param int N size of the boards
+	 *
+	 * @return Map<String, IntToLongFunction> each operation by name
+	 */
+	public static Map<String, IntToLongFunction> boardOperations(int N)
+	{
+		Random random = new Random(42);
+		Board[] boards = new Board[1024];
+		int[][][] tiles = new int[boards.length][][];
+		for (int k = 0; k < boards.length; k++)
+		{
+			boards[k] = randomWalk(N, 10 * N * N * N, random);
+			tiles[k] = boards[k].toTiles();
+		}
+		int mask = boards.length - 1;
+		ManhattanHeuristic manhattan = new ManhattanHeuristic();
+
+		Map<String, IntToLongFunction> operations = new LinkedHashMap<String, IntToLongFunction>();
+		operations.put("newBoard", k -> new Board(tiles[k & mask]).hashCode());
+		operations.put("manhattanCached", k -> boards[k & mask].manhattan());
+		operations.put("manhattanEstimate", k -> manhattan.estimate(boards[k & mask]));
+		operations.put("hamming", k -> boards[k & mask].hamming());
+		operations.put("isGoal", k -> boards[k & mask].isGoal() ? 1 : 0);
+		operations.put("isSolvable", k -> boards[k & mask].isSolvable() ? 1 : 0);
+		operations.put("equals", k -> boards[k & mask].equals(boards[(k + 1) & mask]) ? 1 : 0);
+		operations.put("hashCode", k -> boards[k & mask].hashCode());
+		operations.put("move", k ->
+		{
+			Board next = boards[k & mask].move(k & 3);
+			return (next == null) ? 0 : next.blank();
+		});
+		operations.put("neighbours", k ->
+		{
+			long sum = 0;
+			for (Board neighbour : boards[k & mask].neighbours())
+			{
+				sum += neighbour.blank();
+			}
+			return sum;
+		});
+		long[] visited = new long[1];
+		NeighbourVisitor visitor = neighbour -> visited[0] += neighbour.blank();
+		operations.put("visitNeighbours", k ->
+		{
+			visited[0] = 0;
+			boards[k & mask].visitNeighbours(visitor);
+			return visited[0];
+		});
+		operations.put("twin", k -> boards[k & mask].twin().hashCode());
+		return operations;
+	}
+
+	/*
+	 * An operation that solves the boards of a built in instance set in
+	 * turn by the index it is given, reusing one SearchWorkspace, and
+	 * returns the moves of each solution.
+	 *
+	 * @param String set the name of the set, one of INSTANCE_SETS
+	 * @param String solverArgs solver options as on the command line, e.g. "-compact", or ""
+	 *
+	 * @return IntToLongFunction the operation
+	 */
+	public static IntToLongFunction solveOperation(String set, String solverArgs) throws IOException
+	{
+		Board[] boards = instanceSet(set);
+		String trimmed = solverArgs.trim();
+		SolverOptions options = SolverOptions.fromArgs(trimmed.isEmpty() ? new String[0] : trimmed.split("\\s+"));
+		SearchWorkspace workspace = new SearchWorkspace();
+		return k -> new Solver(boards[k % boards.length], options, workspace).moves();
+	}
+}
@@ -0,0 +1,156 @@
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+/*
+ * PuzzleWriter.java
+ *
+ * The PuzzleWriter class writes puzzles in the text format read by Solver
+ * and BatchSolver, or in a compact binary format that PuzzleReader reads
+ * without parsing any text.
+ *
+ * A binary file starts with the 4 byte MAGIC, whose last byte is the version
+ * of the format. Each puzzle follows as a byte holding its rows and a byte
+ * holding its columns, then its tiles in row major order. Boards of up to 16
+ * cells (8 and 15 puzzles) pack two tiles per byte, the first in the low 4
+ * bits, so an 8 puzzle takes 7 bytes and a 15 puzzle 10. Larger boards take
+ * a byte per tile.
+ *
+ * 		java PuzzleWriter [-binary | -text] in out
+ *
+ * converts a puzzle file of either format into the other, binary unless
+ * -text is given.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class PuzzleWriter implements Closeable
+{
+
+	// Start of every binary file, the last byte is the format version
+	static final byte[] MAGIC = { (byte) 0x89, 'P', 'Z', 1 };
+
+	// Largest number of cells stored two tiles to a byte
+	static final int MAX_PACKED_CELLS = 16;
+
+	private final OutputStream out; // receives binary puzzles, or null
+	private final Writer text; // receives text puzzles, or null
+	private final SolutionWriter boards; // formats text puzzles, or null
+	private byte[] record = new byte[2 + MAX_PACKED_CELLS]; // the binary puzzle being written
+
+	/*
+	 * Create a writer.
+	 *
+	 * @param OutputStream out receives the puzzles, buffered by this writer
+	 * @param boolean binary true for the binary format, false for text
+	 */
+	public PuzzleWriter(OutputStream out, boolean binary) throws IOException
+	{
+		if (binary)
+		{
+			this.out = new BufferedOutputStream(out, 1 << 16);
+			this.text = null;
+			this.boards = null;
+			this.out.write(MAGIC);
+		}
+		else
+		{
+			this.out = null;
+			this.text = new BufferedWriter(new OutputStreamWriter(out), 1 << 16);
+			this.boards = new SolutionWriter(text);
+		}
+	}
+
+	/*
+	 * Write a puzzle.
+	 *
+	 * @param Board board the puzzle, its goal is not written
+	 */
+	public void write(Board board) throws IOException
+	{
+		if (boards != null)
+		{
+			boards.writeBoard(board);
+			return;
+		}
+
+		int cells = board.rows() * board.columns();
+		int length = 2 + ((cells <= MAX_PACKED_CELLS) ? (cells + 1) / 2 : cells);
+		if (record.length < length)
+		{
+			record = new byte[length];
+		}
+		record[0] = (byte) board.rows();
+		record[1] = (byte) board.columns();
+		if (cells <= MAX_PACKED_CELLS)
+		{
+			for (int cell = 0; cell < cells; cell += 2)
+			{
+				int high = (cell + 1 < cells) ? board.tileAt(cell + 1) : 0;
+				record[2 + cell / 2] = (byte) (board.tileAt(cell) | (high << 4));
+			}
+		}
+		else
+		{
+			for (int cell = 0; cell < cells; cell++)
+			{
+				record[2 + cell] = (byte) board.tileAt(cell);
+			}
+		}
+		out.write(record, 0, length);
+	}
+
+	/*
+	 * Flush the puzzles written and close the output.
+	 * (non-Javadoc)
+	 * @see java.io.Closeable#close()
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		if (out != null)
+		{
+			out.close();
+		}
+		else
+		{
+			text.close();
+		}
+	}
+
+	public static void main(String[] args) throws IOException
+	{
+		boolean binary = true;
+		int first = 0;
+		if (args.length > 0 && (args[0].equals("-binary") || args[0].equals("-text")))
+		{
+			binary = args[0].equals("-binary");
+			first = 1;
+		}
+		if (args.length - first != 2)
+		{
+			System.err.println("Usage: java PuzzleWriter [-binary | -text] in out");
+			System.exit(2);
+		}
+
+		long count = 0;
+		try (PuzzleReader in = PuzzleReader.open(args[first]);
+				PuzzleWriter out = new PuzzleWriter(new FileOutputStream(args[first + 1]), binary))
+		{
+			while (in.hasNext())
+			{
+				out.write(in.next());
+				count++;
+			}
+		}
+		System.err.println(count + " puzzles written");
+	}
+}
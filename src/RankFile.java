@@ -0,0 +1,187 @@
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/*
+ * RankFile.java
+ *
+ * The RankFile class reads and writes the work files of the external memory
+ * searches, StateSpaceSearch and ExternalSearch. A file holds non-negative
+ * longs in ascending order, e.g. the ranks of states, each stored as a
+ * variable length delta from the one before, 7 bits per byte with the high
+ * bit set on every byte but the last. Sorted ranks are close together, so
+ * most take one or two bytes. Files are read and written in order through a
+ * buffered FileChannel.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+final class RankFile
+{
+
+	// Bytes buffered for each file read or written
+	static final int IO_BUFFER = 1 << 16;
+
+	// Longest encoding of a long
+	private static final int MAX_BYTES = 10;
+
+	private RankFile()
+	{
+	}
+
+	/*
+	 * Writes ascending values as variable length deltas.
+	 */
+	static class Writer implements Closeable
+	{
+		private final FileChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(IO_BUFFER);
+		private long last;
+		private long count;
+
+		/*
+		 * Create or replace a file.
+		 *
+		 * @param File file the file to write
+		 */
+		Writer(File file) throws IOException
+		{
+			channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING);
+		}
+
+		/*
+		 * Append a value, no smaller than the last one written.
+		 *
+		 * @param long value the value
+		 */
+		void write(long value) throws IOException
+		{
+			if (buffer.remaining() < MAX_BYTES)
+			{
+				flush();
+			}
+			long delta = value - last;
+			last = value;
+			while (delta >= 0x80)
+			{
+				buffer.put((byte) ((delta & 0x7F) | 0x80));
+				delta >>>= 7;
+			}
+			buffer.put((byte) delta);
+			count++;
+		}
+
+		/*
+		 * The number of values written.
+		 *
+		 * @return long values written
+		 */
+		long count()
+		{
+			return count;
+		}
+
+		private void flush() throws IOException
+		{
+			buffer.flip();
+			while (buffer.hasRemaining())
+			{
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+
+		@Override
+		public void close() throws IOException
+		{
+			try
+			{
+				flush();
+			}
+			finally
+			{
+				channel.close();
+			}
+		}
+	}
+
+	/*
+	 * Reads the values written by a Writer.
+	 */
+	static class Reader implements Closeable
+	{
+		private final FileChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(IO_BUFFER);
+		private long last;
+
+		/*
+		 * Open a file.
+		 *
+		 * @param File file the file to read
+		 */
+		Reader(File file) throws IOException
+		{
+			channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+			buffer.limit(0);
+		}
+
+		/*
+		 * @return long the next value, or -1 at the end of the file
+		 */
+		long next() throws IOException
+		{
+			long delta = 0;
+			for (int shift = 0; ; shift += 7)
+			{
+				if (!buffer.hasRemaining() && !fill())
+				{
+					if (shift > 0)
+					{
+						throw new EOFException("Rank file ends inside a rank");
+					}
+					return -1;
+				}
+				int b = buffer.get() & 0xFF;
+				delta |= (long) (b & 0x7F) << shift;
+				if (b < 0x80)
+				{
+					break;
+				}
+			}
+			last += delta;
+			return last;
+		}
+
+		/*
+		 * Read the next block of the file.
+		 *
+		 * @return boolean false at the end of the file
+		 */
+		private boolean fill() throws IOException
+		{
+			buffer.clear();
+			int count;
+			do
+			{
+				count = channel.read(buffer);
+			}
+			while (count == 0);
+			buffer.flip();
+			return count > 0;
+		}
+
+		@Override
+		public void close() throws IOException
+		{
+			channel.close();
+		}
+	}
+}
@@ -0,0 +1,130 @@
+import java.util.concurrent.CancellationException;
+
+/*
+ * SearchMonitor.java
+ *
+ * The SearchMonitor class lets another thread stop a search, and passes the
+ * search's progress to the ProgressListener of the options. A search calls
+ * checkpoint() every CHECK_INTERVAL expansions, which throws a
+ * CancellationException once cancel() has been called or the searching
+ * thread has been interrupted, so a cancelled Solver constructor returns
+ * within a few thousand expansions. A search without a monitor pays a null
+ * check per expansion.
+ *
+ * The monitor also stops a search that passes the node or time limit of
+ * its options the same way, as if it had been cancelled. Weighted and
+ * anytime searches are left to stop at their limits themselves, as they
+ * return the best solution found so far.
+ *
+ * A monitor belongs to one solve at a time. cancel() may be called from any
+ * thread, before or during the solve.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class SearchMonitor
+{
+
+	// Expansions between checkpoints, a power of 2
+	static final int CHECK_INTERVAL = 1024;
+
+	private volatile boolean cancelled; // set by cancel()
+	private ProgressListener listener; // told about progress, or null
+	private long intervalNanos; // time between progress reports
+	private long nextReport; // System.nanoTime() of the next progress report
+	private long nodeLimit; // most boards expanded before the search is stopped, 0 for none
+	private long timeLimitNanos; // longest the search runs before it is stopped, 0 for none
+	private long startNanos; // System.nanoTime() the search started
+
+	/*
+	 * Ask the search to stop at its next checkpoint.
+	 */
+	public void cancel()
+	{
+		cancelled = true;
+	}
+
+	/*
+	 * Check whether cancel() has been called.
+	 *
+	 * @return boolean true if the search has been asked to stop
+	 */
+	public boolean isCancelled()
+	{
+		return cancelled;
+	}
+
+	/*
+	 * Take the progress settings and limits of a solve that is starting.
+	 *
+	 * @param SolverOptions options the options of the solve
+	 */
+	void start(SolverOptions options)
+	{
+		listener = options.progressListener();
+		intervalNanos = options.progressIntervalMillis() * 1000000L;
+		startNanos = System.nanoTime();
+		nextReport = startNanos + intervalNanos;
+		boolean stopsItself = options.algorithm() == SolverOptions.Algorithm.WEIGHTED_A_STAR
+				|| options.algorithm() == SolverOptions.Algorithm.ANYTIME;
+		nodeLimit = stopsItself ? 0 : options.nodeLimit();
+		timeLimitNanos = stopsItself ? 0 : options.timeLimitMillis() * 1000000L;
+		throwIfCancelled();
+	}
+
+	/*
+	 * Stop the search if it has been cancelled, otherwise report its
+	 * progress when a report is due.
+	 *
+	 * @param int bound the priority the search is working at
+	 * @param long expanded boards expanded so far
+	 */
+	void checkpoint(int bound, long expanded)
+	{
+		throwIfCancelled();
+		checkLimits(expanded);
+		if (listener != null)
+		{
+			long now = System.nanoTime();
+			if (now - nextReport >= 0)
+			{
+				nextReport = now + intervalNanos;
+				listener.progress(bound, expanded);
+			}
+		}
+	}
+
+	/*
+	 * Stop the search if it has passed the node or time limit of its
+	 * options. Only reads what start() set, so it may be called from the
+	 * worker threads of a parallel search.
+	 *
+	 * @param long expanded boards expanded so far
+	 */
+	void checkLimits(long expanded)
+	{
+		if (nodeLimit > 0 && expanded >= nodeLimit)
+		{
+			throw new CancellationException("Search stopped at its limit of " + nodeLimit + " expansions");
+		}
+		if (timeLimitNanos > 0 && System.nanoTime() - startNanos >= timeLimitNanos)
+		{
+			throw new CancellationException("Search stopped at its time limit of " + timeLimitNanos / 1000000L + " ms");
+		}
+	}
+
+	/*
+	 * Stop the search if it has been cancelled or its thread interrupted.
+	 * The interrupt is left set for the caller to see.
+	 */
+	void throwIfCancelled()
+	{
+		if (cancelled || Thread.currentThread().isInterrupted())
+		{
+			throw new CancellationException("Search cancelled");
+		}
+	}
+}
@@ -0,0 +1,386 @@
+import java.util.Arrays;
+
+/*
+ * SearchStats.java
+ *
+ * The SearchStats class counts what a search did: boards expanded, boards
+ * generated, generated boards dropped as duplicates, the largest open list,
+ * an estimate of the most memory the search held, how many boards were
+ * expanded at each priority (f-value), and how the time was split between
+ * the heuristic, the open list and the rest of the expansion work.
+ *
+ * Statistics are only collected when SolverOptions.statistics(true) is set.
+ * Otherwise the Solver holds no SearchStats and each counting point costs a
+ * null check. The A* search fills in every counter. The other algorithms
+ * record the boards they expanded and the total time.
+ *
+ * A search updates its SearchStats from one thread without locks. Every
+ * PUBLISH_INTERVAL expansions it publishes a copy that other threads can
+ * read with snapshot(), so a long search can be watched through the
+ * SearchWorkspace it uses. Once the search ends, Solver.stats() returns the
+ * final copy. toJson() writes a copy as a single line of JSON.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class SearchStats
+{
+
+	// Expansions between published copies
+	private static final int PUBLISH_INTERVAL = 4096;
+
+	// Rough bytes per live search node: the Node, its Board and the open list slot
+	private static final int NODE_BYTES = 96;
+
+	private long expanded; // boards expanded
+	private long generated; // boards created by expansions
+	private long duplicates; // generated boards not queued, or queued nodes skipped, because a path no longer was known
+	private long peakOpen; // largest open list
+	private long peakMemoryBytes; // largest estimate of nodes and closed set held
+	private long[] fHistogram = new long[64]; // boards expanded at each priority
+	private long heuristicNanos; // time spent evaluating the heuristic
+	private long queueNanos; // time spent inserting into and removing from the open list
+	private long totalNanos; // time from start() to finish(), or to the last publish
+	private long startNanos; // System.nanoTime() at start()
+	private int nodeBytes = NODE_BYTES; // bytes per live search node in the memory estimate
+
+	private volatile SearchStats published; // the last copy for other threads
+
+	/*
+	 * Reset every counter for a new search and start its clock.
+	 */
+	void start()
+	{
+		expanded = 0;
+		generated = 0;
+		duplicates = 0;
+		peakOpen = 0;
+		peakMemoryBytes = 0;
+		Arrays.fill(fHistogram, 0);
+		heuristicNanos = 0;
+		queueNanos = 0;
+		totalNanos = 0;
+		startNanos = System.nanoTime();
+		nodeBytes = NODE_BYTES;
+		published = copy();
+	}
+
+	/*
+	 * Set the bytes per live search node used in the memory estimate, for
+	 * a search that does not keep its nodes as objects.
+	 *
+	 * @param int bytes the size of a node and its open list slot
+	 */
+	void nodeBytes(int bytes)
+	{
+		nodeBytes = bytes;
+	}
+
+	/*
+	 * Record the expansion of a board.
+	 *
+	 * @param int priority the priority (f-value) of the expanded node
+	 */
+	void expanded(int priority)
+	{
+		if (priority >= fHistogram.length)
+		{
+			fHistogram = Arrays.copyOf(fHistogram, Math.max(fHistogram.length * 2, priority + 1));
+		}
+		fHistogram[priority]++;
+		expanded++;
+	}
+
+	/*
+	 * Record boards created by expanding a node.
+	 *
+	 * @param int count boards created
+	 */
+	void generated(int count)
+	{
+		generated += count;
+	}
+
+	/*
+	 * Record a board or node dropped because it was reached in no fewer
+	 * moves before.
+	 */
+	void duplicate()
+	{
+		duplicates++;
+	}
+
+	/*
+	 * Record the size of the open list.
+	 *
+	 * @param int size nodes in the open list
+	 */
+	void openSize(int size)
+	{
+		if (size > peakOpen)
+		{
+			peakOpen = size;
+		}
+	}
+
+	/*
+	 * Add time spent in the open list.
+	 *
+	 * @param long nanos time taken
+	 */
+	void queueTime(long nanos)
+	{
+		queueNanos += nanos;
+	}
+
+	/*
+	 * Wrap a heuristic so the time spent in it is added to these statistics.
+	 *
+	 * @param Heuristic heuristic the heuristic to time
+	 *
+	 * @return Heuristic the timed heuristic
+	 */
+	Heuristic timed(Heuristic heuristic)
+	{
+		return new Heuristic()
+		{
+			@Override
+			public int estimate(TileGrid board)
+			{
+				long start = System.nanoTime();
+				int estimate = heuristic.estimate(board);
+				heuristicNanos += System.nanoTime() - start;
+				return estimate;
+			}
+
+			@Override
+			public int update(TileGrid board, int parentEstimate, int direction)
+			{
+				long start = System.nanoTime();
+				int estimate = heuristic.update(board, parentEstimate, direction);
+				heuristicNanos += System.nanoTime() - start;
+				return estimate;
+			}
+
+			@Override
+			public boolean isConsistent()
+			{
+				return heuristic.isConsistent();
+			}
+		};
+	}
+
+	/*
+	 * Update the memory estimate and publish a copy when one is due. Called
+	 * once per expansion.
+	 *
+	 * @param int open nodes in the open list
+	 * @param StateTable closed the closed set of the search
+	 */
+	void progress(int open, StateTable closed)
+	{
+		if (expanded % PUBLISH_INTERVAL == 0)
+		{
+			sampleMemory(open, closed);
+			totalNanos = System.nanoTime() - startNanos;
+			published = copy();
+		}
+	}
+
+	/*
+	 * Stop the clock and publish the final copy.
+	 *
+	 * @param int open nodes left in the open list
+	 * @param StateTable closed the closed set of the search, or null if it had none
+	 */
+	void finish(int open, StateTable closed)
+	{
+		openSize(open);
+		sampleMemory(open, closed);
+		totalNanos = System.nanoTime() - startNanos;
+		published = copy();
+	}
+
+	/*
+	 * Record the boards expanded by a search that counts them itself, and
+	 * stop the clock. Such a search does not report its memory.
+	 *
+	 * @param long count boards expanded
+	 */
+	void finish(long count)
+	{
+		expanded = count;
+		totalNanos = System.nanoTime() - startNanos;
+		published = copy();
+	}
+
+	/*
+	 * Every expanded node is still held as the parent of its children, so
+	 * the estimate is the open and expanded nodes plus the closed set.
+	 */
+	private void sampleMemory(int open, StateTable closed)
+	{
+		long bytes = nodeBytes * (open + expanded) + ((closed == null) ? 0 : closed.memoryBytes());
+		if (bytes > peakMemoryBytes)
+		{
+			peakMemoryBytes = bytes;
+		}
+	}
+
+	/*
+	 * The statistics as last published by the search. Safe to call from any
+	 * thread while the search runs, the values lag by up to PUBLISH_INTERVAL
+	 * expansions.
+	 *
+	 * @return SearchStats a copy that does not change
+	 */
+	public SearchStats snapshot()
+	{
+		SearchStats copy = published;
+		return (copy == null) ? new SearchStats() : copy;
+	}
+
+	private SearchStats copy()
+	{
+		SearchStats copy = new SearchStats();
+		copy.expanded = expanded;
+		copy.generated = generated;
+		copy.duplicates = duplicates;
+		copy.peakOpen = peakOpen;
+		copy.peakMemoryBytes = peakMemoryBytes;
+		copy.fHistogram = Arrays.copyOf(fHistogram, fHistogram.length);
+		copy.heuristicNanos = heuristicNanos;
+		copy.queueNanos = queueNanos;
+		copy.totalNanos = totalNanos;
+		copy.published = copy;
+		return copy;
+	}
+
+	/*
+	 * @return long boards expanded
+	 */
+	public long expanded()
+	{
+		return expanded;
+	}
+
+	/*
+	 * @return long boards created by expansions
+	 */
+	public long generated()
+	{
+		return generated;
+	}
+
+	/*
+	 * @return long generated boards not queued and queued nodes skipped as stale
+	 */
+	public long duplicates()
+	{
+		return duplicates;
+	}
+
+	/*
+	 * @return long the largest size of the open list
+	 */
+	public long peakOpen()
+	{
+		return peakOpen;
+	}
+
+	/*
+	 * @return long the largest estimate of the bytes held by nodes and the closed set
+	 */
+	public long peakMemoryBytes()
+	{
+		return peakMemoryBytes;
+	}
+
+	/*
+	 * The number of boards expanded with a priority (f-value).
+	 *
+	 * @param int priority the priority
+	 *
+	 * @return long boards expanded at that priority
+	 */
+	public long expandedAt(int priority)
+	{
+		return (priority < fHistogram.length) ? fHistogram[priority] : 0;
+	}
+
+	/*
+	 * @return long nanoseconds spent evaluating the heuristic
+	 */
+	public long heuristicNanos()
+	{
+		return heuristicNanos;
+	}
+
+	/*
+	 * @return long nanoseconds spent in the open list
+	 */
+	public long queueNanos()
+	{
+		return queueNanos;
+	}
+
+	/*
+	 * Time not spent in the heuristic or the open list: generating boards,
+	 * duplicate detection and the rest of the search loop.
+	 *
+	 * @return long nanoseconds
+	 */
+	public long expansionNanos()
+	{
+		return Math.max(0, totalNanos - heuristicNanos - queueNanos);
+	}
+
+	/*
+	 * @return long nanoseconds from the start of the search
+	 */
+	public long totalNanos()
+	{
+		return totalNanos;
+	}
+
+	/*
+	 * The statistics as one line of JSON, e.g.
+	 *
+	 * 		{"expanded":120,"generated":310,...,"fHistogram":{"14":52,"16":68}}
+	 *
+	 * @return String the JSON object, without a line separator
+	 */
+	public String toJson()
+	{
+		StringBuilder s = new StringBuilder();
+		s.append("{\"expanded\":").append(expanded);
+		s.append(",\"generated\":").append(generated);
+		s.append(",\"duplicates\":").append(duplicates);
+		s.append(",\"peakOpen\":").append(peakOpen);
+		s.append(",\"peakMemoryBytes\":").append(peakMemoryBytes);
+		s.append(",\"heuristicNanos\":").append(heuristicNanos);
+		s.append(",\"queueNanos\":").append(queueNanos);
+		s.append(",\"expansionNanos\":").append(expansionNanos());
+		s.append(",\"totalNanos\":").append(totalNanos);
+		s.append(",\"fHistogram\":{");
+		boolean first = true;
+		for (int f = 0; f < fHistogram.length; f++)
+		{
+			if (fHistogram[f] != 0)
+			{
+				s.append(first ? "\"" : ",\"").append(f).append("\":").append(fHistogram[f]);
+				first = false;
+			}
+		}
+		return s.append("}}").toString();
+	}
+
+	@Override
+	public String toString()
+	{
+		return toJson();
+	}
+}
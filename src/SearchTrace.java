@@ -0,0 +1,211 @@
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * SearchTrace.java
+ *
+ * The SearchTrace class records what searches did into a binary trace
+ * file, to be replayed and summarised later by TraceReport. It is set with
+ * SolverOptions.trace() or -trace file. Without one the Solver holds no
+ * Recording and each point that would record costs a null check.
+ *
+ * Each solve gets a Recording with its own id and buffer, so the solves of
+ * a BatchSolver or SolverServer can share one trace. A Recording fills a
+ * chunk of up to CHUNK_RECORDS records and writes it whole, so the file
+ * is only locked once per chunk and the records of a chunk all belong to
+ * one solve. The file is the 4 byte MAGIC followed by chunks of
+ *
+ * 		int		id of the solve
+ * 		int		number of records
+ * 		records		RECORD_BYTES each
+ *
+ * and every record is four ints, the type and g packed as (g << 4) | type,
+ * then h, the hash of the board and a value:
+ *
+ * 		START		initial board: h estimate, value rows << 16 | columns
+ * 		EXPANDED	board expanded by A*: g, h, value nodes left in the open list
+ * 		PATH		board on the solution found: g, h
+ * 		END		value boards expanded, h the moves of the solution or -1
+ *
+ * Only the A* searches, with or without compact nodes, record their
+ * expansions. Every algorithm records its start, solution path and end.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class SearchTrace implements Closeable
+{
+
+	// Start of every trace file, the last byte is the format version
+	static final byte[] MAGIC = { 'T', 'R', 'C', 1 };
+
+	// Record types
+	static final int START = 0;
+	static final int EXPANDED = 1;
+	static final int PATH = 2;
+	static final int END = 3;
+
+	// Bytes of each record, four ints
+	static final int RECORD_BYTES = 16;
+
+	// Bytes before the records of a chunk, the solve id and record count
+	static final int CHUNK_HEADER = 8;
+
+	// Most records in a chunk
+	static final int CHUNK_RECORDS = 4096;
+
+	private final FileChannel channel; // the trace file
+	private final AtomicInteger solves = new AtomicInteger(); // ids given out
+	private final String name; // file name, for errors
+
+	/*
+	 * Create or replace a trace file.
+	 *
+	 * @param File file the file to write
+	 */
+	public SearchTrace(File file) throws IOException
+	{
+		name = file.getPath();
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		writeFully(ByteBuffer.wrap(MAGIC));
+	}
+
+	/*
+	 * Start recording a solve.
+	 *
+	 * @param Board initial the starting state of the board
+	 * @param int heuristic the estimate of the moves from initial to the goal
+	 *
+	 * @return Recording the recording of the solve, used by one thread
+	 */
+	Recording begin(Board initial, int heuristic)
+	{
+		Recording recording = new Recording(this, solves.getAndIncrement());
+		recording.record(START, 0, heuristic, initial.hashCode(), initial.rows() << 16 | initial.columns());
+		return recording;
+	}
+
+	/*
+	 * Append a chunk to the file.
+	 */
+	private synchronized void write(ByteBuffer chunk)
+	{
+		try
+		{
+			writeFully(chunk);
+		}
+		catch (IOException e)
+		{
+			throw new IllegalStateException("Could not write the trace " + name, e);
+		}
+	}
+
+	private void writeFully(ByteBuffer buffer) throws IOException
+	{
+		while (buffer.hasRemaining())
+		{
+			channel.write(buffer);
+		}
+	}
+
+	/*
+	 * Close the file. Recordings that have not ended are lost.
+	 * (non-Javadoc)
+	 * @see java.io.Closeable#close()
+	 */
+	@Override
+	public synchronized void close() throws IOException
+	{
+		channel.close();
+	}
+
+	/*
+	 * The records of one solve, buffered a chunk at a time.
+	 */
+	static final class Recording
+	{
+		private final SearchTrace trace; // receives the chunks
+		private final ByteBuffer chunk = ByteBuffer.allocate(CHUNK_HEADER + CHUNK_RECORDS * RECORD_BYTES);
+		private final int solve; // id of the solve
+
+		private Recording(SearchTrace trace, int solve)
+		{
+			this.trace = trace;
+			this.solve = solve;
+			chunk.position(CHUNK_HEADER);
+		}
+
+		/*
+		 * Record the expansion of a board by A*.
+		 *
+		 * @param int hash the hash of the board
+		 * @param int g moves to the board
+		 * @param int h the heuristic estimate of the board
+		 * @param int open nodes left in the open list
+		 */
+		void expanded(int hash, int g, int h, int open)
+		{
+			record(EXPANDED, g, h, hash, open);
+		}
+
+		/*
+		 * Record a board on the solution found.
+		 *
+		 * @param int hash the hash of the board
+		 * @param int g moves to the board
+		 * @param int h the heuristic estimate of the board
+		 */
+		void path(int hash, int g, int h)
+		{
+			record(PATH, g, h, hash, 0);
+		}
+
+		/*
+		 * Record the end of the solve and write what is left of the chunk.
+		 *
+		 * @param int moves the moves of the solution, -1 if there is none
+		 * @param long expanded boards expanded
+		 */
+		void end(int moves, long expanded)
+		{
+			record(END, 0, moves, 0, (int) Math.min(Integer.MAX_VALUE, expanded));
+			flush();
+		}
+
+		private void record(int type, int g, int h, int hash, int value)
+		{
+			if (!chunk.hasRemaining())
+			{
+				flush();
+			}
+			chunk.putInt(g << 4 | type);
+			chunk.putInt(h);
+			chunk.putInt(hash);
+			chunk.putInt(value);
+		}
+
+		private void flush()
+		{
+			int records = (chunk.position() - CHUNK_HEADER) / RECORD_BYTES;
+			if (records == 0)
+			{
+				return;
+			}
+			chunk.putInt(0, solve);
+			chunk.putInt(4, records);
+			chunk.flip();
+			trace.write(chunk);
+			chunk.clear();
+			chunk.position(CHUNK_HEADER);
+		}
+	}
+}
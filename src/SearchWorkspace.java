@@ -0,0 +1,105 @@
+/*
+ * SearchWorkspace.java
+ *
+ * The SearchWorkspace class holds the open list and closed set used by an A*
+ * search so that they can be reused by the next search instead of being
+ * allocated again. The arrays inside them keep the size they grew to, which
+ * saves a lot of allocation when one thread solves many puzzles in a row. A
+ * workspace must only be used by one search at a time.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class SearchWorkspace
+{
+
+	private OpenList openList; // the frontier of the last search
+	private OpenList.Type openListType; // the type of openList
+	private final StateTable closed = new StateTable(); // best moves to each state
+	private final SearchStats stats = new SearchStats(); // statistics of the current search
+	private CompactOpenList compactOpenList; // the frontier of the last compact search
+	private NodeStore nodeStore; // the nodes of the last compact search
+
+	/*
+	 * An empty open list of the given type, reusing the previous one when
+	 * it is the same type.
+	 *
+	 * @param OpenList.Type type the type of open list
+	 *
+	 * @return OpenList the empty open list
+	 */
+	public OpenList openList(OpenList.Type type)
+	{
+		if (openList == null || openListType != type)
+		{
+			openList = type.create();
+			openListType = type;
+		}
+		else
+		{
+			openList.clear();
+		}
+		return openList;
+	}
+
+	/*
+	 * An empty closed set.
+	 *
+	 * @return StateTable the empty closed set
+	 */
+	public StateTable closed()
+	{
+		closed.clear();
+		return closed;
+	}
+
+	/*
+	 * An empty open list for a CompactSearch.
+	 *
+	 * @return CompactOpenList the empty open list
+	 */
+	public CompactOpenList compactOpenList()
+	{
+		if (compactOpenList == null)
+		{
+			compactOpenList = new CompactOpenList();
+		}
+		else
+		{
+			compactOpenList.clear();
+		}
+		return compactOpenList;
+	}
+
+	/*
+	 * An empty node store for a CompactSearch.
+	 *
+	 * @param int keyWords key words of each board, see Board.keyWords()
+	 *
+	 * @return NodeStore the empty node store
+	 */
+	public NodeStore nodeStore(int keyWords)
+	{
+		if (nodeStore == null)
+		{
+			nodeStore = new NodeStore();
+		}
+		nodeStore.clear(keyWords);
+		return nodeStore;
+	}
+
+	/*
+	 * The statistics filled in by the search using this workspace when
+	 * SolverOptions.statistics() is set. Another thread can watch a long
+	 * search with stats().snapshot().
+	 *
+	 * @return SearchStats the statistics of the current or last search
+	 */
+	public SearchStats stats()
+	{
+		return stats;
+	}
+}
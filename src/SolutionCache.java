@@ -0,0 +1,439 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * SolutionCache.java
+ *
+ * The SolutionCache class remembers the shortest solutions of boards that
+ * have already been solved, so repeated boards are answered without a
+ * search. It is safe to use from many threads.
+ *
+ * Boards are stored in a canonical form. Reflecting or rotating the grid and
+ * renaming the tiles to match gives a puzzle of the same difficulty, and the
+ * symmetries that leave the goal board unchanged (for the usual goal, the
+ * identity and the reflection in the main diagonal) map a board to another
+ * board whose solution is the same moves, reflected. The canonical form is the
+ * smallest of these boards by packed tiles, and the moves are stored for it.
+ *
+ * Every board along a shortest solution has the rest of that solution as one
+ * of its own shortest solutions, so when cachePathStates is set the boards the
+ * blank passes through are cached with the remaining moves too.
+ *
+ * Moves are packed 4 to a byte. The least recently used entries are evicted
+ * when either the number of entries or the bytes of packed moves is over its
+ * limit.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class SolutionCache
+{
+
+	// Rough per entry cost of the map entry, key board and packed array headers
+	private static final int ENTRY_OVERHEAD_BYTES = 128;
+
+	private final int maxEntries; // most boards kept
+	private final long maxBytes; // most bytes of entries kept
+	private final boolean cachePathStates; // also cache the boards along each solution
+	private long bytes; // bytes of the entries in the cache
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	// Canonical board to packed moves, in least recently used order
+	private final LinkedHashMap<Board, byte[]> entries = new LinkedHashMap<Board, byte[]>(16, 0.75f, true);
+
+	/*
+	 * Create an empty cache.
+	 *
+	 * @param int maxEntries most boards kept
+	 * @param long maxBytes most bytes of entries kept
+	 * @param boolean cachePathStates also cache the boards along each solution
+	 */
+	public SolutionCache(int maxEntries, long maxBytes, boolean cachePathStates)
+	{
+		this.maxEntries = maxEntries;
+		this.maxBytes = maxBytes;
+		this.cachePathStates = cachePathStates;
+	}
+
+	/*
+	 * Solve a board, using the cached solution if there is one.
+	 *
+	 * @param Board initial the starting state of the board
+	 * @param SolverOptions options search settings used when the board is not cached
+	 *
+	 * @return Solver the solution
+	 */
+	public Solver solve(Board initial, SolverOptions options)
+	{
+		return solve(initial, options, new SearchWorkspace());
+	}
+
+	/*
+	 * Solve a board, using the cached solution if there is one, searching
+	 * with a reused workspace.
+	 *
+	 * @param Board initial the starting state of the board
+	 * @param SolverOptions options search settings used when the board is not cached
+	 * @param SearchWorkspace workspace the open list and closed set of the calling thread
+	 *
+	 * @return Solver the solution
+	 */
+	public Solver solve(Board initial, SolverOptions options, SearchWorkspace workspace)
+	{
+		// Unsolvable boards are found by the parity check, there is nothing to cache
+		if (!initial.isSolvable())
+		{
+			return new Solver(initial, options, workspace);
+		}
+
+		byte[] path = lookup(initial);
+		if (path != null)
+		{
+			hits.incrementAndGet();
+			return new Solver(initial, path);
+		}
+
+		misses.incrementAndGet();
+		Solver solver = new Solver(initial, options, workspace);
+
+		// Only the shortest solutions are cached, not those of a weighted or stopped search
+		if (solver.hasSolution() && solver.bound() == 1.0)
+		{
+			store(initial, solver.moveSequence());
+		}
+		return solver;
+	}
+
+	/*
+	 * The shortest solution of a board if it is in the cache.
+	 *
+	 * @param Board board the board to find
+	 *
+	 * @return byte[] the moves, see Board.UP etc, or null if the board is not cached
+	 */
+	public byte[] lookup(Board board)
+	{
+		Symmetry symmetry = Symmetry.canonical(board);
+		byte[] packed;
+		synchronized (this)
+		{
+			packed = entries.get(symmetry.apply(board));
+		}
+		if (packed == null)
+		{
+			return null;
+		}
+
+		// The stored moves are for the canonical board, map them back
+		byte[] path = unpack(packed);
+		Symmetry inverse = symmetry.inverse();
+		for (int k = 0; k < path.length; k++)
+		{
+			path[k] = (byte) inverse.apply(path[k]);
+		}
+		return path;
+	}
+
+	/*
+	 * Cache the shortest solution of a board, and of the boards along it
+	 * when cachePathStates is set.
+	 *
+	 * @param Board board the solved board
+	 * @param byte[] path a shortest solution of the board
+	 */
+	public void store(Board board, byte[] path)
+	{
+		// The goal itself has no moves to cache
+		int states = cachePathStates ? path.length : Math.min(1, path.length);
+		for (int start = 0; start < states; start++)
+		{
+			Symmetry symmetry = Symmetry.canonical(board);
+			byte[] moves = new byte[path.length - start];
+			for (int k = 0; k < moves.length; k++)
+			{
+				moves[k] = (byte) symmetry.apply(path[start + k]);
+			}
+			put(symmetry.apply(board), pack(moves));
+			board = board.move(path[start]);
+		}
+	}
+
+	/*
+	 * The number of lookups that found a cached solution.
+	 *
+	 * @return long hits
+	 */
+	public long hits()
+	{
+		return hits.get();
+	}
+
+	/*
+	 * The number of lookups that had to search.
+	 *
+	 * @return long misses
+	 */
+	public long misses()
+	{
+		return misses.get();
+	}
+
+	/*
+	 * The number of boards in the cache.
+	 *
+	 * @return int size
+	 */
+	public synchronized int size()
+	{
+		return entries.size();
+	}
+
+	/*
+	 * Add an entry and evict the least recently used entries until the
+	 * cache is within its limits.
+	 *
+	 * @param Board canonical the canonical board
+	 * @param byte[] packed its packed moves
+	 */
+	private synchronized void put(Board canonical, byte[] packed)
+	{
+		byte[] old = entries.put(canonical, packed);
+		bytes += entryBytes(packed) - ((old == null) ? 0 : entryBytes(old));
+
+		Iterator<Map.Entry<Board, byte[]>> eldest = entries.entrySet().iterator();
+		while ((entries.size() > maxEntries || bytes > maxBytes) && eldest.hasNext())
+		{
+			bytes -= entryBytes(eldest.next().getValue());
+			eldest.remove();
+		}
+	}
+
+	private static long entryBytes(byte[] packed)
+	{
+		return ENTRY_OVERHEAD_BYTES + packed.length;
+	}
+
+	/*
+	 * Pack moves 4 to a byte, 2 bits each. The first byte holds the number
+	 * of moves in the last byte, so the length can be recovered.
+	 *
+	 * @param byte[] path the moves
+	 *
+	 * @return byte[] the packed moves
+	 */
+	private static byte[] pack(byte[] path)
+	{
+		byte[] packed = new byte[1 + (path.length + 3) / 4];
+		packed[0] = (byte) (path.length % 4);
+		for (int k = 0; k < path.length; k++)
+		{
+			packed[1 + k / 4] |= path[k] << (2 * (k % 4));
+		}
+		return packed;
+	}
+
+	/*
+	 * Unpack moves packed by pack().
+	 *
+	 * @param byte[] packed the packed moves
+	 *
+	 * @return byte[] the moves
+	 */
+	private static byte[] unpack(byte[] packed)
+	{
+		int length = 4 * (packed.length - 1);
+		if (packed[0] != 0)
+		{
+			length -= 4 - packed[0];
+		}
+		byte[] path = new byte[length];
+		for (int k = 0; k < length; k++)
+		{
+			path[k] = (byte) ((packed[1 + k / 4] >>> (2 * (k % 4))) & 3);
+		}
+		return path;
+	}
+
+	/*
+	 * A reflection or rotation of the grid, with the tiles renamed so that
+	 * the goal board maps to itself. A cell (r, c) is first transposed if
+	 * transpose is set, then its row and column are flipped if flipRows and
+	 * flipColumns are set.
+	 */
+	static class Symmetry
+	{
+		private final int N;
+		private final boolean transpose;
+		private final boolean flipRows;
+		private final boolean flipColumns;
+
+		private Symmetry(int N, boolean transpose, boolean flipRows, boolean flipColumns)
+		{
+			this.N = N;
+			this.transpose = transpose;
+			this.flipRows = flipRows;
+			this.flipColumns = flipColumns;
+		}
+
+		/*
+		 * Find the symmetry that maps a board to its canonical form, the
+		 * smallest image by packed tiles among the symmetries that keep the
+		 * goal unchanged. Only square boards with the standard goal have
+		 * such symmetries, every other board is its own canonical form.
+		 *
+		 * @param Board board the board
+		 *
+		 * @return Symmetry the symmetry to apply
+		 */
+		static Symmetry canonical(Board board)
+		{
+			int N = board.dimension();
+			Symmetry best = new Symmetry(N, false, false, false);
+			if (board.columns() != N || !board.goal().isStandard())
+			{
+				return best;
+			}
+			Board smallest = board;
+			for (int s = 1; s < 8; s++)
+			{
+				Symmetry symmetry = new Symmetry(N, (s & 4) != 0, (s & 2) != 0, (s & 1) != 0);
+
+				// The goal blank is in the bottom right corner, it must stay there
+				if (symmetry.cell(N * N - 1) != N * N - 1)
+				{
+					continue;
+				}
+				Board image = symmetry.apply(board);
+				if (compare(image, smallest) < 0)
+				{
+					best = symmetry;
+					smallest = image;
+				}
+			}
+			return best;
+		}
+
+		/*
+		 * The cell that a cell moves to.
+		 *
+		 * @param int index the cell in row major order
+		 *
+		 * @return int the cell it moves to
+		 */
+		private int cell(int index)
+		{
+			int r = index / N;
+			int c = index % N;
+			if (transpose)
+			{
+				int t = r;
+				r = c;
+				c = t;
+			}
+			if (flipRows)
+			{
+				r = N - 1 - r;
+			}
+			if (flipColumns)
+			{
+				c = N - 1 - c;
+			}
+			return r * N + c;
+		}
+
+		/*
+		 * Move every tile to its cell's image and rename it to the tile whose
+		 * goal is the image of its own goal.
+		 *
+		 * @param Board board the board
+		 *
+		 * @return Board the image of the board
+		 */
+		Board apply(Board board)
+		{
+			// The identity is the only symmetry of a board that is not square
+			if (!transpose && !flipRows && !flipColumns)
+			{
+				return board;
+			}
+			int[][] tiles = new int[N][N];
+			for (int index = 0; index < N * N; index++)
+			{
+				int tile = board.tileAt(index);
+				int target = cell(index);
+				tiles[target / N][target % N] = (tile == 0) ? 0 : cell(tile - 1) + 1;
+			}
+			return new Board(tiles, board.goal());
+		}
+
+		/*
+		 * The image of a move, found by mapping the direction the tile moves.
+		 *
+		 * @param int direction Board.UP etc
+		 *
+		 * @return int the direction of the move on the image board
+		 */
+		int apply(int direction)
+		{
+			int dr = (direction == Board.UP) ? -1 : (direction == Board.DOWN) ? 1 : 0;
+			int dc = (direction == Board.LEFT) ? -1 : (direction == Board.RIGHT) ? 1 : 0;
+			if (transpose)
+			{
+				int t = dr;
+				dr = dc;
+				dc = t;
+			}
+			if (flipRows)
+			{
+				dr = -dr;
+			}
+			if (flipColumns)
+			{
+				dc = -dc;
+			}
+			if (dr != 0)
+			{
+				return (dr < 0) ? Board.UP : Board.DOWN;
+			}
+			return (dc < 0) ? Board.LEFT : Board.RIGHT;
+		}
+
+		/*
+		 * The symmetry that undoes this one. The flips are applied after the
+		 * transpose, so undoing a transposed symmetry swaps which flip is which.
+		 *
+		 * @return Symmetry the inverse
+		 */
+		Symmetry inverse()
+		{
+			if (transpose)
+			{
+				return new Symmetry(N, true, flipColumns, flipRows);
+			}
+			return this;
+		}
+
+		/*
+		 * Order boards of the same size by their packed tiles.
+		 */
+		private static int compare(Board a, Board b)
+		{
+			for (int word = 0; word < a.keyWords(); word++)
+			{
+				int order = Long.compareUnsigned(a.keyWord(word), b.keyWord(word));
+				if (order != 0)
+				{
+					return order;
+				}
+			}
+			return 0;
+		}
+	}
+}
@@ -0,0 +1,28 @@
+/*
+ * SolutionListener.java
+ *
+ * The SolutionListener interface is told about each solution an anytime
+ * search finds, see SolverOptions.Algorithm.ANYTIME. Solutions arrive in
+ * order of fewer moves, or of a tighter bound for the same moves, so a caller
+ * can use the latest one whenever it has to. It is called on the thread that
+ * runs the search and should return quickly.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public interface SolutionListener
+{
+
+	/*
+	 * A solution that is shorter, or known to be closer to the shortest,
+	 * than the last one reported.
+	 *
+	 * @param byte[] moves the moves from the initial board to the goal, see Board.UP etc
+	 * @param double bound the solution is at most bound times the shortest
+	 * 			solution, 1 if it is the shortest, infinite if not yet known
+	 */
+	void solutionFound(byte[] moves, double bound);
+}
@@ -0,0 +1,142 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/*
+ * SolutionWriter.java
+ *
+ * The SolutionWriter class prints solutions through a buffered Writer. Moves
+ * are written as one letter each (U, D, L or R, the direction the tile
+ * slides) on a single line, and boards are written in the same layout as
+ * Board.toString(). Numbers are formatted into a reused char buffer instead
+ * of with String.format, so printing a long solution creates no garbage per
+ * tile.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class SolutionWriter
+{
+
+	private final Writer out; // receives the text
+	private char[] line = new char[64]; // the line being formatted
+
+	/*
+	 * Create a writer.
+	 *
+	 * @param Writer out receives the text, buffered by the caller
+	 */
+	public SolutionWriter(Writer out)
+	{
+		this.out = out;
+	}
+
+	/*
+	 * Write a move sequence as letters on one line.
+	 *
+	 * @param byte[] moves the moves, see Board.UP etc
+	 */
+	public void writeMoves(byte[] moves) throws IOException
+	{
+		ensure(moves.length + 1);
+		for (int k = 0; k < moves.length; k++)
+		{
+			line[k] = Board.moveName(moves[k]);
+		}
+		line[moves.length] = '\n';
+		out.write(line, 0, moves.length + 1);
+	}
+
+	/*
+	 * Write a board, its dimension on the first line (N, or RxC if it is not
+	 * square) followed by a line per row with each tile right aligned in 2
+	 * characters.
+	 *
+	 * @param Board board the board to write
+	 */
+	public void writeBoard(Board board) throws IOException
+	{
+		int rows = board.rows();
+		int columns = board.columns();
+		int length = appendInt(0, rows);
+		if (rows != columns)
+		{
+			line[length++] = 'x';
+			length = appendInt(length, columns);
+		}
+		line[length++] = '\n';
+		out.write(line, 0, length);
+
+		ensure(4 * columns + 1);
+		for (int i = 0; i < rows; i++)
+		{
+			length = 0;
+			for (int j = 0; j < columns; j++)
+			{
+				int tile = board.tileAt(i * columns + j);
+				if (tile < 10)
+				{
+					line[length++] = ' ';
+				}
+				length = appendInt(length, tile);
+				line[length++] = ' ';
+			}
+			line[length++] = '\n';
+			out.write(line, 0, length);
+		}
+	}
+
+	/*
+	 * Write a line of text.
+	 *
+	 * @param String text the line, without the line separator
+	 */
+	public void writeLine(String text) throws IOException
+	{
+		out.write(text);
+		out.write('\n');
+	}
+
+	/*
+	 * Flush the underlying writer.
+	 */
+	public void flush() throws IOException
+	{
+		out.flush();
+	}
+
+	/*
+	 * Format a non-negative number into the line buffer.
+	 *
+	 * @param int at position to write the first digit
+	 * @param int value the number
+	 *
+	 * @return int the position after the last digit
+	 */
+	private int appendInt(int at, int value)
+	{
+		int digits = 1;
+		for (int rest = value / 10; rest > 0; rest /= 10)
+		{
+			digits++;
+		}
+		ensure(at + digits);
+		for (int k = at + digits - 1; k >= at; k--)
+		{
+			line[k] = (char) ('0' + value % 10);
+			value /= 10;
+		}
+		return at + digits;
+	}
+
+	private void ensure(int length)
+	{
+		if (line.length < length)
+		{
+			line = Arrays.copyOf(line, Math.max(length, line.length * 2));
+		}
+	}
+}
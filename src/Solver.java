@@ -1,11 +1,19 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+
 /*
  * Solver.java
  * 
  * The Solver class reads input from file and constructs a tile 
  * puzzle with a single empty space denoted by the value 0. It then proceeds to 
- * solve the puzzle using the A* algorithm. For each board that is created from
- * an operator, up, down, left, right, a twin is created and checked. If a solution to a twin is found 
- * then the initial puzzle is unsolvable. http://coursera.cs.princeton.edu/algs4/assignments/8puzzle.html.
+ * solve the puzzle using the A* algorithm. Before searching, the parity of the 
+ * initial board is checked, and unsolvable puzzles return straight away without a 
+ * search. http://coursera.cs.princeton.edu/algs4/assignments/8puzzle.html.
  * The Solver class uses the Board class that consists of a 2d array representing the tiles in
  * the puzzle. 
  * 
@@ -20,27 +28,67 @@
 public class Solver
 {
 	
-	// The goalStateNode is the Goal State search node when a solution is found
-	private Node goalStateNode;	
+	// The starting state of the board
+	private final Board initial;
+	
+	/*
+	 * The moves of the shortest solution, one direction per move (see Board.UP etc).
+	 * The boards along the solution are only created when solution() is iterated.
+	 */
+	private byte[] solutionMoves;
 	
 	// Flag to indicate an unsolvable puzzle
 	private boolean isSolvable; 
 	
+	// The solution is at most this many times the shortest, see SolverOptions.Algorithm.ANYTIME
+	private double bound = 1.0;
+	
 	int numberOfEnqueues = 0;
 	
+	// The number of boards expanded by the search
+	private long expanded;
+	
+	// Filled in by the search when statistics are enabled, otherwise null
+	private SearchStats stats;
+	
+	// The heuristic used by the search, timed when statistics are enabled
+	private Heuristic heuristic;
+	
+	// Search settings such as the type of open list
+	private final SolverOptions options;
+	
+	// The open list and closed set used by the A* search
+	private final SearchWorkspace workspace;
+	
+	// Checked for cancellation and told about progress, or null
+	private SearchMonitor monitor;
+	
+	// Records the solve when the options have a SearchTrace, otherwise null
+	private SearchTrace.Recording trace;
+	
+	// Queues the neighbours of the node being expanded, kept for every expansion
+	private final NeighbourVisitor queueNeighbour = this::queueNeighbour;
+	
+	// The node being expanded and the open list and closed set it is expanded into
+	private Node expanding;
+	private OpenList expandingOpen;
+	private StateTable expandingClosed;
+	
 	/*
 	 * The Node class contains information about the board, number of moves
 	 * taken to get to this node, its parent node, and its heuristic value.
 	 * The node becomes part of a tree structure that is used by the A* algorithm 
 	 * to record the path from the initial state to the goal state. It implements
 	 * the Comparable interface that requires the implementation of the compareTo() function.
+	 * It is package-private so that the open lists can order nodes.
 	 */
-	private static class Node implements Comparable<Node> 
+	static class Node implements Comparable<Node> 
 	{        
-        private final Board board; 
-        private final int moves;
-        private final Node previousNode;
-        private final int priority;
+        final Board board; 
+        final int moves;
+        final Node previousNode;
+        final int heuristic;
+        final int priority;
 
         /*
          * Constructor for a Node that stores a board state, its parent
@@ -49,8 +97,25 @@ public class Solver
          * 
          * @param Board board for this node
          * @param Node previousNode is the parent search node
+         * @param Heuristic heuristic estimates the moves left to the goal
          */
-        private Node(Board board, Node previousNode)
+        Node(Board board, Node previousNode, Heuristic heuristic)
+        {
+        	this(board, previousNode, heuristic, 1, 1);
+        }
+        
+        /*
+         * Constructor for a Node whose priority weighs the moves and the
+         * heuristic, movesWeight * moves + heuristicWeight * heuristic, 
+         * used by weighted A*.
+         * 
+         * @param Board board for this node
+         * @param Node previousNode is the parent search node
+         * @param Heuristic heuristic estimates the moves left to the goal
+         * @param int movesWeight the weight of the moves in the priority
+         * @param int heuristicWeight the weight of the heuristic in the priority
+         */
+        Node(Board board, Node previousNode, Heuristic heuristic, int movesWeight, int heuristicWeight)
         {
         	// Board state
             this.board = board;
@@ -61,12 +126,39 @@ public class Solver
             // The number of moves taken to get to this Node
             this.moves = (this.previousNode == null) ? 0 : this.previousNode.moves + 1;
             
+            /*
+             * The estimated number of moves left to reach the goal, updated
+             * from the parent's estimate for the move that created the board
+             */
+            this.heuristic = (this.previousNode == null) 
+            		? heuristic.estimate(board) 
+            		: heuristic.update(board, this.previousNode.heuristic, board.lastMove());
+            
             // The heuristic used to order the search nodes in the priority queue
-            this.priority = this.board.manhattan() + this.moves;
+            this.priority = heuristicWeight * this.heuristic + movesWeight * this.moves;
+        }
+        
+        /*
+         * Copy a node with its priority weighed again, used when weighted A*
+         * lowers its weight.
+         * 
+         * @param Node node the node to copy
+         * @param int movesWeight the weight of the moves in the priority
+         * @param int heuristicWeight the weight of the heuristic in the priority
+         */
+        Node(Node node, int movesWeight, int heuristicWeight)
+        {
+        	this.board = node.board;
+        	this.previousNode = node.previousNode;
+        	this.moves = node.moves;
+        	this.heuristic = node.heuristic;
+        	this.priority = heuristicWeight * this.heuristic + movesWeight * this.moves;
         }
 
         /*
-         * compareTo function from Comparable interface(non-Javadoc)
+         * compareTo function from Comparable interface. Nodes with the
+         * same priority are ordered by the smaller heuristic, which is the
+         * node closest to the goal. (non-Javadoc)
          * @see java.lang.Comparable#compareTo(java.lang.Object)
          */
         @Override
@@ -74,33 +166,113 @@ public class Solver
         {
         	//StdOut.println("Re-arranging boards based on priority:\n" + this.board + "with\n" + that.board);
         	//StdOut.println("Re-arranging boards based on priority...");
-            return this.priority - that.priority;
+        	if (this.priority != that.priority)
+        	{
+        		return this.priority - that.priority;
+        	}
+            return this.heuristic - that.heuristic;
         }
 
     }
 	
 	/*
-	 * Constructor for the Solver. 
+	 * Constructor for the Solver using the default options. 
 	 * 
 	 * @param Board initial the starting state of the board
 	 */
     public Solver(Board initial)
     {
+    	this(initial, new SolverOptions());
+    }
+    
+	/*
+	 * Constructor for the Solver. 
+	 * 
+	 * @param Board initial the starting state of the board
+	 * @param SolverOptions options the search settings to use
+	 */
+    public Solver(Board initial, SolverOptions options)
+    {
+    	this(initial, options, new SearchWorkspace());
+    }
+    
+	/*
+	 * Constructor for the Solver that reuses the open list and closed set
+	 * of a previous search, e.g. when one thread solves many puzzles.
+	 * 
+	 * @param Board initial the starting state of the board
+	 * @param SolverOptions options the search settings to use
+	 * @param SearchWorkspace workspace the open list and closed set to reuse
+	 */
+    public Solver(Board initial, SolverOptions options, SearchWorkspace workspace)
+    {
+    	this(initial, options, workspace, null);
+    }
+    
+	/*
+	 * Constructor for a Solver whose search can be cancelled from another
+	 * thread, see AsyncSolver for running it without blocking. 
+	 * 
+	 * @param Board initial the starting state of the board
+	 * @param SolverOptions options the search settings to use
+	 * @param SearchWorkspace workspace the open list and closed set to reuse
+	 * @param SearchMonitor monitor cancels the search, or null
+	 * 
+	 * @throws CancellationException if the monitor is cancelled or the 
+	 * 			thread interrupted before the search ends
+	 */
+    public Solver(Board initial, SolverOptions options, SearchWorkspace workspace, SearchMonitor monitor)
+    {
+    	this.initial = initial;
+    	this.options = options;
+    	this.workspace = workspace;
+    	this.monitor = monitor;
+    	
         //StdOut.println("Solver constructor called"); 
         
+        if (options.trace() == null)
+        {
+        	search();
+        }
+        else
+        {
+        	trace = options.trace().begin(initial, options.heuristic().estimate(initial));
+        	try
+        	{
+        		search();
+        	}
+        	finally
+        	{
+        		recordSolution();
+        	}
+        }
+    }
+    
+    /*
+     * Check the initial board and solve it with the algorithm of the options.
+     */
+    private void search()
+    {
+        
+        /*
+         * Half of all boards cannot reach the goal. The parity check
+         * finds them in O(N^2) so there is nothing to search.
+         */
+        isSolvable = initial.isSolvable();
+        if (!isSolvable)
+        {
+        	solutionMoves = null;
+        }
         // Check to see if the initial board has already been solved
-        if(initial.isGoal())
+        else if(initial.isGoal())
         {
         	/*
         	 * If the initial board is solved it is in 
-        	 * the goal state so there are no previousNode boards 
+        	 * the goal state so there are no moves 
         	 * in the solution. 
-        	 * 
-        	 * Set the final goalStateNode to a new search node 
-        	 * and set it's previousNode search node to null.        	 
         	 */
         	//StdOut.println("Initial board is in goal state");
-        	goalStateNode = new Node(initial, null);
+        	solutionMoves = new byte[0];
         }
         else
         {
@@ -109,45 +281,202 @@ public class Solver
         	 * start solving the board
         	 */
         	//StdOut.println("Initial board is not in goal state, Solving...");
-        	goalStateNode = solve(initial, initial.twin());
+        	heuristic = options.heuristic();
+        	if (monitor == null && (options.progressListener() != null
+        			|| options.nodeLimit() > 0 || options.timeLimitMillis() > 0))
+        	{
+        		monitor = new SearchMonitor();
+        	}
+        	if (monitor != null)
+        	{
+        		monitor.start(options);
+        	}
+        	if (options.statistics())
+        	{
+        		stats = workspace.stats();
+        		stats.start();
+        		heuristic = stats.timed(heuristic);
+        	}
+        	
+        	if (options.algorithm() == SolverOptions.Algorithm.IDA_STAR)
+        	{
+        		IdaSearch search = new IdaSearch(initial, heuristic, monitor);
+        		solutionMoves = search.solve();
+        		expanded = search.expanded();
+        	}
+        	else if (options.algorithm() == SolverOptions.Algorithm.BIDIRECTIONAL)
+        	{
+        		BidirectionalSearch search = new BidirectionalSearch(initial, heuristic, options.openList(), monitor);
+        		solutionMoves = search.solve();
+        		numberOfEnqueues = search.openSize();
+        		expanded = search.expanded();
+        	}
+        	else if (options.algorithm() == SolverOptions.Algorithm.PARALLEL)
+        	{
+        		solutionMoves = movesTo(solveInParallel(initial));
+        	}
+        	else if (options.algorithm() == SolverOptions.Algorithm.WEIGHTED_A_STAR
+        			|| options.algorithm() == SolverOptions.Algorithm.ANYTIME)
+        	{
+        		// Stops at the limits of the options with the best solution so far, if any
+        		AnytimeSearch search = new AnytimeSearch(initial, heuristic, options, workspace, monitor);
+        		Node goal = search.solve();
+        		solutionMoves = (goal == null) ? null : movesTo(goal);
+        		bound = search.bound();
+        		numberOfEnqueues = search.openSize();
+        		expanded = search.expanded();
+        	}
+        	else if (options.algorithm() == SolverOptions.Algorithm.EXTERNAL)
+        	{
+        		ExternalSearch search = new ExternalSearch(initial, heuristic, options, monitor);
+        		try
+        		{
+        			solutionMoves = search.solve();
+        		}
+        		catch (IOException e)
+        		{
+        			throw new IllegalStateException("External search failed in " + options.spillDirectory(), e);
+        		}
+        		numberOfEnqueues = (int) Math.min(Integer.MAX_VALUE, search.openSize());
+        		expanded = search.expanded();
+        	}
+        	else if (options.compactNodes())
+        	{
+        		CompactSearch search = new CompactSearch(initial, heuristic, workspace, stats, trace, monitor);
+        		solutionMoves = search.solve();
+        		numberOfEnqueues = search.openSize();
+        		expanded = search.expanded();
+        	}
+        	else
+        	{
+        		Node goal = solve(initial);
+        		solutionMoves = (goal == null) ? null : movesTo(goal);
+        	}
+        	
+        	if (stats != null)
+        	{
+        		// The A* searches finish their own statistics with the open list and closed set
+        		if (options.algorithm() != SolverOptions.Algorithm.A_STAR)
+        		{
+        			stats.finish(expanded);
+        		}
+        		stats = stats.snapshot();
+        	}
+        }
+    }
+    
+    /*
+     * Record the boards of the solution found, with their estimates, and
+     * the end of the solve into the trace.
+     */
+    private void recordSolution()
+    {
+    	Heuristic estimates = options.heuristic();
+    	if (solutionMoves != null)
+    	{
+    		Board board = initial;
+    		for (int g = 0; ; g++)
+    		{
+    			trace.path(board.hashCode(), g, estimates.estimate(board));
+    			if (g == solutionMoves.length)
+    			{
+    				break;
+    			}
+    			board = board.move(solutionMoves[g]);
+    		}
+    	}
+    	trace.end((solutionMoves == null) ? -1 : solutionMoves.length, expanded);
+    }
+    
+	/*
+	 * Constructor for a Solver whose shortest solution is already known,
+	 * e.g. from a SolutionCache. No search is done.
+	 * 
+	 * @param Board initial the starting state of the board
+	 * @param byte[] moves the moves of a shortest solution, see Board.UP etc
+	 */
+    Solver(Board initial, byte[] moves)
+    {
+    	this.initial = initial;
+    	this.options = new SolverOptions();
+    	this.workspace = null;
+    	this.isSolvable = true;
+    	this.solutionMoves = moves;
+    }
+    
+    /*
+     * Walk back from the goal search node to the root, reading the move
+     * that created each board. The chain of nodes is not kept, so the 
+     * boards of a long solution can be collected once it is known.
+     * 
+     * @param Node goalStateNode the goal state search node
+     * 
+     * @return byte[] the moves from the initial board to the goal
+     */
+    static byte[] movesTo(Node goalStateNode)
+    {
+    	byte[] moves = new byte[goalStateNode.moves];
+        for (Node sn = goalStateNode; sn.previousNode != null; sn = sn.previousNode) 
+        {
+            moves[sn.moves - 1] = (byte) sn.board.lastMove();
         }
+        return moves;
     }
     
-    private Node solve(Board initial, Board twin) 
+    /*
+     * Solve the board with A*. The board is known to be solvable, so the
+     * search should always reach the goal, but if the open list runs out
+     * there is no solution rather than a null node to expand.
+     * 
+     * @param Board initial the starting state of the board
+     * 
+     * @return Node the goal state search node, or null if the goal was not reached
+     */
+    private Node solve(Board initial) 
     {    	
-    	//StdOut.println("Creating Minimum Priority Queues for Initial and Twin boards");
+    	//StdOut.println("Creating Minimum Priority Queue for Initial board");
     	
     	/*
     	 * mainPQ queue used to store the nodes in the tree that have not yet been 
     	 * expanded. The nodes with the smallest hueristic value will be checked 
     	 * first.
     	 */
-        MinPQ<Node> mainPQ = new MinPQ<Node>();
+        OpenList mainPQ = workspace.openList(options.openList());
         
         /*
-         * twinPQ used in the same way as the mainPQ but starts with a twin 
-         * of the initial node. A twin is the initial with two adjacent tiles 
-         * swapped. 
+         * Keep the smallest number of moves found so far to every state 
+         * that has been generated, so transpositions are only re-enqueued 
+         * when they are reached by a shorter path.
          */
-        MinPQ<Node> twinPQ = new MinPQ<Node>();
+        StateTable mainClosed = workspace.closed();
         
-        // Add root Nodes to the priority queues
-        mainPQ.insert(new Node(initial, null));
-        twinPQ.insert(new Node(twin, null));
+        // Add the root Node to the priority queue
+        mainPQ.insert(new Node(initial, null, heuristic));
+        mainClosed.put(initial, 0);
                
         //StdOut.println("Root board in mainPQ is\n" + initial);
-        //StdOut.println("Root board in TwinPQ is\n" + twin);
         //StdOut.println("Start loop until we find the goal board....");
                
-        /*
-         * Loop until the initial board has been solved or the twin board
-         * takes the glory, meaning the puzzle cannot be solved.                  
-         */
+        // Loop until the initial board has been solved
         while (true) 
         {        	
-        	//StdOut.println("-----Start of mainQP check");
         	// Check the board that has the smallest heuristic value in the main queue
-            Node node = nodeWithSmallestHeuristic(mainPQ);
+            Node node = nodeWithSmallestHeuristic(mainPQ, mainClosed);
+            if (node == null)
+            {
+            	numberOfEnqueues = 0;
+            	if (stats != null)
+            	{
+            		stats.finish(0, mainClosed);
+            	}
+            	return null;
+            }
+            
+            // Stop here if the search has been cancelled, and report progress
+            if (monitor != null && (expanded & (SearchMonitor.CHECK_INTERVAL - 1)) == 0)
+            {
+            	checkpoint(mainPQ, node.priority);
+            }
             
             /*
              *	Check that the node dequeued from the priority queue is the 
@@ -156,136 +485,376 @@ public class Solver
             if (node.board.isGoal())
             {
             	//StdOut.println("Found the board in the mainPQ!!");
-            	isSolvable = true;
             	numberOfEnqueues = mainPQ.size();
+            	if (stats != null)
+            	{
+            		stats.finish(mainPQ.size(), mainClosed);
+            	}
+            	
+            	// Let the unexpanded nodes be collected while the workspace waits for reuse
+            	mainPQ.clear();
                 return node;
             }
-            
-            //StdOut.println("-----End of mainQP check");
-
-            /*
-             * 	As described here 
-             * 	http://coursera.cs.princeton.edu/algs4/assignments/8puzzle.html
-             * 
-             *  If the twin of the initial puzzle is solvable it means that the 
-             *  initial puzzle is unsolvable, due to the fact that it is impossible 
-             *  to swap tiles directly without using the empty tile to do
-             *  so. If the twin of each board with one tile  swapped 
-             *  is solvable it means that the other board cannot be solved.   
-             */
-            //StdOut.println("-----Start of twinPQ check");
-            if(nodeWithSmallestHeuristic(twinPQ).board.isGoal()) 
-            {
-            	//StdOut.println("The puzzle is not solvable because we solved the twin :( ");
-                isSolvable = false;
-                return null;
-            }            
-            //StdOut.println("-----End of twinPQ check!!");
         }        
     }
     
-    private Node nodeWithSmallestHeuristic(MinPQ<Node> priorityQueue)
+    /*
+     * Pass a checkpoint of the monitor. When the search is cancelled the
+     * unexpanded nodes are let go before the CancellationException leaves.
+     * 
+     * @param OpenList open the open list of the search
+     * @param int bound the priority being expanded
+     */
+    private void checkpoint(OpenList open, int bound)
+    {
+    	try
+    	{
+    		monitor.checkpoint(bound, expanded);
+    	}
+    	catch (CancellationException e)
+    	{
+    		open.clear();
+    		throw e;
+    	}
+    }
+    
+    /*
+     * Solve the board with parallel A* on options.workers() threads.
+     * 
+     * @param Board initial the starting state of the board
+     * 
+     * @return Node the goal state search node
+     */
+    private Node solveInParallel(Board initial)
+    {
+    	// The untimed heuristic, the statistics are not safe to update from the workers
+    	ParallelSearch search = new ParallelSearch(initial, options.heuristic(), options.openList(), options.workers(), monitor);
+    	try
+    	{
+    		Node goal = search.solve();
+    		numberOfEnqueues = search.openSize();
+    		expanded = search.expanded();
+    		return goal;
+    	}
+    	catch (InterruptedException e)
+    	{
+    		Thread.currentThread().interrupt();
+    		throw new CancellationException("Interrupted while solving");
+    	}
+    }
+    
+    /*
+     * Remove the node with the smallest priority from the queue and expand it.
+     * Nodes that were queued before a shorter path to their board was found
+     * are stale and are skipped.
+     * 
+     * @param OpenList priorityQueue the queue of unexpanded nodes
+     * @param StateTable closed the best number of moves found to each board
+     * 
+     * @return Node the expanded node, or null if the queue is empty
+     */
+    private Node nodeWithSmallestHeuristic(OpenList priorityQueue, StateTable closed)
     {
     	//StdOut.println("Finding the board in the priorityQueue with minimum priority...");
-    	Node least = priorityQueue.delMin();
+    	long start = (stats == null) ? 0 : System.nanoTime();
+    	Node least;
+    	while (true)
+    	{
+    		if (priorityQueue.isEmpty())
+    		{
+    			return null;
+    		}
+    		least = priorityQueue.delMin();
+    		if (least.moves <= closed.get(least.board))
+    		{
+    			break;
+    		}
+    		if (stats != null)
+    		{
+    			stats.duplicate();
+    		}
+    	}
+    	expanded++;
+    	if (stats != null)
+    	{
+    		stats.queueTime(System.nanoTime() - start);
+    		stats.expanded(least.priority);
+    	}
+    	if (trace != null)
+    	{
+    		trace.expanded(least.board.hashCode(), least.moves, least.heuristic, priorityQueue.size());
+    	}
     	//StdOut.println("Least priority board in queue found and removed from priorityQueue is\n" + least.board + "priorityQueue size: " + priorityQueue.size());
     	
     	/*
     	 * For each board that is a neighbour of the least priority board
     	 * get its neighbours and move to the next node with least priority.
     	 * Expand the node an pick the next node that has the least heuristic cost
-    	 * so that we are moving closer to the goal state.  
+    	 * so that we are moving closer to the goal state. The board the least 
+    	 * priority board was created from is not generated again, but every
+    	 * move is made from the initial board, which may itself have been made
+    	 * by a move.
     	 */
-        for (Board neighbour : least.board.neighbours()) 
-        {            
-        	//StdOut.println("Neighbour found...");
-        	/*
-        	 * If this is the root board or the neighbour is not the same as the parent board,
-        	 * add it to the main priority queue. This is to avoid looping back
-        	 * to a board state that was previousNodely checked.
-        	 */
-            if (least.previousNode == null || !neighbour.equals(least.previousNode.board)) 
-            {
-            	//StdOut.println(">Adding NEW board to priorityQueue \n" + neighbour);
-            	priorityQueue.insert(new Node(neighbour, least));            	
-            }
+        expanding = least;
+        expandingOpen = priorityQueue;
+        expandingClosed = closed;
+        int skip = (least.previousNode == null) ? Board.NONE : Board.opposite(least.board.lastMove());
+        least.board.visitNeighbours(queueNeighbour, skip);
+        expanding = null;
+        if (stats != null)
+        {
+        	stats.openSize(priorityQueue.size());
+        	stats.progress(priorityQueue.size(), closed);
         }
         //StdOut.println("priorityQueue size: " + priorityQueue.size());
         
         return least;
     }
     
+    /*
+     * Queue a neighbour of the node being expanded if its board has not been
+     * seen before, or has been reached in fewer moves than before. This avoids
+     * looping back to a board state that was previously checked.
+     * 
+     * @param Board neighbour a board one move from the expanded node
+     */
+    private void queueNeighbour(Board neighbour)
+    {
+    	//StdOut.println("Neighbour found...");
+        if (expandingClosed.improve(neighbour, expanding.moves + 1)) 
+        {
+        	//StdOut.println(">Adding NEW board to priorityQueue \n" + neighbour);
+        	Node node = new Node(neighbour, expanding, heuristic);
+        	if (stats == null)
+        	{
+        		expandingOpen.insert(node);
+        	}
+        	else
+        	{
+        		long insertStart = System.nanoTime();
+        		expandingOpen.insert(node);
+        		stats.queueTime(System.nanoTime() - insertStart);
+        	}
+        }
+        else if (stats != null)
+        {
+        	stats.duplicate();
+        }
+        if (stats != null)
+        {
+        	stats.generated(1);
+        }
+    }
+    
     public boolean isSolvable()
     {
     	//StdOut.println("isSolvable called");
     	return isSolvable;
     }
     
+    /*
+     * Check whether a solution was found. Every solvable board has one
+     * unless an anytime search reached its limits first.
+     * 
+     * @return boolean true if there is a solution
+     */
+    public boolean hasSolution()
+    {
+    	return solutionMoves != null;
+    }
+    
+    /*
+     * How far the solution can be from the shortest. Every search gives the
+     * shortest solution apart from weighted A* and anytime searches that 
+     * stopped before their last iteration, see SolverOptions.Algorithm.
+     * 
+     * @return double the solution is at most this many times the shortest, 
+     * 			1 for the shortest, infinite if no bound is known
+     */
+    public double bound()
+    {
+    	return bound;
+    }
+    
+    /*
+     * The number of moves in the solution, the shortest unless bound() is
+     * above 1.
+     * 
+     * @return int the number of moves, or -1 if the puzzle is not solvable
+     * 			or no solution was found
+     */
     public int moves()
     {
     	//StdOut.println("Solver moves called");
-        return goalStateNode.moves;
+    	if (solutionMoves == null)
+    	{
+    		return -1;
+    	}
+        return solutionMoves.length;
     }
     
+    /*
+     * The number of boards the search expanded, 0 if no search was needed.
+     * 
+     * @return long expanded boards
+     */
+    public long expanded()
+    {
+    	return expanded;
+    }
+    
+    /*
+     * The statistics of the search, see SolverOptions.statistics().
+     * 
+     * @return SearchStats the final statistics, or null if they were not 
+     * 			collected or no search was needed
+     */
+    public SearchStats stats()
+    {
+    	return stats;
+    }
+    
+    /*
+     * The moves of the shortest solution, one byte per move holding the
+     * direction the tile slides, Board.UP, Board.DOWN, Board.LEFT or 
+     * Board.RIGHT. See Board.moveName() for the letters U, D, L and R.
+     * 
+     * @return byte[] a copy of the moves, or null if the puzzle is not solvable
+     * 			or no solution was found
+     */
+    public byte[] moveSequence()
+    {
+    	if (solutionMoves == null)
+    	{
+    		return null;
+    	}
+    	return solutionMoves.clone();
+    }
+    
+    /*
+     * The boards that the initial board goes through to get to the goal 
+     * state. The boards are not stored, each one is created by applying 
+     * the next move as the solution is iterated.
+     *  
+     *  initial -> move one tile -> move one tile -> .... -> goal state
+     * 
+     * @return Iterable<Board> the boards from initial to goal, or null if
+     * 			the puzzle is not solvable or no solution was found
+     */
     public Iterable<Board> solution()
     {    	
     	//StdOut.println("Solver iterable solution called");
     	
-    	/*
-    	 *  Create a stack of board states that lead to the goal state. 
-    	 *  The solution is all of the board states that the initial 
-    	 *  board goes through to get to the goal state
-    	 *  
-    	 *  initial -> move one tile -> move one tile -> .... -> goal state
-    	 */
-    	Stack<Board> solution = new Stack<Board>();
-    	
-    	/*
-    	 * Start at the goal board and push onto the stack 
-    	 * each of the previousNode nodes leading up to the 
-    	 * goal board. 
-    	 */
-        for (Node sn = goalStateNode; sn != null; sn = sn.previousNode) 
-        {
-            solution.push(sn.board);
-        }
-        
-        // Return the stack of boards so they can printed from initial to goal 
-        return solution;        
+    	// There is no solution to an unsolvable puzzle
+    	if (solutionMoves == null)
+    	{
+    		return null;
+    	}
+    	return () -> new Iterator<Board>()
+    	{
+    		private Board board = null; // the last board returned
+    		private int next = 0; // the next move to apply
+    		
+    		@Override
+    		public boolean hasNext()
+    		{
+    			return board == null || next < solutionMoves.length;
+    		}
+    		
+    		@Override
+    		public Board next()
+    		{
+    			if (!hasNext())
+    			{
+    				throw new NoSuchElementException();
+    			}
+    			board = (board == null) ? initial : board.move(solutionMoves[next++]);
+    			return board;
+    		}
+    	};
     }
     
-    public static void main(String [] args){
+    public static void main(String [] args) throws IOException {
     	//System.out.printf("Solver start\n");
-    	int N = StdIn.readInt();
-        int [][] tiles = new int [N][N];      
-        
-        // Create the 2d array from the values stored on file
-        for (int i = 0; i < N; i++){
-            for (int j = 0; j < N; j++){
-                tiles[i][j] = StdIn.readInt();
-            }
+    	
+        /*
+         * -moves prints the moves instead of every board, -goal file solves 
+         * into the board in the file instead of the standard goal, the other 
+         * arguments are search options
+         */
+        boolean movesOnly = false;
+        Goal goal = null;
+        List<String> solverArgs = new ArrayList<String>();
+        for (int i = 0; i < args.length; i++)
+        {
+        	if (args[i].equals("-moves"))
+        	{
+        		movesOnly = true;
+        	}
+        	else if (args[i].equals("-goal"))
+        	{
+        		goal = BatchSolver.readGoal(args[++i]);
+        	}
+        	else
+        	{
+        		solverArgs.add(args[i]);
+        	}
         }
         
-        // Create the initial board
-        Board initial = new Board(tiles);
+        // Create the initial board from N (or RxC) and the tiles on file
+        Board initial;
+        try (PuzzleReader in = PuzzleReader.open(System.in))
+        {
+        	initial = in.next(goal);
+        }
         
         // Solve the initial board
-        Solver solver = new Solver(initial);
+        SolverOptions options = SolverOptions.fromArgs(solverArgs.toArray(new String[0]));
+        Solver solver = new Solver(initial, options);
+        if (options.trace() != null)
+        {
+        	options.trace().close();
+        }
         
         /*
-         *  Loop through the boards in the stack and print
-         *  each board configuration. This will show which tile was moved
-         *  at each solution state from the initial board to the 
-         *  goal board. 
+         *  Print each board configuration from the initial board to the 
+         *  goal board, or only the moves when -moves is given. 
          */        
-        for (Board board : solver.solution()){
-            System.out.println(board);
-        }
-        
+        SolutionWriter out = new SolutionWriter(new PrintWriter(System.out));
         if(!solver.isSolvable())
-            System.out.println("No solution possible");
+        {
+            out.writeLine("No solution possible");
+        }
+        else if (!solver.hasSolution())
+        {
+        	out.writeLine("No solution found within the limits");
+        }
         else
-        	System.out.println("Number of states enqueued = " + solver.numberOfEnqueues);
-            System.out.println("Mininimum number of moves = " + solver.moves());
+        {
+        	if (movesOnly)
+        	{
+        		out.writeMoves(solver.moveSequence());
+        	}
+        	else
+        	{
+        		for (Board board : solver.solution()){
+        			out.writeBoard(board);
+        			out.writeLine("");
+        		}
+        	}
+        	out.writeLine("Number of states enqueued = " + solver.numberOfEnqueues);
+            out.writeLine("Mininimum number of moves = " + solver.moves());
+            if (solver.bound() != 1.0)
+            {
+            	out.writeLine("Within " + solver.bound() + " times the minimum");
+            }
+            
+            // With -stats the search statistics follow as one line of JSON
+            if (solver.stats() != null)
+            {
+            	out.writeLine(solver.stats().toJson());
+            }
+        }
+        out.flush();
     }
-}
\ No newline at end of file
+}
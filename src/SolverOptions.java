@@ -0,0 +1,664 @@
+import java.io.File;
+import java.io.IOException;
+
+/*
+ * SolverOptions.java
+ *
+ * The SolverOptions class holds the settings used by the Solver. Each setter
+ * returns the options so that settings can be chained, e.g.
+ *
+ * 		new Solver(initial, new SolverOptions().openList(OpenList.Type.HEAP));
+ *
+ * The default options use A* with the bucket open list.
+ *
+ * The node and time limits apply to every search. The weighted A* and anytime
+ * searches stop at the first limit reached with the best solution found so
+ * far. Any other search is stopped by its SearchMonitor, and the Solver
+ * constructor throws a CancellationException.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class SolverOptions
+{
+
+	/*
+	 * The search algorithms that the Solver can use.
+	 */
+	public enum Algorithm
+	{
+		// A* with an open list and a closed set, finds the solution with the fewest expansions
+		A_STAR,
+
+		// Iterative deepening A*, memory linear in the solution depth
+		IDA_STAR,
+
+		// A* forward from the initial board and backward from the goal, meeting in the middle
+		BIDIRECTIONAL,
+
+		// A* on several threads, each owning the boards whose hash maps to it
+		PARALLEL,
+
+		// A* ordering by moves + weight * heuristic, a solution at most weight times the shortest
+		WEIGHTED_A_STAR,
+
+		// Weighted A* repeated with lower weights down to 1 (ARA*), improving its solution until stopped
+		ANYTIME,
+
+		// A* with its open and closed lists in buckets on disk, for searches larger than the heap
+		EXTERNAL
+	}
+
+	// The search algorithm
+	private Algorithm algorithm = Algorithm.A_STAR;
+
+	// The type of open list used for the A* frontier
+	private OpenList.Type openList = OpenList.Type.BUCKET;
+
+	// Estimates the moves left to the goal
+	private Heuristic heuristic = new ManhattanHeuristic();
+
+	// Worker threads used by the parallel search
+	private int workers = Runtime.getRuntime().availableProcessors();
+
+	// Collect SearchStats for each solve
+	private boolean statistics = false;
+
+	// Keep the A* nodes as records in a NodeStore instead of as objects
+	private boolean compactNodes = false;
+
+	// Weight of the heuristic for weighted A*, the first weight of an anytime search
+	private double weight = 2.0;
+
+	// Most boards expanded by a search, 0 for no limit
+	private long nodeLimit = 0;
+
+	// Longest run of a search in milliseconds, 0 for no limit
+	private long timeLimitMillis = 0;
+
+	// Told about each solution a weighted or anytime search finds, or null
+	private SolutionListener listener;
+
+	// Told about the progress of every search, or null
+	private ProgressListener progressListener;
+
+	// Time between progress reports in milliseconds
+	private long progressIntervalMillis = 100;
+
+	// Holds the bucket files of the external search
+	private File spillDirectory = new File(System.getProperty("java.io.tmpdir"));
+
+	// Heap the external search buffers states in before spilling them to disk
+	private long memoryBytes = 256L << 20;
+
+	// Records every solve, or null
+	private SearchTrace trace;
+
+	/*
+	 * Create options from command line arguments, e.g.
+	 *
+	 * 		java Solver -ida < puzzle04
+	 *
+	 * 		-ida		use iterative deepening A*
+	 * 		-bidirectional	search from both the initial board and the goal
+	 * 		-parallel	use parallel A* on every processor
+	 * 		-workers n	number of threads used by -parallel
+	 * 		-stats		collect search statistics
+	 * 		-weighted w	use weighted A* with heuristic weight w
+	 * 		-anytime	use anytime repairing A* (ARA*)
+	 * 		-weight w	first weight of -anytime
+	 * 		-deadline ms	stop the search after ms milliseconds
+	 * 		-nodes n	stop the search after n expansions
+	 * 		-heap		use the binary heap open list
+	 * 		-compact	keep the A* nodes in a compact NodeStore
+	 * 		-external dir	use external A*, spilling its buckets to files in dir
+	 * 		-memory MB	heap used by -external before it spills to disk
+	 * 		-trace file	record every solve into a SearchTrace file
+	 * 		-pdb file	use the pattern database saved in file
+	 * 		-heuristic name	hamming, manhattan, linear (conflict) or walking (distance)
+	 *
+	 * @param String[] args the command line arguments
+	 *
+	 * @return SolverOptions the options
+	 */
+	public static SolverOptions fromArgs(String[] args) throws IOException
+	{
+		SolverOptions options = new SolverOptions();
+		for (int i = 0; i < args.length; i++)
+		{
+			int used = options.parseOption(args, i);
+			if (used == 0)
+			{
+				throw new IllegalArgumentException("Unknown option " + args[i]);
+			}
+			i += used - 1;
+		}
+		return options;
+	}
+
+	/*
+	 * Apply one of the options listed in fromArgs() to these options, so a
+	 * program with arguments of its own can pass the solver options through
+	 * without knowing which of them take a value.
+	 *
+	 * @param String[] args the command line arguments
+	 * @param int i the index of the option in args
+	 *
+	 * @return int the number of arguments used by the option and its value,
+	 *             0 if args[i] is not a solver option or its value is missing
+	 */
+	public int parseOption(String[] args, int i) throws IOException
+	{
+		String arg = args[i];
+		boolean hasValue = i + 1 < args.length;
+		String value = hasValue ? args[i + 1] : null;
+		if (arg.equals("-pdb") && hasValue)
+		{
+			heuristic(PatternDatabase.load(value));
+			return 2;
+		}
+		else if (arg.equals("-heuristic") && hasValue)
+		{
+			heuristic(heuristicNamed(value));
+			return 2;
+		}
+		else if (arg.equals("-ida"))
+		{
+			algorithm(Algorithm.IDA_STAR);
+		}
+		else if (arg.equals("-bidirectional"))
+		{
+			algorithm(Algorithm.BIDIRECTIONAL);
+		}
+		else if (arg.equals("-parallel"))
+		{
+			algorithm(Algorithm.PARALLEL);
+		}
+		else if (arg.equals("-workers") && hasValue)
+		{
+			workers(Integer.parseInt(value));
+			return 2;
+		}
+		else if (arg.equals("-stats"))
+		{
+			statistics(true);
+		}
+		else if (arg.equals("-weighted") && hasValue)
+		{
+			algorithm(Algorithm.WEIGHTED_A_STAR).weight(Double.parseDouble(value));
+			return 2;
+		}
+		else if (arg.equals("-anytime"))
+		{
+			algorithm(Algorithm.ANYTIME);
+		}
+		else if (arg.equals("-weight") && hasValue)
+		{
+			weight(Double.parseDouble(value));
+			return 2;
+		}
+		else if (arg.equals("-deadline") && hasValue)
+		{
+			timeLimitMillis(Long.parseLong(value));
+			return 2;
+		}
+		else if (arg.equals("-nodes") && hasValue)
+		{
+			nodeLimit(Long.parseLong(value));
+			return 2;
+		}
+		else if (arg.equals("-heap"))
+		{
+			openList(OpenList.Type.HEAP);
+		}
+		else if (arg.equals("-compact"))
+		{
+			compactNodes(true);
+		}
+		else if (arg.equals("-external") && hasValue)
+		{
+			algorithm(Algorithm.EXTERNAL).spillDirectory(new File(value));
+			return 2;
+		}
+		else if (arg.equals("-memory") && hasValue)
+		{
+			memoryBytes(Long.parseLong(value) << 20);
+			return 2;
+		}
+		else if (arg.equals("-trace") && hasValue)
+		{
+			trace(new SearchTrace(new File(value)));
+			return 2;
+		}
+		else
+		{
+			return 0;
+		}
+		return 1;
+	}
+
+	/*
+	 * The heuristic with the given command line name.
+	 *
+	 * @param String name hamming, manhattan, linear or walking
+	 *
+	 * @return Heuristic the heuristic
+	 */
+	private static Heuristic heuristicNamed(String name)
+	{
+		switch (name)
+		{
+			case "hamming":
+				return new HammingHeuristic();
+			case "manhattan":
+				return new ManhattanHeuristic();
+			case "linear":
+				return new LinearConflictHeuristic();
+			case "walking":
+				return new WalkingDistanceHeuristic();
+			default:
+				throw new IllegalArgumentException("Unknown heuristic " + name);
+		}
+	}
+
+	/*
+	 * The heuristic used to order the search.
+	 *
+	 * @return Heuristic the heuristic
+	 */
+	public Heuristic heuristic()
+	{
+		return heuristic;
+	}
+
+	/*
+	 * Set the heuristic used to order the search, e.g. a PatternDatabase.
+	 * It must never overestimate the moves left for the solution to be
+	 * the shortest.
+	 *
+	 * @param Heuristic heuristic the heuristic
+	 *
+	 * @return SolverOptions these options
+	 */
+	public SolverOptions heuristic(Heuristic heuristic)
+	{
+		this.heuristic = heuristic;
+		return this;
+	}
+
+	/*
+	 * The search algorithm.
+	 *
+	 * @return Algorithm the algorithm
+	 */
+	public Algorithm algorithm()
+	{
+		return algorithm;
+	}
+
+	/*
+	 * Set the search algorithm.
+	 *
+	 * @param Algorithm algorithm A_STAR, IDA_STAR, BIDIRECTIONAL, PARALLEL,
+	 * 			WEIGHTED_A_STAR, ANYTIME or EXTERNAL
+	 *
+	 * @return SolverOptions these options
+	 */
+	public SolverOptions algorithm(Algorithm algorithm)
+	{
+		this.algorithm = algorithm;
+		return this;
+	}
+
+	/*
+	 * The type of open list used for the A* frontier.
+	 *
+	 * @return OpenList.Type the open list type
+	 */
+	public OpenList.Type openList()
+	{
+		return openList;
+	}
+
+	/*
+	 * Set the type of open list used for the A* frontier.
+	 *
+	 * @param OpenList.Type openList BUCKET or HEAP
+	 *
+	 * @return SolverOptions these options
+	 */
+	public SolverOptions openList(OpenList.Type openList)
+	{
+		this.openList = openList;
+		return this;
+	}
+
+	/*
+	 * Whether the A* search keeps its nodes as records in a NodeStore.
+	 *
+	 * @return boolean true for compact nodes
+	 */
+	public boolean compactNodes()
+	{
+		return compactNodes;
+	}
+
+	/*
+	 * Keep the nodes of the A* search as fixed width records in the
+	 * primitive arrays of a NodeStore instead of as Node and Board objects,
+	 * see CompactSearch. Holds several times the frontier in the same heap
+	 * and gives the garbage collector almost nothing to trace, at the cost
+	 * of rebuilding each board as it is expanded. The compact search always
+	 * uses a bucket open list. Only used by A_STAR.
+	 *
+	 * @param boolean compactNodes true for compact nodes
+	 *
+	 * @return SolverOptions these options
+	 */
+	public SolverOptions compactNodes(boolean compactNodes)
+	{
+		this.compactNodes = compactNodes;
+		return this;
+	}
+
+	/*
+	 * The number of worker threads used by the parallel search.
+	 *
+	 * @return int worker threads
+	 */
+	public int workers()
+	{
+		return workers;
+	}
+
+	/*
+	 * Set the number of worker threads used by the parallel search.
+	 *
+	 * @param int workers worker threads, at least 1
+	 *
+	 * @return SolverOptions these options
+	 */
+	public SolverOptions workers(int workers)
+	{
+		if (workers < 1)
+		{
+			throw new IllegalArgumentException("Need at least 1 worker, not " + workers);
+		}
+		this.workers = workers;
+		return this;
+	}
+
+	/*
+	 * Whether each solve collects SearchStats.
+	 *
+	 * @return boolean true if statistics are collected
+	 */
+	public boolean statistics()
+	{
+		return statistics;
+	}
+
+	/*
+	 * Set whether each solve collects SearchStats. A search without
+	 * statistics only pays a null check at each point that would count.
+	 *
+	 * @param boolean statistics true to collect statistics
+	 *
+	 * @return SolverOptions these options
+	 */
+	public SolverOptions statistics(boolean statistics)
+	{
+		this.statistics = statistics;
+		return this;
+	}
+
+	/*
+	 * The weight of the heuristic for weighted A*, and the first weight
+	 * of an anytime search.
+	 *
+	 * @return double the weight
+	 */
+	public double weight()
+	{
+		return weight;
+	}
+
+	/*
+	 * Set the weight of the heuristic for weighted A*, and the first weight
+	 * of an anytime search. Larger weights find a solution sooner, which may
+	 * be up to weight times longer than the shortest. It is used to the
+	 * nearest hundredth.
+	 *
+	 * @param double weight the weight, at least 1
+	 *
+	 * @return SolverOptions these options
+	 */
+	public SolverOptions weight(double weight)
+	{
+		if (!(weight >= 1.0) || weight > 100.0)
+		{
+			throw new IllegalArgumentException("Weight must be from 1 to 100, not " + weight);
+		}
+		this.weight = weight;
+		return this;
+	}
+
+	/*
+	 * The most boards a search expands.
+	 *
+	 * @return long the limit, 0 for none
+	 */
+	public long nodeLimit()
+	{
+		return nodeLimit;
+	}
+
+	/*
+	 * Set the most boards a search expands. A weighted or anytime search
+	 * stops with the best solution found so far, any other search is
+	 * stopped with a CancellationException, see SearchMonitor. A node limit
+	 * gives the same result on every run however busy the machine is.
+	 *
+	 * @param long nodeLimit the limit, 0 for none
+	 *
+	 * @return SolverOptions these options
+	 */
+	public SolverOptions nodeLimit(long nodeLimit)
+	{
+		if (nodeLimit < 0)
+		{
+			throw new IllegalArgumentException("Node limit must not be negative, not " + nodeLimit);
+		}
+		this.nodeLimit = nodeLimit;
+		return this;
+	}
+
+	/*
+	 * The longest a search runs.
+	 *
+	 * @return long the limit in milliseconds, 0 for none
+	 */
+	public long timeLimitMillis()
+	{
+		return timeLimitMillis;
+	}
+
+	/*
+	 * Set the longest a search runs, counted from the start of the search.
+	 * A weighted or anytime search stops with the best solution found so
+	 * far, any other search is stopped with a CancellationException.
+	 *
+	 * @param long timeLimitMillis the limit in milliseconds, 0 for none
+	 *
+	 * @return SolverOptions these options
+	 */
+	public SolverOptions timeLimitMillis(long timeLimitMillis)
+	{
+		if (timeLimitMillis < 0)
+		{
+			throw new IllegalArgumentException("Time limit must not be negative, not " + timeLimitMillis);
+		}
+		this.timeLimitMillis = timeLimitMillis;
+		return this;
+	}
+
+	/*
+	 * The directory that holds the bucket files of the external search.
+	 *
+	 * @return File the directory
+	 */
+	public File spillDirectory()
+	{
+		return spillDirectory;
+	}
+
+	/*
+	 * Set the directory that holds the bucket files of the external search,
+	 * ideally on a fast local disk. The files are deleted when the search
+	 * ends.
+	 *
+	 * @param File spillDirectory an existing directory
+	 *
+	 * @return SolverOptions these options
+	 */
+	public SolverOptions spillDirectory(File spillDirectory)
+	{
+		if (!spillDirectory.isDirectory())
+		{
+			throw new IllegalArgumentException(spillDirectory + " is not a directory");
+		}
+		this.spillDirectory = spillDirectory;
+		return this;
+	}
+
+	/*
+	 * The heap the external search buffers states in.
+	 *
+	 * @return long the budget in bytes
+	 */
+	public long memoryBytes()
+	{
+		return memoryBytes;
+	}
+
+	/*
+	 * Set the heap the external search buffers new states and merges its
+	 * files in. Buckets are spilled to disk when their states outgrow it.
+	 *
+	 * @param long memoryBytes the budget in bytes, at least 1 MB
+	 *
+	 * @return SolverOptions these options
+	 */
+	public SolverOptions memoryBytes(long memoryBytes)
+	{
+		if (memoryBytes < ExternalSearch.MIN_MEMORY)
+		{
+			throw new IllegalArgumentException("Memory budget must be at least " + ExternalSearch.MIN_MEMORY + " bytes, not " + memoryBytes);
+		}
+		this.memoryBytes = memoryBytes;
+		return this;
+	}
+
+	/*
+	 * The trace every solve is recorded into.
+	 *
+	 * @return SearchTrace the trace, or null
+	 */
+	public SearchTrace trace()
+	{
+		return trace;
+	}
+
+	/*
+	 * Record every solve into a trace, see SearchTrace. The caller closes
+	 * the trace once the solves are done.
+	 *
+	 * @param SearchTrace trace the trace, or null for none
+	 *
+	 * @return SolverOptions these options
+	 */
+	public SolverOptions trace(SearchTrace trace)
+	{
+		this.trace = trace;
+		return this;
+	}
+
+	/*
+	 * The listener told about each solution a weighted or anytime search finds.
+	 *
+	 * @return SolutionListener the listener, or null
+	 */
+	public SolutionListener listener()
+	{
+		return listener;
+	}
+
+	/*
+	 * Set the listener told about each solution a weighted or anytime
+	 * search finds, as it finds them.
+	 *
+	 * @param SolutionListener listener the listener, or null for none
+	 *
+	 * @return SolverOptions these options
+	 */
+	public SolverOptions listener(SolutionListener listener)
+	{
+		this.listener = listener;
+		return this;
+	}
+
+	/*
+	 * The listener told about the progress of a search.
+	 *
+	 * @return ProgressListener the listener, or null
+	 */
+	public ProgressListener progressListener()
+	{
+		return progressListener;
+	}
+
+	/*
+	 * Set the listener told about the progress of a search, at most once
+	 * per progress interval. The parallel search does not report progress.
+	 *
+	 * @param ProgressListener progressListener the listener, or null for none
+	 *
+	 * @return SolverOptions these options
+	 */
+	public SolverOptions progressListener(ProgressListener progressListener)
+	{
+		this.progressListener = progressListener;
+		return this;
+	}
+
+	/*
+	 * The time between progress reports.
+	 *
+	 * @return long the interval in milliseconds
+	 */
+	public long progressIntervalMillis()
+	{
+		return progressIntervalMillis;
+	}
+
+	/*
+	 * Set the time between progress reports. Reports are made at search
+	 * checkpoints, so they can come a little later than this.
+	 *
+	 * @param long progressIntervalMillis the interval in milliseconds
+	 *
+	 * @return SolverOptions these options
+	 */
+	public SolverOptions progressIntervalMillis(long progressIntervalMillis)
+	{
+		if (progressIntervalMillis < 0)
+		{
+			throw new IllegalArgumentException("Progress interval must not be negative, not " + progressIntervalMillis);
+		}
+		this.progressIntervalMillis = progressIntervalMillis;
+		return this;
+	}
+}
@@ -0,0 +1,757 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * SolverServer.java
+ *
+ * The SolverServer class is a long running solver that answers puzzles sent
+ * over local sockets, so a puzzle costs a queue hand off instead of starting
+ * a JVM. The options, and any pattern database or other heuristic tables in
+ * them, are loaded once, each worker thread keeps its SearchWorkspace, and
+ * the JIT compiled search stays warm between requests.
+ *
+ * Requests are queued for a fixed pool of workers. The queue is bounded, and
+ * a request that finds it full is turned away at once (busy, or HTTP 503)
+ * rather than waiting, so an overloaded server answers quickly instead of
+ * building up a backlog. Each worker takes every request waiting, up to the
+ * batch size, in one go and solves them in turn, so bursts of small puzzles
+ * cost one queue operation and one wake up per batch rather than per puzzle.
+ * A line connection that sends many requests without waiting for the
+ * answers has them all queued before it waits, and gets the answers in order
+ * with one flush.
+ *
+ * The line protocol takes one puzzle per line, N followed by the N x N tiles
+ * or the rows and columns followed by the tiles, e.g.
+ *
+ * 		3 1 2 3 4 0 6 7 5 8
+ *
+ * and answers with the minimum number of moves and the moves, e.g.
+ *
+ * 		2 UL
+ *
+ * or -1 if the puzzle cannot be solved (or a weighted or anytime search found
+ * no solution within its limits), busy if the queue was full, or error and a
+ * message. The line stats answers with the counters as JSON.
+ *
+ * The HTTP endpoint takes a POST to /solve of {"tiles":[[1,2,3],[4,0,6],[7,5,8]]}
+ * and answers {"moves":2,"solution":"UL"}. GET /stats returns the counters.
+ *
+ * Both endpoints listen on the loopback address only.
+ *
+ * A request whose tiles are not a permutation of 0 to rows * columns - 1 is
+ * answered with an error before it is queued, see the Board constructor.
+ * A search that fails, even with an Error such as running out of heap,
+ * fails its request only, and the worker carries on with a new workspace.
+ * Each search is stopped at the node and time limits of the options, -nodes
+ * and -deadline, so one hard puzzle cannot hold a worker for ever. Without
+ * either, main() sets a node limit of DEFAULT_NODE_LIMIT.
+ *
+ * 		java SolverServer [-port n] [-http n] [-threads n] [-queue n] [-batch n] [-cache n] [-warmup n] [solver options]
+ *
+ * A port of 0 turns that endpoint off.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class SolverServer implements Closeable
+{
+
+	// Longest request read, in characters of a line or bytes of JSON
+	private static final int MAX_REQUEST = 1 << 16;
+
+	// Most requests of a line connection queued before its answers are written
+	private static final int MAX_PIPELINED = 256;
+
+	// Most boards a search expands when the options set no node or time limit
+	static final long DEFAULT_NODE_LIMIT = 4000000;
+
+	private final SolverOptions options; // search settings shared by all workers
+	private final SolutionCache cache; // shortest solutions already found, or null
+	private final BlockingQueue<Request> queue; // requests waiting for a worker
+	private final int batchSize; // most requests a worker takes at once
+	private final Thread[] workers; // solve the queued requests
+	private final ExecutorService connections; // serve the line connections and HTTP exchanges
+	private ServerSocket lineServer; // accepts line connections, or null
+	private HttpServer httpServer; // serves HTTP, or null
+	private volatile boolean closed; // close() has been called
+
+	private final AtomicLong solved = new AtomicLong(); // requests answered by a worker
+	private final AtomicLong rejected = new AtomicLong(); // requests turned away with the queue full
+	private final AtomicLong batches = new AtomicLong(); // batches taken by the workers
+
+	/*
+	 * A queued puzzle and the future of its answer.
+	 */
+	private static class Request
+	{
+		private final Board board;
+		private final CompletableFuture<Solver> result = new CompletableFuture<Solver>();
+
+		private Request(Board board)
+		{
+			this.board = board;
+		}
+	}
+
+	/*
+	 * Create a server and start its workers. No endpoint is open until
+	 * startLine() or startHttp() is called.
+	 *
+	 * @param SolverOptions options search settings for every request
+	 * @param SolutionCache cache answers repeated puzzles without a search, or null
+	 * @param int threads number of worker threads
+	 * @param int queueSize most requests waiting for a worker
+	 * @param int batchSize most requests a worker takes at once
+	 */
+	public SolverServer(SolverOptions options, SolutionCache cache, int threads, int queueSize, int batchSize)
+	{
+		if (threads < 1 || queueSize < 1 || batchSize < 1)
+		{
+			throw new IllegalArgumentException("Threads, queue and batch sizes must be at least 1");
+		}
+		this.options = options;
+		this.cache = cache;
+		this.queue = new ArrayBlockingQueue<Request>(queueSize);
+		this.batchSize = batchSize;
+		this.connections = Executors.newCachedThreadPool(task ->
+		{
+			Thread thread = new Thread(task, "solver-connection");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.workers = new Thread[threads];
+		for (int k = 0; k < threads; k++)
+		{
+			workers[k] = new Thread(this::work, "solver-worker-" + k);
+			workers[k].start();
+		}
+	}
+
+	/*
+	 * Queue a puzzle for the workers.
+	 *
+	 * @param Board board the puzzle
+	 *
+	 * @return CompletableFuture<Solver> completes with the solved Solver, or
+	 * 			has already failed with a RejectedExecutionException if the
+	 * 			queue is full
+	 */
+	public CompletableFuture<Solver> submit(Board board)
+	{
+		Request request = new Request(board);
+		if (closed || !queue.offer(request))
+		{
+			rejected.incrementAndGet();
+			request.result.completeExceptionally(new RejectedExecutionException("Server busy"));
+		}
+		return request.result;
+	}
+
+	/*
+	 * Solve random 3x3 boards so the search is compiled before the first
+	 * request arrives.
+	 *
+	 * @param int boards number of boards to solve
+	 */
+	public void warmUp(int boards)
+	{
+		Random random = new Random(boards);
+		for (int k = 0; k < boards; k++)
+		{
+			submit(PuzzleWorkloads.randomWalk(3, 1000, random)).join();
+		}
+	}
+
+	/*
+	 * Open the line protocol endpoint.
+	 *
+	 * @param int port the port on the loopback address
+	 */
+	public void startLine(int port) throws IOException
+	{
+		lineServer = new ServerSocket(port, 128, InetAddress.getLoopbackAddress());
+		Thread acceptor = new Thread(() ->
+		{
+			while (!closed)
+			{
+				try
+				{
+					Socket socket = lineServer.accept();
+					connections.execute(() -> serveLines(socket));
+				}
+				catch (IOException | RejectedExecutionException e)
+				{
+					// The server socket was closed
+				}
+			}
+		}, "solver-accept");
+		acceptor.setDaemon(true);
+		acceptor.start();
+	}
+
+	/*
+	 * Open the HTTP endpoint.
+	 *
+	 * @param int port the port on the loopback address
+	 */
+	public void startHttp(int port) throws IOException
+	{
+		httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 128);
+		httpServer.createContext("/solve", this::handleSolve);
+		httpServer.createContext("/stats", exchange -> reply(exchange, 200, statsJson()));
+		httpServer.setExecutor(connections);
+		httpServer.start();
+	}
+
+	/*
+	 * The port of the line protocol endpoint, useful when it was opened on
+	 * port 0.
+	 *
+	 * @return int the port, or -1 if it is not open
+	 */
+	public int linePort()
+	{
+		return (lineServer == null) ? -1 : lineServer.getLocalPort();
+	}
+
+	/*
+	 * The port of the HTTP endpoint.
+	 *
+	 * @return int the port, or -1 if it is not open
+	 */
+	public int httpPort()
+	{
+		return (httpServer == null) ? -1 : httpServer.getAddress().getPort();
+	}
+
+	/*
+	 * The counters of the server as a JSON object.
+	 *
+	 * @return String the JSON, without a line separator
+	 */
+	public String statsJson()
+	{
+		StringBuilder s = new StringBuilder();
+		s.append("{\"solved\":").append(solved.get());
+		s.append(",\"rejected\":").append(rejected.get());
+		s.append(",\"batches\":").append(batches.get());
+		s.append(",\"queued\":").append(queue.size());
+		if (cache != null)
+		{
+			s.append(",\"cacheHits\":").append(cache.hits());
+			s.append(",\"cacheMisses\":").append(cache.misses());
+		}
+		return s.append('}').toString();
+	}
+
+	/*
+	 * Close the endpoints, stop the workers and cancel the requests still
+	 * queued.
+	 * (non-Javadoc)
+	 * @see java.io.Closeable#close()
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		closed = true;
+		if (httpServer != null)
+		{
+			httpServer.stop(0);
+		}
+		if (lineServer != null)
+		{
+			lineServer.close();
+		}
+		connections.shutdownNow();
+		for (Thread worker : workers)
+		{
+			worker.interrupt();
+		}
+		List<Request> pending = new ArrayList<Request>();
+		queue.drainTo(pending);
+		for (Request request : pending)
+		{
+			request.result.cancel(false);
+		}
+	}
+
+	/*
+	 * Take batches of requests from the queue and solve them with this
+	 * worker's workspace until the server is closed. A request whose search
+	 * fails is completed with the failure. After an Error the workspace may
+	 * hold the tables of a huge search, so it is dropped and a new one is
+	 * made for the next request.
+	 */
+	private void work()
+	{
+		SearchWorkspace workspace = null;
+		List<Request> batch = new ArrayList<Request>(batchSize);
+		while (!closed)
+		{
+			try
+			{
+				batch.add(queue.take());
+			}
+			catch (InterruptedException e)
+			{
+				break;
+			}
+			queue.drainTo(batch, batchSize - 1);
+			batches.incrementAndGet();
+			for (Request request : batch)
+			{
+				try
+				{
+					if (workspace == null)
+					{
+						workspace = new SearchWorkspace();
+					}
+					Solver solver = (cache != null)
+							? cache.solve(request.board, options, workspace)
+							: new Solver(request.board, options, workspace);
+					solved.incrementAndGet();
+					request.result.complete(solver);
+				}
+				catch (RuntimeException e)
+				{
+					request.result.completeExceptionally(e);
+				}
+				catch (Error e)
+				{
+					// Let the tables go, the next request makes a new workspace
+					workspace = null;
+					request.result.completeExceptionally(e);
+				}
+			}
+			batch.clear();
+		}
+	}
+
+	/*
+	 * Answer the requests of one line connection until it is closed.
+	 * Requests that arrive together are all queued before the first answer
+	 * is waited for.
+	 *
+	 * @param Socket socket the connection
+	 */
+	private void serveLines(Socket socket)
+	{
+		try (Socket connection = socket;
+				BufferedReader in = new BufferedReader(
+						new InputStreamReader(connection.getInputStream(), StandardCharsets.US_ASCII), 1 << 16);
+				Writer out = new BufferedWriter(
+						new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.US_ASCII), 1 << 16))
+		{
+			connection.setTcpNoDelay(true);
+			List<CompletableFuture<String>> pending = new ArrayList<CompletableFuture<String>>();
+			String line;
+			while ((line = in.readLine()) != null)
+			{
+				pending.add(answerLine(line));
+				if (in.ready() && pending.size() < MAX_PIPELINED)
+				{
+					continue;
+				}
+				for (CompletableFuture<String> answer : pending)
+				{
+					out.write(answer.join());
+					out.write('\n');
+				}
+				pending.clear();
+				out.flush();
+			}
+		}
+		catch (IOException e)
+		{
+			// The client went away, there is no one to tell
+		}
+	}
+
+	/*
+	 * The answer to one line of the line protocol.
+	 *
+	 * @param String line the request
+	 *
+	 * @return CompletableFuture<String> the answer line, without the line separator
+	 */
+	private CompletableFuture<String> answerLine(String line)
+	{
+		String request = line.trim();
+		if (request.equals("stats"))
+		{
+			return CompletableFuture.completedFuture(statsJson());
+		}
+		Board board;
+		try
+		{
+			if (request.length() > MAX_REQUEST)
+			{
+				throw new IllegalArgumentException("Request too long");
+			}
+			board = new Board(parseLine(request));
+		}
+		catch (RuntimeException e)
+		{
+			return CompletableFuture.completedFuture("error " + e.getMessage());
+		}
+		return submit(board).handle((solver, error) ->
+		{
+			if (error == null)
+			{
+				if (!solver.hasSolution())
+				{
+					return "-1";
+				}
+				return (solver.moves() == 0) ? "0" : solver.moves() + " " + moveNames(solver.moveSequence());
+			}
+			Throwable cause = (error.getCause() != null) ? error.getCause() : error;
+			return (cause instanceof RejectedExecutionException) ? "busy" : "error " + cause.getMessage();
+		});
+	}
+
+	/*
+	 * Answer a POST to /solve.
+	 *
+	 * @param HttpExchange exchange the request and its response
+	 */
+	private void handleSolve(HttpExchange exchange) throws IOException
+	{
+		if (!exchange.getRequestMethod().equals("POST"))
+		{
+			reply(exchange, 405, "{\"error\":\"POST a puzzle to /solve\"}");
+			return;
+		}
+		Board board;
+		try (InputStream body = exchange.getRequestBody())
+		{
+			byte[] bytes = body.readNBytes(MAX_REQUEST + 1);
+			if (bytes.length > MAX_REQUEST)
+			{
+				throw new IllegalArgumentException("Request too long");
+			}
+			board = new Board(parseJsonTiles(new String(bytes, StandardCharsets.UTF_8)));
+		}
+		catch (RuntimeException e)
+		{
+			reply(exchange, 400, "{\"error\":\"" + jsonEscape(e.getMessage()) + "\"}");
+			return;
+		}
+
+		try
+		{
+			Solver solver = submit(board).get();
+			String solution = solver.hasSolution()
+					? ",\"solution\":\"" + moveNames(solver.moveSequence()) + "\""
+					: "";
+			reply(exchange, 200, "{\"moves\":" + solver.moves() + solution + "}");
+		}
+		catch (ExecutionException e)
+		{
+			if (e.getCause() instanceof RejectedExecutionException)
+			{
+				reply(exchange, 503, "{\"error\":\"busy\"}");
+			}
+			else
+			{
+				reply(exchange, 500, "{\"error\":\"" + jsonEscape(String.valueOf(e.getCause().getMessage())) + "\"}");
+			}
+		}
+		catch (CancellationException e)
+		{
+			// Stopped at the limits of the options, or cancelled by close()
+			reply(exchange, 500, "{\"error\":\"" + jsonEscape(e.getMessage()) + "\"}");
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			reply(exchange, 503, "{\"error\":\"shutting down\"}");
+		}
+	}
+
+	private static void reply(HttpExchange exchange, int status, String json) throws IOException
+	{
+		byte[] bytes = (json + "\n").getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, bytes.length);
+		try (OutputStream out = exchange.getResponseBody())
+		{
+			out.write(bytes);
+		}
+	}
+
+	/*
+	 * Parse a line protocol puzzle, N and N x N tiles or the rows, the
+	 * columns and rows x columns tiles.
+	 *
+	 * @param String line the request
+	 *
+	 * @return int[][] the tiles
+	 */
+	static int[][] parseLine(String line)
+	{
+		int[] numbers = new int[16];
+		int count = 0;
+		int k = 0;
+		while (k < line.length())
+		{
+			char c = line.charAt(k);
+			if (c == ' ' || c == '\t')
+			{
+				k++;
+				continue;
+			}
+			if (c < '0' || c > '9')
+			{
+				throw new IllegalArgumentException("Expected a number at column " + k);
+			}
+			int value = 0;
+			for (; k < line.length() && line.charAt(k) >= '0' && line.charAt(k) <= '9'; k++)
+			{
+				value = 10 * value + (line.charAt(k) - '0');
+				if (value > 0xFFFF)
+				{
+					throw new IllegalArgumentException("Number too large at column " + k);
+				}
+			}
+			if (count == numbers.length)
+			{
+				numbers = Arrays.copyOf(numbers, 2 * count);
+			}
+			numbers[count++] = value;
+		}
+		if (count == 0)
+		{
+			throw new IllegalArgumentException("Empty request");
+		}
+
+		// N x N unless the count only fits rows and columns
+		int rows = numbers[0];
+		int columns = rows;
+		int first = 1;
+		if (count != 1 + rows * columns)
+		{
+			columns = (count > 1) ? numbers[1] : 0;
+			first = 2;
+			if (count != 2 + rows * columns)
+			{
+				throw new IllegalArgumentException("Expected N and N x N tiles, or rows, columns and their tiles");
+			}
+		}
+		int[][] tiles = new int[rows][columns];
+		for (int cell = 0; cell < rows * columns; cell++)
+		{
+			tiles[cell / columns][cell % columns] = numbers[first + cell];
+		}
+		return tiles;
+	}
+
+	/*
+	 * Parse the tiles array of a JSON request, {"tiles":[[..],[..],..]}.
+	 * Other fields of the object are ignored.
+	 *
+	 * @param String json the request body
+	 *
+	 * @return int[][] the tiles, one array per row
+	 */
+	static int[][] parseJsonTiles(String json)
+	{
+		int k = json.indexOf("\"tiles\"");
+		if (k < 0)
+		{
+			throw new IllegalArgumentException("Request has no tiles");
+		}
+		k = json.indexOf('[', k);
+		if (k < 0)
+		{
+			throw new IllegalArgumentException("Tiles must be an array of rows");
+		}
+
+		List<int[]> rows = new ArrayList<int[]>();
+		int[] row = new int[16];
+		int length = 0;
+		int depth = 0;
+		do
+		{
+			if (k == json.length())
+			{
+				throw new IllegalArgumentException("Tiles array is not closed");
+			}
+			char c = json.charAt(k);
+			if (c == '[')
+			{
+				if (++depth > 2)
+				{
+					throw new IllegalArgumentException("Tiles must be an array of rows");
+				}
+				length = 0;
+				k++;
+			}
+			else if (c == ']')
+			{
+				if (depth-- == 2)
+				{
+					rows.add(Arrays.copyOf(row, length));
+				}
+				k++;
+			}
+			else if (c >= '0' && c <= '9' && depth == 2)
+			{
+				int value = 0;
+				for (; k < json.length() && json.charAt(k) >= '0' && json.charAt(k) <= '9'; k++)
+				{
+					value = 10 * value + (json.charAt(k) - '0');
+					if (value > 0xFFFF)
+					{
+						throw new IllegalArgumentException("Tile too large");
+					}
+				}
+				if (length == row.length)
+				{
+					row = Arrays.copyOf(row, 2 * length);
+				}
+				row[length++] = value;
+			}
+			else if (c == ',' || c <= ' ')
+			{
+				k++;
+			}
+			else
+			{
+				throw new IllegalArgumentException("Unexpected '" + c + "' in tiles");
+			}
+		}
+		while (depth > 0);
+
+		if (rows.isEmpty())
+		{
+			throw new IllegalArgumentException("Tiles array is empty");
+		}
+		return rows.toArray(new int[0][]);
+	}
+
+	private static String moveNames(byte[] moves)
+	{
+		char[] names = new char[moves.length];
+		for (int k = 0; k < moves.length; k++)
+		{
+			names[k] = Board.moveName(moves[k]);
+		}
+		return new String(names);
+	}
+
+	private static String jsonEscape(String text)
+	{
+		return (text == null) ? "" : text.replace("\\", "\\\\").replace("\"", "\\\"");
+	}
+
+	public static void main(String[] args) throws IOException
+	{
+		int port = 7070;
+		int httpPort = 7080;
+		int threads = Runtime.getRuntime().availableProcessors();
+		int queueSize = 1024;
+		int batchSize = 32;
+		int cacheEntries = 0;
+		int warmUp = 0;
+		List<String> solverArgs = new ArrayList<String>();
+		for (int i = 0; i < args.length; i++)
+		{
+			if (args[i].equals("-port"))
+			{
+				port = Integer.parseInt(args[++i]);
+			}
+			else if (args[i].equals("-http"))
+			{
+				httpPort = Integer.parseInt(args[++i]);
+			}
+			else if (args[i].equals("-threads"))
+			{
+				threads = Integer.parseInt(args[++i]);
+			}
+			else if (args[i].equals("-queue"))
+			{
+				queueSize = Integer.parseInt(args[++i]);
+			}
+			else if (args[i].equals("-batch"))
+			{
+				batchSize = Integer.parseInt(args[++i]);
+			}
+			else if (args[i].equals("-cache"))
+			{
+				cacheEntries = Integer.parseInt(args[++i]);
+			}
+			else if (args[i].equals("-warmup"))
+			{
+				warmUp = Integer.parseInt(args[++i]);
+			}
+			else
+			{
+				solverArgs.add(args[i]);
+			}
+		}
+
+		SolverOptions options = SolverOptions.fromArgs(solverArgs.toArray(new String[0]));
+		if (options.nodeLimit() == 0 && options.timeLimitMillis() == 0)
+		{
+			options.nodeLimit(DEFAULT_NODE_LIMIT);
+		}
+		SolutionCache cache = (cacheEntries > 0) ? new SolutionCache(cacheEntries, 64L * cacheEntries, false) : null;
+		SolverServer server = new SolverServer(options, cache, threads, queueSize, batchSize);
+		server.warmUp(warmUp);
+		if (port > 0)
+		{
+			server.startLine(port);
+			System.err.println("Line protocol on port " + server.linePort());
+		}
+		if (httpPort > 0)
+		{
+			server.startHttp(httpPort);
+			System.err.println("HTTP on port " + server.httpPort());
+		}
+		Runtime.getRuntime().addShutdownHook(new Thread(() ->
+		{
+			try
+			{
+				server.close();
+				if (options.trace() != null)
+				{
+					options.trace().close();
+				}
+			}
+			catch (IOException e)
+			{
+				// Exiting anyway
+			}
+		}));
+	}
+}
@@ -0,0 +1,518 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * StateSpaceSearch.java
+ *
+ * The StateSpaceSearch class enumerates every state reachable from a goal by
+ * breadth first search and writes the distance of each one into a
+ * DistanceTable, from which the distribution of optimal solution lengths and
+ * the hardest positions can be read. It can track every tile, e.g. the whole
+ * 8 puzzle, or only some of them, e.g. tiles 1 to 7 of the 15 puzzle, see
+ * DistanceTable.
+ *
+ * The search is external memory: its heap use is fixed by a memory budget
+ * whatever the size of the state space, and everything else is in files
+ * that are read and written in order.
+ *
+ * - Each level of the search (the frontier) is a file of the ranks of its
+ *   states in ascending order, each stored as a variable length delta from
+ *   the one before.
+ * - Expanding a level streams its file and collects the ranks of the
+ *   successors in a buffer the size of the memory budget. Each time the
+ *   buffer fills it is sorted, duplicates are removed and it is written out
+ *   as a sorted run.
+ * - Duplicates are then detected in one delayed pass. The runs are merged,
+ *   dropping repeated ranks, and each rank is looked up in the table, which
+ *   is memory mapped. As the merge produces ranks in ascending order the
+ *   table is swept from start to end rather than read at random. A rank that
+ *   is not yet in the table is new: its distance is recorded and it is
+ *   appended to the file of the next level.
+ * - When there are more runs than can be merged at once within the budget,
+ *   they are first merged in groups into longer runs.
+ *
+ * 		java StateSpaceSearch [-memory MB] [-dir path] [-tiles 1,2,3] [-goal file] rows [columns] table
+ *
+ * builds a table for a rows x columns board, tracking every tile unless
+ * -tiles is given, and prints the distribution of distances and some of the
+ * hardest states. java DistanceTable table prints them again later.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class StateSpaceSearch
+{
+
+	// Smallest memory budget, enough for a useful sort buffer
+	private static final long MIN_MEMORY = 1 << 20;
+
+	// Hardest states printed by printSummary()
+	private static final int HARDEST_PRINTED = 5;
+
+	private final Goal goal; // the goal the search starts from
+	private final int[] tiles; // the tracked tiles, not counting the blank
+	private final File directory; // holds the frontier and run files
+	private final long[] buffer; // successors of the level being expanded
+	private final int fanIn; // most runs merged at once
+	private int files; // number of work files created, for unique names
+
+	/*
+	 * Create a search.
+	 *
+	 * @param Goal goal the goal to search from, at most 64 cells
+	 * @param int[] tiles the tiles to track, the other tiles are not told apart
+	 * @param long memoryBytes heap to use for sorting and merging
+	 * @param File directory holds the work files, which are deleted as they are used up
+	 */
+	public StateSpaceSearch(Goal goal, int[] tiles, long memoryBytes, File directory)
+	{
+		if (goal.cells() > 64)
+		{
+			throw new IllegalArgumentException("Boards of more than 64 cells cannot be ranked, not " + goal.cells());
+		}
+		if (memoryBytes < MIN_MEMORY)
+		{
+			throw new IllegalArgumentException("Memory budget must be at least " + MIN_MEMORY + " bytes");
+		}
+		this.goal = goal;
+		this.tiles = tiles.clone();
+		boolean[] tracked = new boolean[goal.cells()];
+		for (int tile : tiles)
+		{
+			if (tile <= 0 || tile >= goal.cells() || tracked[tile])
+			{
+				throw new IllegalArgumentException("Tracked tiles must be distinct tiles from 1 to " + (goal.cells() - 1));
+			}
+			tracked[tile] = true;
+		}
+		DistanceTable.states(goal.cells(), tiles.length);
+		this.directory = directory;
+
+		// Half the budget sorts, the other half buffers the files of a merge
+		this.buffer = new long[(int) Math.min(Integer.MAX_VALUE - 8, memoryBytes / 2 / Long.BYTES)];
+		this.fanIn = (int) Math.max(2, Math.min(1024, memoryBytes / 2 / RankFile.IO_BUFFER - 1));
+	}
+
+	/*
+	 * The tiles 1 to cells - 1, to track every tile.
+	 *
+	 * @param Goal goal the goal
+	 *
+	 * @return int[] every tile
+	 */
+	public static int[] allTiles(Goal goal)
+	{
+		int[] tiles = new int[goal.cells() - 1];
+		for (int tile = 1; tile < goal.cells(); tile++)
+		{
+			tiles[tile - 1] = tile;
+		}
+		return tiles;
+	}
+
+	/*
+	 * Search the whole state space and write the distance table.
+	 *
+	 * @param String tableFile path of the table file, replaced if it exists
+	 *
+	 * @return DistanceTable the complete table
+	 */
+	public DistanceTable run(String tableFile) throws IOException
+	{
+		DistanceTable table = DistanceTable.create(tableFile, goal, tiles);
+		int[] positions = new int[tiles.length + 1];
+		for (int slot = 0; slot < positions.length; slot++)
+		{
+			positions[slot] = goal.cellOf((slot == 0) ? 0 : tiles[slot - 1]);
+		}
+		long start = DistanceTable.rank(positions, goal.cells());
+		table.set(start, 0);
+
+		File frontier = newFile();
+		try (RankFile.Writer out = new RankFile.Writer(frontier))
+		{
+			out.write(start);
+		}
+
+		List<Long> counts = new ArrayList<Long>();
+		counts.add(1L);
+		while (true)
+		{
+			int distance = counts.size();
+			List<File> runs = expand(frontier);
+			delete(frontier);
+			if (runs.isEmpty())
+			{
+				break;
+			}
+			if (distance > DistanceTable.MAX_DISTANCE)
+			{
+				throw new IllegalStateException("States further than " + DistanceTable.MAX_DISTANCE + " moves");
+			}
+			frontier = newFile();
+			long count = mergeNew(runs, table, distance, frontier);
+			if (count == 0)
+			{
+				delete(frontier);
+				break;
+			}
+			counts.add(count);
+		}
+
+		long[] totals = new long[counts.size()];
+		for (int distance = 0; distance < totals.length; distance++)
+		{
+			totals[distance] = counts.get(distance);
+		}
+		table.finish(totals);
+		return table;
+	}
+
+	/*
+	 * Generate the successors of every state in a frontier file, as sorted
+	 * runs without duplicates.
+	 *
+	 * @param File frontier the ranks of the level
+	 *
+	 * @return List<File> the runs
+	 */
+	private List<File> expand(File frontier) throws IOException
+	{
+		int cells = goal.cells();
+		int[] positions = new int[tiles.length + 1];
+		int[] slotAt = new int[cells];
+		Arrays.fill(slotAt, -1);
+		List<File> runs = new ArrayList<File>();
+		int size = 0;
+		try (RankFile.Reader in = new RankFile.Reader(frontier))
+		{
+			for (long rank = in.next(); rank >= 0; rank = in.next())
+			{
+				DistanceTable.unrank(rank, cells, positions);
+				for (int slot = 0; slot < positions.length; slot++)
+				{
+					slotAt[positions[slot]] = slot;
+				}
+
+				int blank = positions[0];
+				for (int direction = Board.UP; direction <= Board.RIGHT; direction++)
+				{
+					int cell = neighbour(blank, direction);
+					if (cell < 0)
+					{
+						continue;
+					}
+
+					// The tile in the cell slides into the blank, a tracked tile changes the state
+					int slot = slotAt[cell];
+					positions[0] = cell;
+					if (slot > 0)
+					{
+						positions[slot] = blank;
+					}
+					if (size == buffer.length)
+					{
+						runs.add(writeRun(size));
+						size = 0;
+					}
+					buffer[size++] = DistanceTable.rank(positions, cells);
+					positions[0] = blank;
+					if (slot > 0)
+					{
+						positions[slot] = cell;
+					}
+				}
+
+				for (int slot = 0; slot < positions.length; slot++)
+				{
+					slotAt[positions[slot]] = -1;
+				}
+			}
+		}
+		if (size > 0)
+		{
+			runs.add(writeRun(size));
+		}
+		return runs;
+	}
+
+	/*
+	 * Sort the start of the buffer and write it as a run without duplicates.
+	 */
+	private File writeRun(int size) throws IOException
+	{
+		Arrays.sort(buffer, 0, size);
+		File run = newFile();
+		try (RankFile.Writer out = new RankFile.Writer(run))
+		{
+			out.write(buffer[0]);
+			for (int k = 1; k < size; k++)
+			{
+				if (buffer[k] != buffer[k - 1])
+				{
+					out.write(buffer[k]);
+				}
+			}
+		}
+		return run;
+	}
+
+	/*
+	 * Merge the runs of a level into its frontier file, keeping only the
+	 * states not already in the table and recording their distance.
+	 *
+	 * @param List<File> runs the sorted runs, deleted once merged
+	 * @param DistanceTable table the distances found so far
+	 * @param int distance the distance of the level
+	 * @param File frontier receives the new states
+	 *
+	 * @return long the number of new states
+	 */
+	private long mergeNew(List<File> runs, DistanceTable table, int distance, File frontier) throws IOException
+	{
+		// Merge in groups until one pass can take every run
+		while (runs.size() > fanIn)
+		{
+			List<File> merged = new ArrayList<File>();
+			for (int from = 0; from < runs.size(); from += fanIn)
+			{
+				List<File> group = runs.subList(from, Math.min(runs.size(), from + fanIn));
+				File run = newFile();
+				try (RankFile.Writer out = new RankFile.Writer(run))
+				{
+					merge(group, rank -> out.write(rank));
+				}
+				merged.add(run);
+			}
+			runs = merged;
+		}
+
+		long[] count = new long[1];
+		try (RankFile.Writer out = new RankFile.Writer(frontier))
+		{
+			merge(runs, rank ->
+			{
+				if (table.distance(rank) < 0)
+				{
+					table.set(rank, distance);
+					out.write(rank);
+					count[0]++;
+				}
+			});
+		}
+		return count[0];
+	}
+
+	/*
+	 * Receives the ranks of a merge in ascending order.
+	 */
+	private interface RankSink
+	{
+		void accept(long rank) throws IOException;
+	}
+
+	/*
+	 * Merge sorted runs into one ascending sequence without duplicates,
+	 * deleting the runs.
+	 *
+	 * @param List<File> runs the runs
+	 * @param RankSink sink receives each rank once
+	 */
+	private static void merge(List<File> runs, RankSink sink) throws IOException
+	{
+		RankFile.Reader[] readers = new RankFile.Reader[runs.size()];
+		long[] heads = new long[runs.size()];
+		try
+		{
+			for (int k = 0; k < readers.length; k++)
+			{
+				readers[k] = new RankFile.Reader(runs.get(k));
+				heads[k] = readers[k].next();
+			}
+
+			// The fan in is small, so the smallest head is found by a scan rather than a heap
+			long last = -1;
+			while (true)
+			{
+				int smallest = -1;
+				for (int k = 0; k < heads.length; k++)
+				{
+					if (heads[k] >= 0 && (smallest < 0 || heads[k] < heads[smallest]))
+					{
+						smallest = k;
+					}
+				}
+				if (smallest < 0)
+				{
+					break;
+				}
+				long rank = heads[smallest];
+				heads[smallest] = readers[smallest].next();
+				if (rank != last)
+				{
+					sink.accept(rank);
+					last = rank;
+				}
+			}
+		}
+		finally
+		{
+			for (RankFile.Reader reader : readers)
+			{
+				if (reader != null)
+				{
+					reader.close();
+				}
+			}
+			for (File run : runs)
+			{
+				delete(run);
+			}
+		}
+	}
+
+	/*
+	 * The cell next to the blank in the given direction of a tile move.
+	 *
+	 * @param int blank cell of the blank
+	 * @param int direction Board.UP etc
+	 *
+	 * @return int the cell of the tile that would move, or -1 if there is none
+	 */
+	private int neighbour(int blank, int direction)
+	{
+		int columns = goal.columns();
+		switch (direction)
+		{
+			case Board.UP:
+				return (goal.rowOf(blank) < goal.rows() - 1) ? blank + columns : -1;
+			case Board.DOWN:
+				return (blank >= columns) ? blank - columns : -1;
+			case Board.LEFT:
+				return (goal.columnOf(blank) < columns - 1) ? blank + 1 : -1;
+			default:
+				return (goal.columnOf(blank) > 0) ? blank - 1 : -1;
+		}
+	}
+
+	private File newFile()
+	{
+		return new File(directory, "bfs-" + (files++) + ".ranks");
+	}
+
+	private static void delete(File file) throws IOException
+	{
+		if (!file.delete() && file.exists())
+		{
+			throw new IOException("Could not delete " + file);
+		}
+	}
+
+	/*
+	 * Print the number of states at each distance and some of the states
+	 * at the largest distance.
+	 *
+	 * @param DistanceTable table the table
+	 * @param PrintStream out receives the summary
+	 */
+	static void printSummary(DistanceTable table, PrintStream out)
+	{
+		long reachable = 0;
+		for (int distance = 0; distance <= table.maxDistance(); distance++)
+		{
+			out.println(distance + " " + table.count(distance));
+			reachable += table.count(distance);
+		}
+		out.println("Reachable states = " + reachable + " of " + table.states());
+		out.println("Largest distance = " + table.maxDistance()
+				+ " (" + table.count(table.maxDistance()) + " states)");
+
+		// The hardest states are found by a sweep of the table
+		int printed = 0;
+		for (long rank = 0; rank < table.states() && printed < HARDEST_PRINTED; rank++)
+		{
+			if (table.distance(rank) == table.maxDistance())
+			{
+				out.println();
+				for (int[] row : table.layout(rank))
+				{
+					StringBuilder line = new StringBuilder();
+					for (int tile : row)
+					{
+						line.append((tile < 0) ? " ." : String.format("%2d", tile)).append(' ');
+					}
+					out.println(line);
+				}
+				printed++;
+			}
+		}
+	}
+
+	public static void main(String[] args) throws IOException
+	{
+		long memoryBytes = 256L << 20;
+		File directory = new File(System.getProperty("java.io.tmpdir"));
+		String tileList = null;
+		String goalFile = null;
+		List<String> rest = new ArrayList<String>();
+		for (int i = 0; i < args.length; i++)
+		{
+			if (args[i].equals("-memory"))
+			{
+				memoryBytes = Long.parseLong(args[++i]) << 20;
+			}
+			else if (args[i].equals("-dir"))
+			{
+				directory = new File(args[++i]);
+			}
+			else if (args[i].equals("-tiles"))
+			{
+				tileList = args[++i];
+			}
+			else if (args[i].equals("-goal"))
+			{
+				goalFile = args[++i];
+			}
+			else
+			{
+				rest.add(args[i]);
+			}
+		}
+		if (rest.size() < 2)
+		{
+			System.err.println("Usage: java StateSpaceSearch [-memory MB] [-dir path] [-tiles 1,2,3] [-goal file]"
+					+ " rows [columns] table");
+			System.exit(2);
+		}
+
+		int rows = Integer.parseInt(rest.get(0));
+		int columns = (rest.size() > 2) ? Integer.parseInt(rest.get(1)) : rows;
+		Goal goal = (goalFile != null) ? BatchSolver.readGoal(goalFile) : Goal.standard(rows, columns);
+		if (goal.rows() != rows || goal.columns() != columns)
+		{
+			throw new IllegalArgumentException("Goal is " + goal.rows() + "x" + goal.columns() + ", not " + rows + "x" + columns);
+		}
+		int[] tiles = allTiles(goal);
+		if (tileList != null)
+		{
+			String[] parts = tileList.split(",");
+			tiles = new int[parts.length];
+			for (int slot = 0; slot < parts.length; slot++)
+			{
+				tiles[slot] = Integer.parseInt(parts[slot].trim());
+			}
+		}
+
+		long start = System.currentTimeMillis();
+		DistanceTable table = new StateSpaceSearch(goal, tiles, memoryBytes, directory).run(rest.get(rest.size() - 1));
+		printSummary(table, System.out);
+		System.out.println("Searched in " + (System.currentTimeMillis() - start) + " ms");
+	}
+}
@@ -0,0 +1,288 @@
+import java.util.Arrays;
+
+/*
+ * StateTable.java
+ *
+ * The StateTable class maps board states to an int value, normally the
+ * smallest number of moves (g-value) found so far to reach that state. It
+ * is an open addressing hash table with linear probing that stores the packed
+ * tiles of each board in a long array, so the Solver can detect duplicate
+ * states without keeping Board objects alive as keys. All boards stored in
+ * one table must have the same size.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class StateTable
+{
+
+	// Returned by get() when the board is not in the table
+	public static final int NOT_FOUND = -1;
+
+	// Marks an empty slot in the values array
+	private static final int EMPTY = Integer.MIN_VALUE;
+
+	private static final int INITIAL_CAPACITY = 1 << 10;
+
+	// clear() allocates smaller arrays when fewer than 1 / SHRINK_RATIO of the slots were used
+	private static final int SHRINK_RATIO = 8;
+
+	private int words; // longs per key, set by the first board stored
+	private long[] keys; // packed tiles, words longs per slot
+	private int[] hashes; // cached board hashes so resizing does not need the boards
+	private int[] values; // value per slot, EMPTY if the slot is unused
+	private int mask; // capacity - 1, capacity is a power of 2
+	private int size; // number of states stored
+
+	/*
+	 * Create an empty table.
+	 */
+	public StateTable()
+	{
+		allocate(INITIAL_CAPACITY, 0);
+	}
+
+	/*
+	 * The number of states stored in the table.
+	 *
+	 * @return int size
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/*
+	 * The bytes used by the table's arrays.
+	 *
+	 * @return long bytes allocated
+	 */
+	public long memoryBytes()
+	{
+		return 8L * keys.length + 4L * hashes.length + 4L * values.length;
+	}
+
+	/*
+	 * Remove every state from the table so it can be reused for another
+	 * search. The arrays are kept and emptied when the last search used a
+	 * good part of them, so emptying them costs about as much as that
+	 * search spent filling them. When it used only a few slots of arrays
+	 * grown by an earlier search, arrays sized for it are allocated instead,
+	 * so a run of small searches after a large one does not each pay to
+	 * empty the large arrays.
+	 */
+	public void clear()
+	{
+		int capacity = INITIAL_CAPACITY;
+		while (capacity < 4 * size)
+		{
+			capacity <<= 1;
+		}
+		words = 0;
+		if ((long) SHRINK_RATIO * size < values.length && capacity < values.length)
+		{
+			allocate(capacity, 0);
+		}
+		else
+		{
+			Arrays.fill(values, EMPTY);
+		}
+		size = 0;
+	}
+
+	/*
+	 * The value stored for a board.
+	 *
+	 * @param Board board the state to look up
+	 *
+	 * @return int the stored value, or NOT_FOUND
+	 */
+	public int get(Board board)
+	{
+		if (size == 0)
+		{
+			return NOT_FOUND;
+		}
+		int slot = find(board);
+		return (values[slot] == EMPTY) ? NOT_FOUND : values[slot];
+	}
+
+	/*
+	 * Store a value for a board, replacing any previous value.
+	 *
+	 * @param Board board the state to store
+	 * @param int value the value for the state, must not be negative
+	 */
+	public void put(Board board, int value)
+	{
+		int slot = prepare(board);
+		if (values[slot] == EMPTY)
+		{
+			insert(slot, board, value);
+		}
+		else
+		{
+			values[slot] = value;
+		}
+	}
+
+	/*
+	 * Store a value for a board if the board is not in the table yet, or if
+	 * the new value is smaller than the stored one. The Solver uses this to
+	 * record the best g-value per state and to reopen a state only when
+	 * a shorter path to it is found.
+	 *
+	 * @param Board board the state to store
+	 * @param int value the value for the state, must not be negative
+	 *
+	 * @return boolean true if the table was changed
+	 */
+	public boolean improve(Board board, int value)
+	{
+		int slot = prepare(board);
+		if (values[slot] == EMPTY)
+		{
+			insert(slot, board, value);
+			return true;
+		}
+		if (value < values[slot])
+		{
+			values[slot] = value;
+			return true;
+		}
+		return false;
+	}
+
+	/*
+	 * Grow the table if needed and find the slot for a board.
+	 *
+	 * @param Board board the state to store
+	 *
+	 * @return int the slot holding the board, or the empty slot where it belongs
+	 */
+	private int prepare(Board board)
+	{
+		if (words == 0)
+		{
+			words = board.keyWords();
+			if (keys.length != values.length * words)
+			{
+				keys = new long[values.length * words];
+			}
+		}
+		if (2 * (size + 1) > values.length)
+		{
+			allocate(values.length * 2, size);
+		}
+		return find(board);
+	}
+
+	/*
+	 * Linear probe from the board's hash until the board or an empty slot
+	 * is found. The table is never more than half full so an empty slot
+	 * always exists.
+	 *
+	 * @param Board board the state to find
+	 *
+	 * @return int the slot holding the board, or the empty slot where it belongs
+	 */
+	private int find(Board board)
+	{
+		int hash = board.hashCode();
+		int slot = hash & mask;
+		while (values[slot] != EMPTY)
+		{
+			if (hashes[slot] == hash && matches(slot, board))
+			{
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	/*
+	 * Compare the packed key stored in a slot against a board.
+	 *
+	 * @param int slot the slot to compare
+	 * @param Board board the state to compare
+	 *
+	 * @return boolean true if the slot holds the board
+	 */
+	private boolean matches(int slot, Board board)
+	{
+		int offset = slot * words;
+		for (int word = 0; word < words; word++)
+		{
+			if (keys[offset + word] != board.keyWord(word))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/*
+	 * Store a board in an empty slot.
+	 *
+	 * @param int slot the empty slot
+	 * @param Board board the state to store
+	 * @param int value the value for the state
+	 */
+	private void insert(int slot, Board board, int value)
+	{
+		int offset = slot * words;
+		for (int word = 0; word < words; word++)
+		{
+			keys[offset + word] = board.keyWord(word);
+		}
+		hashes[slot] = board.hashCode();
+		values[slot] = value;
+		size++;
+	}
+
+	/*
+	 * Allocate arrays of the given capacity and rehash any stored states
+	 * into them.
+	 *
+	 * @param int capacity the new number of slots, a power of 2
+	 * @param int count the number of states currently stored
+	 */
+	private void allocate(int capacity, int count)
+	{
+		long[] oldKeys = keys;
+		int[] oldHashes = hashes;
+		int[] oldValues = values;
+
+		keys = new long[capacity * Math.max(words, 1)];
+		hashes = new int[capacity];
+		values = new int[capacity];
+		Arrays.fill(values, EMPTY);
+		mask = capacity - 1;
+
+		if (count == 0)
+		{
+			return;
+		}
+
+		// Move every used slot to its position in the larger table
+		for (int old = 0; old < oldValues.length; old++)
+		{
+			if (oldValues[old] == EMPTY)
+			{
+				continue;
+			}
+			int slot = oldHashes[old] & mask;
+			while (values[slot] != EMPTY)
+			{
+				slot = (slot + 1) & mask;
+			}
+			System.arraycopy(oldKeys, old * words, keys, slot * words, words);
+			hashes[slot] = oldHashes[old];
+			values[slot] = oldValues[old];
+		}
+	}
+}
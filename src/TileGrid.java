@@ -0,0 +1,88 @@
+/*
+ * TileGrid.java
+ *
+ * The TileGrid interface is a read only view of the tiles of a board. It is
+ * implemented by both the immutable Board and the MutableBoard used by depth
+ * first searches, so that heuristics can be evaluated on either.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public interface TileGrid
+{
+
+	/*
+	 * The number of rows in the board.
+	 *
+	 * @return int rows
+	 */
+	int rows();
+
+	/*
+	 * The number of columns in the board.
+	 *
+	 * @return int columns
+	 */
+	int columns();
+
+	/*
+	 * The layout the board is solved into.
+	 *
+	 * @return Goal the goal
+	 */
+	Goal goal();
+
+	/*
+	 * The number of rows (and columns) in a square N x N board. Code that
+	 * also handles rectangular boards uses rows() and columns().
+	 *
+	 * @return int N
+	 */
+	default int dimension()
+	{
+		return rows();
+	}
+
+	/*
+	 * The value of the tile stored at the index i * columns + j.
+	 *
+	 * @param int index position of the tile in row major order
+	 *
+	 * @return int the tile value at that position
+	 */
+	int tileAt(int index);
+
+	/*
+	 * The index of the empty tile.
+	 *
+	 * @return int blank position in row major order
+	 */
+	int blank();
+
+	/*
+	 * The index of the tile that has just been moved by an operator. The
+	 * tile slid into the old empty space, which is next to the new one in
+	 * the direction of the move.
+	 *
+	 * @param int direction the move that was applied, Board.UP etc
+	 *
+	 * @return int the position of the moved tile in row major order
+	 */
+	default int movedTileIndex(int direction)
+	{
+		switch (direction)
+		{
+			case Board.UP:
+				return blank() - columns();
+			case Board.DOWN:
+				return blank() + columns();
+			case Board.LEFT:
+				return blank() - 1;
+			default:
+				return blank() + 1;
+		}
+	}
+}
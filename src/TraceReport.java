@@ -0,0 +1,367 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * TraceReport.java
+ *
+ * The TraceReport class replays a trace written by SearchTrace and
+ * summarises the solves in it:
+ *
+ * - f-layer growth, the boards expanded at each priority above the
+ *   estimate of the initial board, and the ratio of each layer to the one
+ *   before, which is the effective branching factor of the search.
+ * - the heuristic error along the solutions found, for each number of
+ *   moves left the mean estimate and how far short of the moves it falls.
+ *   On a shortest solution the moves left are the true distance.
+ * - the solves that expanded the most boards.
+ *
+ * 		java TraceReport [-solve id] trace
+ *
+ * prints the summary of every solve, or with -solve the f-layers and
+ * solution of one solve by its absolute priorities. Solves are folded into
+ * the summary as their END record is read, so the memory used does not
+ * grow with the number of solves.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class TraceReport
+{
+
+	// Solves listed by most boards expanded
+	private static final int SLOWEST_PRINTED = 5;
+
+	/*
+	 * The records of one solve read so far.
+	 */
+	private static class Solve
+	{
+		private final int id; // id of the solve
+		private int rows; // rows of the board
+		private int columns; // columns of the board
+		private int estimate; // heuristic estimate of the initial board
+		private int moves = -1; // moves of the solution, -1 if none
+		private long expanded; // boards expanded, from the END record
+		private int peakOpen; // largest open list recorded
+		private long[] layers = new long[0]; // expansions by f
+		private int[] pathEstimates = new int[0]; // estimate of each board on the solution by g
+		private int pathLength; // boards on the solution recorded
+
+		private Solve(int id)
+		{
+			this.id = id;
+		}
+	}
+
+	private final Map<Integer, Solve> running = new HashMap<Integer, Solve>(); // solves not yet ended
+	private final List<Solve> slowest = new ArrayList<Solve>(); // the solves with the most expansions
+	private final int only; // the id of the one solve to print, or -1 for all
+	private long solves; // solves ended
+	private long solved; // solves that found a solution
+	private long expanded; // boards expanded by every solve
+	private long traced; // expansions recorded by every solve
+	private int peakOpen; // largest open list of any solve
+	private long[] layers = new long[0]; // expansions by f above the initial estimate
+	private long[] errorCount = new long[0]; // boards on solutions by moves left
+	private long[] errorEstimates = new long[0]; // sum of their estimates
+	private long errorInitial; // sum of the error of the initial estimates
+	private int errorInitialMax; // largest error of an initial estimate
+	private Solve chosen; // the solve given by -solve once it has ended
+
+	/*
+	 * Create a report.
+	 *
+	 * @param int only the id of the one solve to report, or -1 for every solve
+	 */
+	public TraceReport(int only)
+	{
+		this.only = only;
+	}
+
+	/*
+	 * Read every record of a trace file.
+	 *
+	 * @param String name the trace file
+	 */
+	public void read(String name) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(Paths.get(name), StandardOpenOption.READ))
+		{
+			ByteBuffer magic = ByteBuffer.allocate(SearchTrace.MAGIC.length);
+			readFully(channel, magic);
+			if (!Arrays.equals(magic.array(), SearchTrace.MAGIC))
+			{
+				throw new IOException(name + " is not a trace file");
+			}
+
+			ByteBuffer header = ByteBuffer.allocate(SearchTrace.CHUNK_HEADER);
+			ByteBuffer records = ByteBuffer.allocate(SearchTrace.CHUNK_RECORDS * SearchTrace.RECORD_BYTES);
+			while (true)
+			{
+				header.clear();
+				if (channel.read(header) < 0)
+				{
+					break;
+				}
+				readFully(channel, header);
+				int id = header.getInt(0);
+				int count = header.getInt(4);
+				if (count < 1 || count > SearchTrace.CHUNK_RECORDS)
+				{
+					throw new IOException("Chunk of " + count + " records in " + name);
+				}
+				records.clear();
+				records.limit(count * SearchTrace.RECORD_BYTES);
+				readFully(channel, records);
+				for (int k = 0; k < count; k++)
+				{
+					replay(id, records.getInt(), records.getInt(), records.getInt(), records.getInt());
+				}
+			}
+		}
+	}
+
+	private static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException
+	{
+		while (buffer.hasRemaining())
+		{
+			if (channel.read(buffer) < 0)
+			{
+				throw new EOFException("Trace ends inside a chunk");
+			}
+		}
+		buffer.flip();
+	}
+
+	/*
+	 * Apply one record to its solve.
+	 */
+	private void replay(int id, int typeAndG, int h, int hash, int value)
+	{
+		if (only >= 0 && id != only)
+		{
+			return;
+		}
+		int type = typeAndG & 0xF;
+		int g = typeAndG >>> 4;
+		Solve solve = running.get(id);
+		if (solve == null)
+		{
+			solve = new Solve(id);
+			running.put(id, solve);
+		}
+		switch (type)
+		{
+			case SearchTrace.START:
+				solve.estimate = h;
+				solve.rows = value >>> 16;
+				solve.columns = value & 0xFFFF;
+				break;
+			case SearchTrace.EXPANDED:
+				int f = g + h;
+				if (f >= solve.layers.length)
+				{
+					solve.layers = Arrays.copyOf(solve.layers, Math.max(2 * solve.layers.length, f + 1));
+				}
+				solve.layers[f]++;
+				solve.peakOpen = Math.max(solve.peakOpen, value);
+				break;
+			case SearchTrace.PATH:
+				if (g >= solve.pathEstimates.length)
+				{
+					solve.pathEstimates = Arrays.copyOf(solve.pathEstimates, Math.max(2 * solve.pathEstimates.length, g + 1));
+				}
+				solve.pathEstimates[g] = h;
+				solve.pathLength = Math.max(solve.pathLength, g + 1);
+				break;
+			case SearchTrace.END:
+				solve.moves = h;
+				solve.expanded = value;
+				running.remove(id);
+				fold(solve);
+				break;
+			default:
+				throw new IllegalStateException("Unknown record type " + type + " in solve " + id);
+		}
+	}
+
+	/*
+	 * Add an ended solve to the summary.
+	 */
+	private void fold(Solve solve)
+	{
+		solves++;
+		expanded += solve.expanded;
+		peakOpen = Math.max(peakOpen, solve.peakOpen);
+		for (int f = solve.estimate; f < solve.layers.length; f++)
+		{
+			traced += solve.layers[f];
+			int above = f - solve.estimate;
+			if (above >= layers.length)
+			{
+				layers = Arrays.copyOf(layers, Math.max(2 * layers.length, above + 1));
+			}
+			layers[above] += solve.layers[f];
+		}
+		if (solve.moves >= 0)
+		{
+			solved++;
+			errorInitial += solve.moves - solve.estimate;
+			errorInitialMax = Math.max(errorInitialMax, solve.moves - solve.estimate);
+			for (int g = 0; g < solve.pathLength; g++)
+			{
+				int left = solve.moves - g;
+				if (left >= errorCount.length)
+				{
+					errorCount = Arrays.copyOf(errorCount, Math.max(2 * errorCount.length, left + 1));
+					errorEstimates = Arrays.copyOf(errorEstimates, errorCount.length);
+				}
+				errorCount[left]++;
+				errorEstimates[left] += solve.pathEstimates[g];
+			}
+		}
+
+		if (only >= 0)
+		{
+			chosen = solve;
+			return;
+		}
+
+		// Keep the solves with the most expansions, without their arrays
+		solve.layers = null;
+		solve.pathEstimates = null;
+		slowest.add(solve);
+		slowest.sort((a, b) -> Long.compare(b.expanded, a.expanded));
+		if (slowest.size() > SLOWEST_PRINTED)
+		{
+			slowest.remove(SLOWEST_PRINTED);
+		}
+	}
+
+	/*
+	 * Print the summary.
+	 *
+	 * @param PrintStream out receives the summary
+	 */
+	public void print(PrintStream out)
+	{
+		if (only >= 0)
+		{
+			printSolve(out);
+			return;
+		}
+		out.println("Solves = " + solves + " (" + solved + " solved, " + running.size() + " not ended)");
+		out.println("Boards expanded = " + expanded + ", " + traced + " traced by A*");
+		out.println("Largest open list = " + peakOpen);
+		if (solved > 0)
+		{
+			out.println(String.format("Initial estimate error = %.2f moves on average, %d at most",
+					(double) errorInitial / solved, errorInitialMax));
+		}
+
+		out.println();
+		out.println("f above the initial estimate, boards expanded, growth");
+		printLayers(out, layers);
+
+		out.println();
+		out.println("Moves left, boards on solutions, mean estimate, mean error, estimate / moves left");
+		for (int left = 0; left < errorCount.length; left++)
+		{
+			if (errorCount[left] > 0)
+			{
+				double estimate = (double) errorEstimates[left] / errorCount[left];
+				out.println(String.format("%4d %10d %8.2f %8.2f %6.3f", left, errorCount[left], estimate,
+						left - estimate, (left == 0) ? 1.0 : estimate / left));
+			}
+		}
+
+		out.println();
+		out.println("Most boards expanded: solve, size, moves, initial estimate, boards expanded");
+		for (Solve solve : slowest)
+		{
+			out.println(String.format("%6d %dx%d %4d %4d %12d", solve.id, solve.rows, solve.columns, solve.moves,
+					solve.estimate, solve.expanded));
+		}
+	}
+
+	/*
+	 * Print the layers and solution of the solve given by -solve.
+	 */
+	private void printSolve(PrintStream out)
+	{
+		if (chosen == null)
+		{
+			out.println("No ended solve " + only + " in the trace");
+			return;
+		}
+		out.println("Solve " + chosen.id + ", " + chosen.rows + "x" + chosen.columns + ", " + chosen.moves
+				+ " moves, initial estimate " + chosen.estimate + ", " + chosen.expanded + " boards expanded");
+		out.println("Largest open list = " + chosen.peakOpen);
+		out.println();
+		out.println("f, boards expanded, growth");
+		printLayers(out, chosen.layers);
+		out.println();
+		out.println("g, estimate, moves left");
+		for (int g = 0; g < chosen.pathLength; g++)
+		{
+			out.println(String.format("%4d %4d %4d", g, chosen.pathEstimates[g], chosen.moves - g));
+		}
+	}
+
+	/*
+	 * Print the non-empty layers, each with its ratio to the last non-empty
+	 * layer before it.
+	 */
+	private static void printLayers(PrintStream out, long[] counts)
+	{
+		long last = 0;
+		for (int f = 0; f < counts.length; f++)
+		{
+			if (counts[f] == 0)
+			{
+				continue;
+			}
+			String growth = (last == 0) ? "" : String.format("%8.2f", (double) counts[f] / last);
+			out.println(String.format("%4d %12d %s", f, counts[f], growth));
+			last = counts[f];
+		}
+	}
+
+	public static void main(String[] args) throws IOException
+	{
+		int only = -1;
+		String name = null;
+		for (int i = 0; i < args.length; i++)
+		{
+			if (args[i].equals("-solve") && i + 1 < args.length)
+			{
+				only = Integer.parseInt(args[++i]);
+			}
+			else
+			{
+				name = args[i];
+			}
+		}
+		if (name == null)
+		{
+			System.err.println("Usage: java TraceReport [-solve id] trace");
+			System.exit(2);
+		}
+		TraceReport report = new TraceReport(only);
+		report.read(name);
+		report.print(System.out);
+	}
+}
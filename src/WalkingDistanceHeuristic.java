@@ -0,0 +1,300 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/*
+ * WalkingDistanceHeuristic.java
+ *
+ * The WalkingDistanceHeuristic class estimates moves with the walking
+ * distance of Ken'ichiro Takahashi. Looking only at rows, a board becomes a
+ * table of how many tiles in each row belong to each goal row. Every vertical
+ * move takes one tile from the row next to the blank into the blank's row,
+ * so the fewest vertical moves needed to turn the table into the goal table
+ * is a lower bound on the vertical moves of the real puzzle. The same is true
+ * of columns and horizontal moves, and the two are added together.
+ *
+ * The fewest moves for every table are found once per board size by breadth
+ * first search from the goal table. The goal is symmetric in rows and columns
+ * so the same distances are used for both. A table is encoded in a long with
+ * 3 bits per count, which limits the heuristic to square boards up to 4x4
+ * with the standard goal.
+ *
+ * A vertical move only changes the row table, by one tile between two rows,
+ * so the update keeps the column part of the parent's estimate and replaces
+ * the row part. The row table after the move is encoded from the board,
+ * which reads all N x N tiles as the parent's table is not passed to
+ * update(), and the table before the move is found from it by moving the
+ * one tile back. Each update is one O(N^2) encoding and two lookups, against
+ * two encodings and two lookups for estimate().
+ *
+ * The distances are read by every search thread on every estimate, so once
+ * built they are read without a lock.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class WalkingDistanceHeuristic implements Heuristic
+{
+
+	// Bits per count in an encoded table
+	private static final int COUNT_BITS = 3;
+
+	// Largest board whose table fits in a long
+	private static final int MAX_DIMENSION = 4;
+
+	// Distances per board size, built when first needed and then read without a lock
+	private static final AtomicReferenceArray<DistanceTable> TABLES =
+			new AtomicReferenceArray<DistanceTable>(MAX_DIMENSION + 1);
+
+	@Override
+	public int estimate(TileGrid board)
+	{
+		if (board.rows() != board.columns() || !board.goal().isStandard())
+		{
+			throw new IllegalArgumentException("Walking distance needs a square board with the standard goal");
+		}
+		DistanceTable table = table(board.dimension());
+		return table.distance(encode(board, true)) + table.distance(encode(board, false));
+	}
+
+	@Override
+	public int update(TileGrid board, int parentEstimate, int direction)
+	{
+		int N = board.dimension();
+		DistanceTable table = table(N);
+		boolean rows = (direction == Board.UP || direction == Board.DOWN);
+		int to = board.movedTileIndex(direction);
+		int from = board.blank();
+		int tile = board.tileAt(to);
+
+		// Before the move the tile was one line over, where the blank is now
+		int goal = rows ? (tile - 1) / N : (tile - 1) % N;
+		int lineTo = rows ? to / N : to % N;
+		int lineFrom = rows ? from / N : from % N;
+		long after = encode(board, rows);
+		long before = after - (1L << shift(N, lineTo, goal)) + (1L << shift(N, lineFrom, goal));
+		return parentEstimate - table.distance(before) + table.distance(after);
+	}
+
+	/*
+	 * Encode the row (or column) table of a board. Count (line, goal) is
+	 * the number of tiles in the line that belong in goal line.
+	 *
+	 * @param TileGrid board the board to encode
+	 * @param boolean rows true for rows, false for columns
+	 *
+	 * @return long the encoded table
+	 */
+	private static long encode(TileGrid board, boolean rows)
+	{
+		int N = board.dimension();
+		long code = 0L;
+		for (int index = 0; index < N * N; index++)
+		{
+			int tile = board.tileAt(index);
+			if (tile == 0)
+			{
+				continue;
+			}
+			int line = rows ? index / N : index % N;
+			int goal = rows ? (tile - 1) / N : (tile - 1) % N;
+			code += 1L << shift(N, line, goal);
+		}
+		return code;
+	}
+
+	/*
+	 * The bit position of count (line, goal) in an encoded table.
+	 */
+	private static int shift(int N, int line, int goal)
+	{
+		return COUNT_BITS * (line * N + goal);
+	}
+
+	/*
+	 * The distances for a board size. Only the first use of a size takes a
+	 * lock, to build them.
+	 *
+	 * @param int N size of the board
+	 *
+	 * @return DistanceTable the distances
+	 */
+	private static DistanceTable table(int N)
+	{
+		if (N < 2 || N > MAX_DIMENSION)
+		{
+			throw new IllegalArgumentException("Walking distance supports boards from 2x2 to "
+					+ MAX_DIMENSION + "x" + MAX_DIMENSION);
+		}
+		DistanceTable table = TABLES.get(N);
+		return (table != null) ? table : build(N);
+	}
+
+	/*
+	 * Build the distances for a board size, unless another thread already has.
+	 */
+	private static synchronized DistanceTable build(int N)
+	{
+		DistanceTable table = TABLES.get(N);
+		if (table == null)
+		{
+			table = new DistanceTable(N);
+			TABLES.set(N, table);
+		}
+		return table;
+	}
+
+	/*
+	 * Fewest moves from each encoded table to the goal table, stored in an
+	 * open addressing hash table of longs.
+	 */
+	private static class DistanceTable
+	{
+		private long[] codes = new long[1 << 10]; // encoded tables, 0 marks an empty slot
+		private byte[] distances = new byte[1 << 10]; // distance of each encoded table
+		private int size; // number of tables stored
+
+		/*
+		 * Breadth first search from the goal table. The goal table has N
+		 * tiles of each goal row in that row, apart from the last row that
+		 * has the blank.
+		 *
+		 * @param int N size of the board
+		 */
+		private DistanceTable(int N)
+		{
+			long goal = 0L;
+			for (int line = 0; line < N; line++)
+			{
+				goal += (long) (line == N - 1 ? N - 1 : N) << shift(N, line, line);
+			}
+
+			long[] frontier = { goal };
+			put(goal, 0);
+			for (int distance = 1; frontier.length > 0; distance++)
+			{
+				long[] next = new long[16];
+				int count = 0;
+				for (long code : frontier)
+				{
+					int blankLine = blankLine(N, code);
+					for (int line = blankLine - 1; line <= blankLine + 1; line += 2)
+					{
+						if (line < 0 || line >= N)
+						{
+							continue;
+						}
+
+						// Move a tile of any goal row from line into the blank's line
+						for (int goalLine = 0; goalLine < N; goalLine++)
+						{
+							if (count(code, shift(N, line, goalLine)) == 0)
+							{
+								continue;
+							}
+							long moved = code - (1L << shift(N, line, goalLine)) + (1L << shift(N, blankLine, goalLine));
+							if (get(moved) < 0)
+							{
+								put(moved, distance);
+								if (count == next.length)
+								{
+									next = Arrays.copyOf(next, count * 2);
+								}
+								next[count++] = moved;
+							}
+						}
+					}
+				}
+				frontier = Arrays.copyOf(next, count);
+			}
+		}
+
+		/*
+		 * The line holding the blank, the only line with fewer than N tiles.
+		 */
+		private static int blankLine(int N, long code)
+		{
+			for (int line = 0; line < N; line++)
+			{
+				int tiles = 0;
+				for (int goalLine = 0; goalLine < N; goalLine++)
+				{
+					tiles += count(code, shift(N, line, goalLine));
+				}
+				if (tiles < N)
+				{
+					return line;
+				}
+			}
+			throw new IllegalStateException("Table has no blank");
+		}
+
+		private static int count(long code, int shift)
+		{
+			return (int) (code >>> shift) & ((1 << COUNT_BITS) - 1);
+		}
+
+		/*
+		 * The distance of an encoded table.
+		 *
+		 * @param long code the encoded table
+		 *
+		 * @return int fewest moves to the goal table
+		 */
+		private int distance(long code)
+		{
+			return get(code);
+		}
+
+		private int get(long code)
+		{
+			int mask = codes.length - 1;
+			int slot = (int) (code ^ (code >>> 29)) * 0x9E3779B9 & mask;
+			while (codes[slot] != 0)
+			{
+				if (codes[slot] == code)
+				{
+					return distances[slot];
+				}
+				slot = (slot + 1) & mask;
+			}
+			return -1;
+		}
+
+		private void put(long code, int distance)
+		{
+			if (2 * (size + 1) > codes.length)
+			{
+				long[] oldCodes = codes;
+				byte[] oldDistances = distances;
+				codes = new long[oldCodes.length * 2];
+				distances = new byte[oldCodes.length * 2];
+				size = 0;
+				for (int slot = 0; slot < oldCodes.length; slot++)
+				{
+					if (oldCodes[slot] != 0)
+					{
+						put(oldCodes[slot], oldDistances[slot]);
+					}
+				}
+			}
+			int mask = codes.length - 1;
+			int slot = (int) (code ^ (code >>> 29)) * 0x9E3779B9 & mask;
+			while (codes[slot] != 0)
+			{
+				slot = (slot + 1) & mask;
+			}
+			codes[slot] = code;
+			distances[slot] = (byte) distance;
+			size++;
+		}
+	}
+
+	@Override
+	public boolean isConsistent()
+	{
+		return true;
+	}
+}
@@ -0,0 +1,113 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Iterator;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * BidirectionalSearchTest.java
+ *
+ * Tests that the bidirectional search finds solutions as short as A* and
+ * that the two halves it joins make a path to the goal.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class BidirectionalSearchTest
+{
+
+	private static final SolverOptions BIDIRECTIONAL = new SolverOptions().algorithm(SolverOptions.Algorithm.BIDIRECTIONAL);
+
+	@Test
+	public void matchesAStarOn3x3()
+	{
+		Random random = new Random(12);
+		for (int k = 0; k < 200; k++)
+		{
+			assertMatchesAStar(randomWalk(3, 100, random));
+		}
+	}
+
+	@Test
+	public void matchesAStarOn4x4()
+	{
+		Random random = new Random(13);
+		for (int k = 0; k < 20; k++)
+		{
+			assertMatchesAStar(randomWalk(4, 40, random));
+		}
+	}
+
+	/*
+	 * The pattern database is admissible but not consistent, which the
+	 * stopping bound allows.
+	 */
+	@Test
+	public void matchesAStarWithPatternDatabase()
+	{
+		SolverOptions options = new SolverOptions().algorithm(SolverOptions.Algorithm.BIDIRECTIONAL)
+				.heuristic(PatternDatabase.build(3));
+		Random random = new Random(14);
+		for (int k = 0; k < 200; k++)
+		{
+			assertMatchesAStar(randomWalk(3, 100, random), options);
+		}
+	}
+
+	private static void assertMatchesAStar(Board board)
+	{
+		assertMatchesAStar(board, BIDIRECTIONAL);
+	}
+
+	private static void assertMatchesAStar(Board board, SolverOptions options)
+	{
+		Solver solver = new Solver(board, options);
+		assertEquals(new Solver(board).moves(), solver.moves(), "Bidirectional from\n" + board);
+
+		Iterator<Board> boards = solver.solution().iterator();
+		Board last = boards.next();
+		assertEquals(board, last);
+		int moves = 0;
+		while (boards.hasNext())
+		{
+			Board next = boards.next();
+			boolean adjacent = false;
+			for (Board neighbour : last.neighbours())
+			{
+				adjacent |= neighbour.equals(next);
+			}
+			assertTrue(adjacent, "Not one move apart\n" + last + "\n" + next);
+			last = next;
+			moves++;
+		}
+		assertTrue(last.isGoal());
+		assertEquals(solver.moves(), moves);
+	}
+
+	/*
+	 * A solvable N x N board made by random moves from the goal.
+	 */
+	private static Board randomWalk(int N, int steps, Random random)
+	{
+		int[][] tiles = new int[N][N];
+		for (int cell = 0; cell < N * N; cell++)
+		{
+			tiles[cell / N][cell % N] = (cell + 1) % (N * N);
+		}
+		Board board = new Board(tiles);
+		for (int step = 0; step < steps; step++)
+		{
+			Board next = board.move(random.nextInt(4));
+			if (next != null)
+			{
+				board = next;
+			}
+		}
+		return new Board(board.toTiles());
+	}
+}
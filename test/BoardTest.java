@@ -0,0 +1,58 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * BoardTest.java
+ *
+ * Tests of the checks made by the Board constructor.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class BoardTest
+{
+
+	@Test
+	public void rejectsDuplicateTile()
+	{
+		assertThrows(IllegalArgumentException.class, () -> new Board(new int[][] { { 1, 2, 3 }, { 4, 5, 6 }, { 7, 7, 0 } }));
+	}
+
+	@Test
+	public void rejectsMissingBlank()
+	{
+		assertThrows(IllegalArgumentException.class, () -> new Board(new int[][] { { 1, 2, 3 }, { 4, 5, 6 }, { 7, 8, 8 } }));
+	}
+
+	@Test
+	public void rejectsTileOutOfRange()
+	{
+		assertThrows(IllegalArgumentException.class, () -> new Board(new int[][] { { 1, 2, 3 }, { 4, 5, 6 }, { 7, 9, 0 } }));
+		assertThrows(IllegalArgumentException.class, () -> new Board(new int[][] { { 1, 2, 3 }, { 4, 5, 6 }, { 7, -8, 0 } }));
+	}
+
+	@Test
+	public void rejectsDuplicateTileOnLargeBoard()
+	{
+		int[][] tiles = new int[9][9];
+		for (int cell = 0; cell < 81; cell++)
+		{
+			tiles[cell / 9][cell % 9] = (cell + 1) % 81;
+		}
+		new Board(tiles);
+		tiles[8][8] = 80;
+		assertThrows(IllegalArgumentException.class, () -> new Board(tiles));
+	}
+
+	@Test
+	public void acceptsPermutation()
+	{
+		Board board = new Board(new int[][] { { 0, 1, 3 }, { 4, 2, 5 }, { 7, 8, 6 } });
+		assertEquals(4, new Solver(board).moves());
+	}
+}
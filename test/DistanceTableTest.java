@@ -0,0 +1,154 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * DistanceTableTest.java
+ *
+ * Tests that the tables built by the external memory StateSpaceSearch hold
+ * the distances found by a breadth first search in memory.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class DistanceTableTest
+{
+
+	// Smallest budget the search takes, so the 8 puzzle spills many runs
+	private static final long MEMORY = 1 << 20;
+
+	@Test
+	public void everyTileTrackedGivesOptimalLengths() throws IOException
+	{
+		Goal goal = Goal.standard(3, 3);
+		Map<Board, Integer> distances = breadthFirst(goal);
+		File directory = Files.createTempDirectory("distance").toFile();
+		try
+		{
+			String file = new File(directory, "table").getPath();
+			DistanceTable table = new StateSpaceSearch(goal, StateSpaceSearch.allTiles(goal), MEMORY, directory).run(file);
+			assertDistances(distances, table);
+			assertEquals(31, table.maxDistance());
+			assertEquals(2, table.count(31));
+			long reached = 0;
+			for (int distance = 0; distance <= table.maxDistance(); distance++)
+			{
+				reached += table.count(distance);
+			}
+			assertEquals(distances.size(), reached);
+
+			assertDistances(distances, DistanceTable.load(file));
+		}
+		finally
+		{
+			deleteAll(directory);
+		}
+	}
+
+	/*
+	 * With only some tiles tracked the distance of a state is the fewest
+	 * moves of any board with those tiles and the blank in those cells.
+	 */
+	@Test
+	public void someTilesTrackedGivesFewestMovesOfTheirBoards() throws IOException
+	{
+		Goal goal = Goal.standard(2, 4);
+		int[] tracked = { 1, 2, 5 };
+		Map<Board, Integer> distances = breadthFirst(goal);
+		Map<String, Integer> fewest = new HashMap<String, Integer>();
+		for (Map.Entry<Board, Integer> entry : distances.entrySet())
+		{
+			fewest.merge(placement(entry.getKey(), tracked), entry.getValue(), Math::min);
+		}
+
+		File directory = Files.createTempDirectory("distance").toFile();
+		try
+		{
+			DistanceTable table = new StateSpaceSearch(goal, tracked, MEMORY, directory)
+					.run(new File(directory, "table").getPath());
+			for (Map.Entry<Board, Integer> entry : distances.entrySet())
+			{
+				assertEquals((int) fewest.get(placement(entry.getKey(), tracked)), table.distance(entry.getKey()),
+						"Distance of\n" + entry.getKey());
+			}
+		}
+		finally
+		{
+			deleteAll(directory);
+		}
+	}
+
+	private static void assertDistances(Map<Board, Integer> distances, DistanceTable table)
+	{
+		for (Map.Entry<Board, Integer> entry : distances.entrySet())
+		{
+			assertEquals((int) entry.getValue(), table.distance(entry.getKey()), "Distance of\n" + entry.getKey());
+		}
+	}
+
+	/*
+	 * The moves from every board that can reach the goal.
+	 */
+	private static Map<Board, Integer> breadthFirst(Goal goal)
+	{
+		Map<Board, Integer> distances = new HashMap<Board, Integer>();
+		ArrayDeque<Board> queue = new ArrayDeque<Board>();
+		distances.put(goal.board(), 0);
+		queue.add(goal.board());
+		while (!queue.isEmpty())
+		{
+			Board board = queue.remove();
+			int moves = distances.get(board);
+			for (Board neighbour : board.neighbours())
+			{
+				if (!distances.containsKey(neighbour))
+				{
+					distances.put(neighbour, moves + 1);
+					queue.add(neighbour);
+				}
+			}
+		}
+		return distances;
+	}
+
+	/*
+	 * The cells of the blank and the tracked tiles of a board.
+	 */
+	private static String placement(Board board, int[] tracked)
+	{
+		int[] cells = new int[board.rows() * board.columns()];
+		for (int cell = 0; cell < cells.length; cell++)
+		{
+			cells[board.tileAt(cell)] = cell;
+		}
+		StringBuilder key = new StringBuilder().append(cells[0]);
+		for (int tile : tracked)
+		{
+			key.append(',').append(cells[tile]);
+		}
+		return key.toString();
+	}
+
+	private static void deleteAll(File directory)
+	{
+		File[] files = directory.listFiles();
+		if (files != null)
+		{
+			for (File file : files)
+			{
+				file.delete();
+			}
+		}
+		directory.delete();
+	}
+}
@@ -0,0 +1,112 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * ExternalSearchTest.java
+ *
+ * Tests that the external memory A* finds shortest solutions, also when its
+ * buckets spill to disk or its heuristic is not consistent, and leaves no
+ * work files behind.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class ExternalSearchTest
+{
+
+	@Test
+	public void matchesAStarOn3x3() throws IOException
+	{
+		Random random = new Random(24);
+		for (int k = 0; k < 100; k++)
+		{
+			assertShortest(randomWalk(3, 100, random), new ManhattanHeuristic(), ExternalSearch.MIN_MEMORY);
+		}
+	}
+
+	@Test
+	public void matchesAStarWhenSpilling() throws IOException
+	{
+		Random random = new Random(25);
+		long spilled = 0;
+		for (int k = 0; k < 10; k++)
+		{
+			spilled += assertShortest(randomWalk(4, 200, random), new ManhattanHeuristic(), ExternalSearch.MIN_MEMORY);
+		}
+		assertTrue(spilled > 0, "No bucket was spilled");
+	}
+
+	/*
+	 * The pattern database is not consistent, so states are met again in
+	 * buckets with more moves and buckets are expanded again. At the
+	 * smallest budget the earlier closed files are subtracted in passes.
+	 */
+	@Test
+	public void matchesAStarWithPatternDatabase() throws IOException
+	{
+		PatternDatabase database = PatternDatabase.build(3);
+		Random random = new Random(26);
+		for (int k = 0; k < 200; k++)
+		{
+			assertShortest(randomWalk(3, 100, random), database, ExternalSearch.MIN_MEMORY);
+		}
+	}
+
+	/*
+	 * Solve a board with the external search and check its solution against
+	 * the length found by A*.
+	 *
+	 * @return long the states spilled to disk
+	 */
+	static long assertShortest(Board board, Heuristic heuristic, long memoryBytes) throws IOException
+	{
+		if (board.isGoal())
+		{
+			return 0;
+		}
+		File directory = Files.createTempDirectory("external").toFile();
+		ExternalSearch search = new ExternalSearch(board, heuristic,
+				new SolverOptions().spillDirectory(directory).memoryBytes(memoryBytes), null);
+		byte[] moves = search.solve();
+		assertEquals(0, directory.list().length, "Work files left in " + directory);
+		directory.delete();
+
+		assertEquals(new Solver(board).moves(), moves.length, "External search from\n" + board);
+		Board last = board;
+		for (byte move : moves)
+		{
+			last = last.move(move);
+			assertNotNull(last);
+		}
+		assertTrue(last.isGoal());
+		return search.spilled();
+	}
+
+	/*
+	 * A solvable board made by random moves from the goal.
+	 */
+	static Board randomWalk(int N, int steps, Random random)
+	{
+		Board board = Goal.standard(N, N).board();
+		for (int step = 0; step < steps; step++)
+		{
+			Board next = board.move(random.nextInt(4));
+			if (next != null)
+			{
+				board = next;
+			}
+		}
+		return new Board(board.toTiles());
+	}
+}
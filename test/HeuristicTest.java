@@ -0,0 +1,91 @@
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/*
+ * HeuristicTest.java
+ *
+ * Tests that the heuristics which say they are consistent never overestimate
+ * and never differ by more than 1 between neighbouring 8 puzzle boards.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class HeuristicTest
+{
+
+	private static final Board GOAL = new Board(new int[][] { { 1, 2, 3 }, { 4, 5, 6 }, { 7, 8, 0 } });
+
+	private static Map<Board, Integer> distances; // moves from every board to the goal
+
+	@BeforeAll
+	public static void search()
+	{
+		distances = new HashMap<Board, Integer>();
+		ArrayDeque<Board> queue = new ArrayDeque<Board>();
+		distances.put(GOAL, 0);
+		queue.add(GOAL);
+		while (!queue.isEmpty())
+		{
+			Board board = queue.remove();
+			int moves = distances.get(board);
+			for (Board neighbour : board.neighbours())
+			{
+				if (!distances.containsKey(neighbour))
+				{
+					distances.put(neighbour, moves + 1);
+					queue.add(neighbour);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void manhattanIsConsistent()
+	{
+		assertConsistent(new ManhattanHeuristic());
+	}
+
+	@Test
+	public void hammingIsConsistent()
+	{
+		assertConsistent(new HammingHeuristic());
+	}
+
+	@Test
+	public void linearConflictIsConsistent()
+	{
+		assertConsistent(new LinearConflictHeuristic());
+	}
+
+	@Test
+	public void walkingDistanceIsConsistent()
+	{
+		assertConsistent(new WalkingDistanceHeuristic());
+	}
+
+	private static void assertConsistent(Heuristic heuristic)
+	{
+		assertTrue(heuristic.isConsistent());
+		for (Map.Entry<Board, Integer> entry : distances.entrySet())
+		{
+			Board board = entry.getKey();
+			int estimate = heuristic.estimate(board);
+			assertTrue(estimate <= entry.getValue(), "Estimate " + estimate + " for a board " + entry.getValue()
+					+ " moves from the goal\n" + board);
+			for (Board neighbour : board.neighbours())
+			{
+				int other = heuristic.estimate(neighbour);
+				assertTrue(Math.abs(estimate - other) <= 1, "Estimates " + estimate + " and " + other + " of\n" + board + neighbour);
+			}
+		}
+	}
+}
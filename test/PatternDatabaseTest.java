@@ -0,0 +1,147 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/*
+ * PatternDatabaseTest.java
+ *
+ * Tests of the pattern database against the true distances of every 8
+ * puzzle board, found by a breadth first search from the goal.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class PatternDatabaseTest
+{
+
+	private static final Board GOAL = new Board(new int[][] { { 1, 2, 3 }, { 4, 5, 6 }, { 7, 8, 0 } });
+
+	private static PatternDatabase database; // the default 4-4 database
+	private static Map<Board, Integer> distances; // moves from every board to the goal
+
+	@BeforeAll
+	public static void build()
+	{
+		database = PatternDatabase.build(3);
+		distances = new HashMap<Board, Integer>();
+		ArrayDeque<Board> queue = new ArrayDeque<Board>();
+		distances.put(GOAL, 0);
+		queue.add(GOAL);
+		while (!queue.isEmpty())
+		{
+			Board board = queue.remove();
+			int moves = distances.get(board);
+			for (Board neighbour : board.neighbours())
+			{
+				if (!distances.containsKey(neighbour))
+				{
+					distances.put(neighbour, moves + 1);
+					queue.add(neighbour);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void neverOverestimates()
+	{
+		assertEquals(181440, distances.size());
+		assertEquals(0, database.estimate(GOAL));
+		for (Map.Entry<Board, Integer> entry : distances.entrySet())
+		{
+			int estimate = database.estimate(entry.getKey());
+			assertTrue(estimate <= entry.getValue(), "Estimate " + estimate + " for a board " + entry.getValue()
+					+ " moves from the goal\n" + entry.getKey());
+		}
+	}
+
+	/*
+	 * Boards whose shortest solutions are known, the two 31 move boards
+	 * being the hardest 8 puzzles.
+	 */
+	@Test
+	public void neverOverestimatesKnownLengths()
+	{
+		int[][][] boards = {
+				{ { 8, 6, 7 }, { 2, 5, 4 }, { 3, 0, 1 } },
+				{ { 6, 4, 7 }, { 8, 5, 0 }, { 3, 2, 1 } },
+				{ { 0, 1, 3 }, { 4, 2, 5 }, { 7, 8, 6 } },
+				{ { 1, 2, 3 }, { 4, 5, 6 }, { 7, 8, 0 } } };
+		int[] lengths = { 31, 31, 4, 0 };
+		for (int k = 0; k < boards.length; k++)
+		{
+			Board board = new Board(boards[k]);
+			assertEquals(lengths[k], new Solver(board).moves());
+			assertEquals(lengths[k], new Solver(board, new SolverOptions().heuristic(database)).moves());
+			assertTrue(database.estimate(board) <= lengths[k], "Estimate " + database.estimate(board) + " for\n" + board);
+		}
+	}
+
+	/*
+	 * The database is admissible only, neighbours can differ by more than
+	 * the move between them.
+	 */
+	@Test
+	public void isNotConsistent()
+	{
+		assertFalse(database.isConsistent());
+		Board board = new Board(new int[][] { { 1, 2, 3 }, { 7, 5, 6 }, { 0, 8, 4 } });
+		Board moved = board.move(Board.DOWN);
+		assertEquals(new Board(new int[][] { { 1, 2, 3 }, { 0, 5, 6 }, { 7, 8, 4 } }), moved);
+		assertEquals(10, database.estimate(board));
+		assertEquals(3, database.estimate(moved));
+	}
+
+	@Test
+	public void updateMatchesEstimate()
+	{
+		Random random = new Random(6);
+		for (int k = 0; k < 200; k++)
+		{
+			Board board = GOAL;
+			int estimate = 0;
+			for (int step = 0; step < 40; step++)
+			{
+				Board next = board.move(random.nextInt(4));
+				if (next == null)
+				{
+					continue;
+				}
+				estimate = database.update(next, estimate, next.lastMove());
+				assertEquals(database.estimate(next), estimate, "Update after a move to\n" + next);
+				board = next;
+			}
+		}
+	}
+
+	@Test
+	public void savedDatabaseGivesTheSameEstimates() throws Exception
+	{
+		File file = File.createTempFile("pdb", ".bin");
+		try
+		{
+			database.save(file.getPath());
+			PatternDatabase loaded = PatternDatabase.load(file.getPath());
+			for (Board board : distances.keySet())
+			{
+				assertEquals(database.estimate(board), loaded.estimate(board));
+			}
+		}
+		finally
+		{
+			file.delete();
+		}
+	}
+}
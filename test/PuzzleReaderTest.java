@@ -0,0 +1,167 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.InputMismatchException;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * PuzzleReaderTest.java
+ *
+ * Tests that puzzles written by PuzzleWriter in either format are read back
+ * by PuzzleReader from a stream or a mapped file, and that malformed input
+ * is reported.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class PuzzleReaderTest
+{
+
+	@Test
+	public void textRoundTrip() throws IOException
+	{
+		assertRoundTrip(false);
+	}
+
+	@Test
+	public void binaryRoundTrip() throws IOException
+	{
+		assertRoundTrip(true);
+	}
+
+	@Test
+	public void squarePuzzleOnOneLine() throws IOException
+	{
+		try (PuzzleReader in = read("3 0 1 3 4 2 5 7 8 6\n"))
+		{
+			Board board = in.next();
+			assertArrayEquals(new int[][] { { 0, 1, 3 }, { 4, 2, 5 }, { 7, 8, 6 } }, board.toTiles());
+			assertFalse(in.hasNext());
+			assertEquals(4, new Solver(board).moves());
+		}
+	}
+
+	@Test
+	public void rectangularHeaderGivesRowsAndColumns() throws IOException
+	{
+		try (PuzzleReader in = read("2x3\n1 2 3\n4 0 5\n2X3 1 2 3 0 4 5\n"))
+		{
+			assertArrayEquals(new int[][] { { 1, 2, 3 }, { 4, 0, 5 } }, in.next().toTiles());
+			assertArrayEquals(new int[][] { { 1, 2, 3 }, { 0, 4, 5 } }, in.next().toTiles());
+			assertFalse(in.hasNext());
+		}
+	}
+
+	@Test
+	public void truncatedPuzzleIsReported() throws IOException
+	{
+		try (PuzzleReader in = read("3\n1 2 3\n4 5 6\n7 8"))
+		{
+			assertThrows(NoSuchElementException.class, in::next);
+		}
+	}
+
+	@Test
+	public void badNumberIsReported() throws IOException
+	{
+		try (PuzzleReader in = read("3\n1 2 3\n4 five 6\n7 8 0\n"))
+		{
+			assertThrows(InputMismatchException.class, in::next);
+		}
+	}
+
+	private static void assertRoundTrip(boolean binary) throws IOException
+	{
+		List<Board> boards = puzzles();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (PuzzleWriter out = new PuzzleWriter(bytes, binary))
+		{
+			for (Board board : boards)
+			{
+				out.write(board);
+			}
+		}
+
+		try (PuzzleReader in = PuzzleReader.open(new ByteArrayInputStream(bytes.toByteArray())))
+		{
+			assertEquals(binary, in.isBinary());
+			assertPuzzles(boards, in);
+		}
+
+		File file = File.createTempFile("puzzles", binary ? ".bin" : ".txt");
+		try
+		{
+			try (FileOutputStream out = new FileOutputStream(file))
+			{
+				out.write(bytes.toByteArray());
+			}
+			try (PuzzleReader in = PuzzleReader.open(file.getPath()))
+			{
+				assertEquals(binary, in.isBinary());
+				assertPuzzles(boards, in);
+			}
+		}
+		finally
+		{
+			file.delete();
+		}
+	}
+
+	private static void assertPuzzles(List<Board> boards, PuzzleReader in)
+	{
+		for (Board board : boards)
+		{
+			assertArrayEquals(board.toTiles(), in.next().toTiles());
+		}
+		assertFalse(in.hasNext());
+	}
+
+	/*
+	 * Boards of every size the formats store differently: packed two tiles
+	 * to a byte or not, square or not.
+	 */
+	private static List<Board> puzzles()
+	{
+		Random random = new Random(19);
+		List<Board> boards = new ArrayList<Board>();
+		int[][] sizes = { { 3, 3 }, { 4, 4 }, { 2, 3 }, { 3, 5 }, { 5, 5 }, { 2, 2 } };
+		for (int[] size : sizes)
+		{
+			for (int k = 0; k < 10; k++)
+			{
+				Board board = Goal.standard(size[0], size[1]).board();
+				for (int step = 0; step < 100; step++)
+				{
+					Board next = board.move(random.nextInt(4));
+					if (next != null)
+					{
+						board = next;
+					}
+				}
+				boards.add(board);
+			}
+		}
+		return boards;
+	}
+
+	private static PuzzleReader read(String text) throws IOException
+	{
+		return PuzzleReader.open(new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII)));
+	}
+}
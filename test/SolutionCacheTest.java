@@ -0,0 +1,135 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Iterator;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * SolutionCacheTest.java
+ *
+ * Tests that solutions answered from the cache, for the board that was
+ * solved, its reflection or a board along its solution, are shortest
+ * solutions that reach the goal.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class SolutionCacheTest
+{
+
+	private static final Board GOAL = new Board(new int[][] { { 1, 2, 3 }, { 4, 5, 6 }, { 7, 8, 0 } });
+
+	@Test
+	public void reflectedBoardIsAHit()
+	{
+		SolutionCache cache = new SolutionCache(1000, 1 << 20, false);
+		SolverOptions options = new SolverOptions();
+		Random random = new Random(10);
+		for (int k = 0; k < 50; k++)
+		{
+			Board board = randomWalk(random);
+			Board reflected = reflect(board);
+			cache.solve(board, options);
+			long hits = cache.hits();
+
+			Solver cached = cache.solve(reflected, options);
+			assertEquals(hits + 1, cache.hits(), "Reflection of\n" + board);
+			assertEquals(new Solver(reflected).moves(), cached.moves());
+			assertReachesGoal(reflected, cached);
+		}
+	}
+
+	@Test
+	public void boardsAlongASolutionAreHits()
+	{
+		SolutionCache cache = new SolutionCache(1000, 1 << 20, true);
+		SolverOptions options = new SolverOptions();
+		Random random = new Random(11);
+		for (int k = 0; k < 20; k++)
+		{
+			Solver solved = cache.solve(randomWalk(random), options);
+			int moves = solved.moves();
+			for (Board along : solved.solution())
+			{
+				// The goal has no moves to cache
+				if (along.isGoal())
+				{
+					break;
+				}
+				long hits = cache.hits();
+				Solver cached = cache.solve(along, options);
+				assertEquals(hits + 1, cache.hits());
+				assertEquals(moves--, cached.moves());
+				assertReachesGoal(along, cached);
+			}
+		}
+	}
+
+	/*
+	 * Check that a solution starts at the initial board, makes one move at a
+	 * time and ends at the goal.
+	 */
+	private static void assertReachesGoal(Board initial, Solver solver)
+	{
+		Iterator<Board> boards = solver.solution().iterator();
+		Board board = boards.next();
+		assertEquals(initial, board);
+		int moves = 0;
+		while (boards.hasNext())
+		{
+			Board next = boards.next();
+			boolean adjacent = false;
+			for (Board neighbour : board.neighbours())
+			{
+				adjacent |= neighbour.equals(next);
+			}
+			assertTrue(adjacent, "Not one move apart\n" + board + "\n" + next);
+			board = next;
+			moves++;
+		}
+		assertTrue(board.isGoal());
+		assertEquals(solver.moves(), moves);
+	}
+
+	/*
+	 * The reflection of a board in its main diagonal, with the tiles renamed
+	 * so the goal reflects onto itself.
+	 */
+	private static Board reflect(Board board)
+	{
+		int[][] tiles = board.toTiles();
+		int N = tiles.length;
+		int[][] reflected = new int[N][N];
+		for (int i = 0; i < N; i++)
+		{
+			for (int j = 0; j < N; j++)
+			{
+				int tile = tiles[i][j];
+				reflected[j][i] = (tile == 0) ? 0 : ((tile - 1) % N) * N + (tile - 1) / N + 1;
+			}
+		}
+		return new Board(reflected);
+	}
+
+	/*
+	 * A solvable board made by random moves from the goal.
+	 */
+	private static Board randomWalk(Random random)
+	{
+		Board board = GOAL;
+		for (int step = 0; step < 60; step++)
+		{
+			Board next = board.move(random.nextInt(4));
+			if (next != null)
+			{
+				board = next;
+			}
+		}
+		return new Board(board.toTiles());
+	}
+}
@@ -0,0 +1,48 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * SolverServerTest.java
+ *
+ * Tests that a request that cannot be answered fails on its own and
+ * leaves the server's workers running.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class SolverServerTest
+{
+
+	@Test
+	public void searchStoppedAtNodeLimitFailsOnlyItsRequest() throws Exception
+	{
+		SolverOptions options = new SolverOptions().nodeLimit(1000);
+		try (SolverServer server = new SolverServer(options, null, 1, 4, 1))
+		{
+			Board hard = new Board(SolverServer.parseLine("4 0 12 9 13 15 11 10 14 3 7 2 5 4 8 6 1"));
+			CompletableFuture<Solver> stopped = server.submit(hard);
+			Throwable error = assertThrows(Exception.class, () -> stopped.get(30, TimeUnit.SECONDS));
+			assertTrue(error instanceof CancellationException || error.getCause() instanceof CancellationException, error.toString());
+
+			Board easy = new Board(SolverServer.parseLine("3 1 2 3 4 0 6 7 5 8"));
+			assertEquals(2, server.submit(easy).get(30, TimeUnit.SECONDS).moves());
+		}
+	}
+
+	@Test
+	public void duplicateTilesAreRejectedBeforeQueueing()
+	{
+		assertThrows(IllegalArgumentException.class,
+				() -> new Board(SolverServer.parseLine("4 1 2 3 4 5 6 7 8 9 10 11 12 13 14 14 0")));
+	}
+}
@@ -0,0 +1,70 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * SolverTest.java
+ *
+ * Regression tests of the Solver's shortest solutions.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class SolverTest
+{
+
+	// The optimal algorithms
+	private static final SolverOptions[] OPTIMAL = {
+			new SolverOptions(),
+			new SolverOptions().compactNodes(true),
+			new SolverOptions().openList(OpenList.Type.HEAP),
+			new SolverOptions().algorithm(SolverOptions.Algorithm.IDA_STAR),
+			new SolverOptions().algorithm(SolverOptions.Algorithm.BIDIRECTIONAL),
+			new SolverOptions().algorithm(SolverOptions.Algorithm.PARALLEL).workers(2) };
+
+	/*
+	 * A board made by move() has a last move, which must still be tried
+	 * from the initial board.
+	 */
+	@Test
+	public void boardMadeByMoveSolvesInOne()
+	{
+		Board goal = Goal.standard(3, 3).board();
+		for (int direction = 0; direction < 4; direction++)
+		{
+			Board one = goal.move(direction);
+			if (one == null)
+			{
+				continue;
+			}
+			for (SolverOptions options : OPTIMAL)
+			{
+				assertEquals(1, new Solver(one, options).moves(), options.algorithm() + " from " + one);
+			}
+		}
+	}
+
+	/*
+	 * Boards made by random walks need as many moves as the same tiles
+	 * given to the Board constructor, which has no last move.
+	 */
+	@Test
+	public void walkedBoardsSolveLikeRebuiltBoards()
+	{
+		Random random = new Random(7);
+		for (int k = 0; k < 100; k++)
+		{
+			Board walked = PuzzleWorkloads.randomWalk(3, 1 + random.nextInt(40), random);
+			int moves = new Solver(new Board(walked.toTiles())).moves();
+			for (SolverOptions options : OPTIMAL)
+			{
+				assertEquals(moves, new Solver(walked, options).moves(), options.algorithm() + " from " + walked);
+			}
+		}
+	}
+}
@@ -0,0 +1,102 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * TraceReportTest.java
+ *
+ * Tests that the solves recorded by a SearchTrace are read back by
+ * TraceReport with the moves and expansions the Solver reported.
+ *
+ * @author David Morton K00179391
+ *
+ * Artificial Intelligence Programming Assignment
+ * 8 Puzzle Problem
+ *
+ */
+public class TraceReportTest
+{
+
+	// Solved in turn, the last expands more boards than fit in one chunk
+	private static final String[] PUZZLES = {
+			"1 2 3 4 0 6 7 5 8",
+			"8 6 7 2 5 4 3 0 1",
+			"5 2 3 4 10 12 1 8 6 0 14 11 9 13 15 7" };
+
+	@Test
+	public void reportMatchesTheSolves() throws IOException
+	{
+		File file = File.createTempFile("solves", ".trace");
+		try
+		{
+			List<Solver> solvers = new ArrayList<Solver>();
+			long expanded = 0;
+			try (SearchTrace trace = new SearchTrace(file))
+			{
+				SolverOptions options = new SolverOptions().trace(trace);
+				for (String puzzle : PUZZLES)
+				{
+					Solver solver = new Solver(board(puzzle), options);
+					solvers.add(solver);
+					expanded += solver.expanded();
+				}
+			}
+			assertTrue(solvers.get(2).expanded() > SearchTrace.CHUNK_RECORDS);
+
+			String summary = report(file, -1);
+			assertTrue(summary.contains("Solves = 3 (3 solved, 0 not ended)\n"), summary);
+			assertTrue(summary.contains("Boards expanded = " + expanded + ", " + expanded + " traced by A*\n"), summary);
+
+			for (int id = 0; id < PUZZLES.length; id++)
+			{
+				Solver solver = solvers.get(id);
+				Board board = board(PUZZLES[id]);
+				String solve = report(file, id);
+				assertTrue(solve.startsWith("Solve " + id + ", " + board.rows() + "x" + board.columns() + ", " + solver.moves()
+						+ " moves, initial estimate " + board.manhattan() + ", " + solver.expanded() + " boards expanded\n"), solve);
+
+				// One line per board on the solution, ending at the goal
+				String path = solve.substring(solve.indexOf("g, estimate, moves left\n"));
+				assertEquals(solver.moves() + 2, path.split("\n").length, path);
+				assertTrue(path.endsWith(String.format("%4d %4d %4d", solver.moves(), 0, 0) + "\n"), path);
+			}
+		}
+		finally
+		{
+			file.delete();
+		}
+	}
+
+	private static String report(File file, int only) throws IOException
+	{
+		TraceReport report = new TraceReport(only);
+		report.read(file.getPath());
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (PrintStream out = new PrintStream(bytes, true, "UTF-8"))
+		{
+			report.print(out);
+		}
+		return new String(bytes.toByteArray(), StandardCharsets.UTF_8).replace(System.lineSeparator(), "\n");
+	}
+
+	private static Board board(String tiles)
+	{
+		String[] values = tiles.split(" ");
+		int N = (int) Math.round(Math.sqrt(values.length));
+		int[][] grid = new int[N][N];
+		for (int cell = 0; cell < values.length; cell++)
+		{
+			grid[cell / N][cell % N] = Integer.parseInt(values[cell]);
+		}
+		return new Board(grid);
+	}
+}